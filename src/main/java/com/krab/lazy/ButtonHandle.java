@@ -0,0 +1,38 @@
+package com.krab.lazy;
+
+import com.krab.lazy.nodes.ButtonNode;
+
+/**
+ * Pre-resolved reference to a button control element.
+ * Obtained once from LazyGui.buttonHandle() and then queried any number of times
+ * without building the path string or looking the button up again.
+ * If the path was already taken by a different type of control element when the handle was created,
+ * the handle is detached and always returns false.
+ * @see LazyGui#buttonHandle(String)
+ */
+public class ButtonHandle {
+    private final ButtonNode node;
+
+    ButtonHandle(ButtonNode node) {
+        this.node = node;
+    }
+
+    /**
+     * Gets the value of the button and sets it to false, just like LazyGui.button() does.
+     * @return button value that can only be true once per user interaction
+     */
+    public boolean get() {
+        if (node == null) {
+            return false;
+        }
+        return node.getBooleanValueAndSetItToFalse();
+    }
+
+    /**
+     * Whether this handle is backed by a live button. Detached handles always return false.
+     * @return false when the path was taken by a different type of control element
+     */
+    public boolean isAttached() {
+        return node != null;
+    }
+}
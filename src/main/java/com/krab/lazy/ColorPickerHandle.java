@@ -0,0 +1,65 @@
+package com.krab.lazy;
+
+import com.krab.lazy.nodes.ColorPickerFolderNode;
+
+/**
+ * Pre-resolved reference to a color picker control element.
+ * Obtained once from LazyGui.colorPickerHandle() and then queried any number of times
+ * without building the path string or looking the color picker up again.
+ * Use hex() for an allocation free read of the color, get() builds a new PickerColor object just like LazyGui.colorPicker() does.
+ * If the path was already taken by a different type of control element when the handle was created,
+ * the handle is detached and always returns its default color.
+ * @see LazyGui#colorPickerHandle(String, int)
+ */
+public class ColorPickerHandle {
+    private final ColorPickerFolderNode node;
+    private final int defaultHex;
+
+    ColorPickerHandle(ColorPickerFolderNode node, int defaultHex) {
+        this.node = node;
+        this.defaultHex = defaultHex;
+    }
+
+    /**
+     * Gets the current color as a processing hex color without allocating anything.
+     * @return processing int color usable in fill() and stroke() in any colorMode
+     */
+    public int hex() {
+        if (node == null) {
+            return defaultHex;
+        }
+        return node.getHex();
+    }
+
+    /**
+     * Gets the current hex and hsba values of the color picker.
+     * @return current hex and hsba values in a new PickerColor object
+     */
+    public PickerColor get() {
+        if (node == null) {
+            return new PickerColor(defaultHex);
+        }
+        return node.getColor();
+    }
+
+    /**
+     * Sets the color picker to a given hex value without requiring user interaction.
+     * Does not block changing the value in the future in any way.
+     * @param hex hex color to set, also works with processing 'color' type
+     */
+    public void set(int hex) {
+        if (node == null) {
+            return;
+        }
+        node.setHex(hex);
+        node.loadValuesFromHex(false);
+    }
+
+    /**
+     * Whether this handle is backed by a live color picker. Detached handles always return the default color.
+     * @return false when the path was taken by a different type of control element
+     */
+    public boolean isAttached() {
+        return node != null;
+    }
+}
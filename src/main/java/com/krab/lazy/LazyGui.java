@@ -8,6 +8,7 @@ import com.krab.lazy.nodes.*;
 import com.krab.lazy.stores.*;
 import com.krab.lazy.themes.ThemeStore;
 import com.krab.lazy.utils.ContextLines;
+import com.krab.lazy.utils.FolderPrefixStack;
 import com.krab.lazy.utils.MouseHiding;
 import com.krab.lazy.utils.SnapToGrid;
 import com.krab.lazy.windows.Window;
@@ -19,7 +20,7 @@ import processing.core.PVector;
 
 import java.io.File;
 import java.nio.file.Paths;
-import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 
 import static com.krab.lazy.stores.GlobalReferences.app;
@@ -43,11 +44,12 @@ public class LazyGui  {
 
     private static int lastFrameCountGuiWasShown = -1;
 
-    ArrayList<String> pathPrefix = new ArrayList<>();
+    final FolderPrefixStack pathPrefix = new FolderPrefixStack();
     int stackSizeWarningLevel = 64;
     private boolean printedPushWarningAlready = false;
     private boolean printedPopWarningAlready = false;
     private PGraphics guiCanvas;
+    private final HashMap<String, Long> lastSeenChangeVersions = new HashMap<>();
     String optionsFolderName = "options";
     String savesFolderName = "saves";
 
@@ -97,9 +99,14 @@ public class LazyGui  {
         UserInputPublisher.initSingleton();
         HotkeySubscriber.initSingleton();
         createOptionsFolder();
+        JsonSaveStore.deleteExpiredAutosaves();
         createSavesFolder();
         WindowManager.addRootWindow();
-        loadGuiStateFromExistingFiles(settings);
+        if(loadGuiStateFromExistingFiles(settings)){
+            ChangeJournal.recoverUnsavedChangesIfAny();
+        }else{
+            ChangeJournal.skipUnsavedChangesIfAny();
+        }
         JsonSaveStore.registerExitHandler();
         lazyFollowSketchResolution();
         registerDrawListener();
@@ -110,20 +117,27 @@ public class LazyGui  {
         app.registerMethod("draw", this);
     }
 
-    private void loadGuiStateFromExistingFiles(LazyGuiSettings settings) {
+    /**
+     * @return whether the sketch started from the latest save, which is the state the change journal of a crashed run builds on
+     */
+    private boolean loadGuiStateFromExistingFiles(LazyGuiSettings settings) {
         if(settings.getSpecificSaveToLoadOnStartupOnce() != null && JsonSaveStore.getSaveFileList().isEmpty()){
             JsonSaveStore.loadStateFromFilePath(settings.getSpecificSaveToLoadOnStartupOnce());
         }
         if(settings.getSpecificSaveToLoadOnStartup() != null){
             JsonSaveStore.loadStateFromFilePath(settings.getSpecificSaveToLoadOnStartup());
+            return false;
         }else if(settings.getShouldLoadLatestSaveOnStartup()){
             JsonSaveStore.loadLatestSave();
+            return true;
         }
+        return false;
     }
 
     void lazyFollowSketchResolution() {
         if (guiCanvas == null || guiCanvas.width != app.width || guiCanvas.height != app.height) {
             guiCanvas = app.createGraphics(app.width, app.height, P2D);
+            RedrawStore.requestRedraw();
             guiCanvas.colorMode(HSB, 1, 1, 1, 1);
             int smoothValue = LayoutStore.getSmoothingValue();
             if(smoothValue == 0){
@@ -182,17 +196,23 @@ public class LazyGui  {
             root.window.windowSizeX = root.autosuggestWindowWidthForContents();
         }
         lazyFollowSketchResolution();
-        updateAllNodeValuesRegardlessOfParentWindowOpenness();
-        guiCanvas.beginDraw();
-        guiCanvas.clear();
+        PresetBank.updateMorph();
+        UpdateScheduler.updateScheduledNodes();
         gui.clearFolder();
         updateOptionsFolder();
-        if (!LayoutStore.isGuiHidden()) {
-            SnapToGrid.displayGuideAndApplyFilter(guiCanvas, getWindowBeingDraggedIfAny());
-            ContextLines.drawLines(guiCanvas);
-            WindowManager.updateAndDrawWindows(guiCanvas);
+        WindowManager.updateAppearanceVersion();
+        // an unchanged gui keeps showing the canvas from the last frame it was drawn on
+        boolean userIsDragging = InteractionStore.getDragged() != null || WindowManager.isAnyWindowBeingDraggedOrResized();
+        if (RedrawStore.consumeRedrawRequest(WindowManager.getAppearanceVersion(), userIsDragging)) {
+            guiCanvas.beginDraw();
+            guiCanvas.clear();
+            if (!LayoutStore.isGuiHidden()) {
+                SnapToGrid.displayGuideAndApplyFilter(guiCanvas, getWindowBeingDraggedIfAny());
+                ContextLines.drawLines(guiCanvas);
+                WindowManager.updateAndDrawWindows(guiCanvas);
+            }
+            guiCanvas.endDraw();
         }
-        guiCanvas.endDraw();
         resetSketchMatrixInAnyRenderer();
         targetCanvas.hint(DISABLE_DEPTH_TEST);
         targetCanvas.pushStyle();
@@ -225,13 +245,9 @@ public class LazyGui  {
     }
 
     private Window getWindowBeingDraggedIfAny() {
-        List<AbstractNode> allNodes = getAllNodesAsList();
-        for(AbstractNode node : allNodes){
-            if(node.type == NodeType.FOLDER){
-                FolderNode folder = (FolderNode) node;
-                if(folder.window != null && folder.window.isBeingDraggedAround){
-                    return folder.window;
-                }
+        for(FolderNode folder : getAllFolders()){
+            if(folder.window != null && folder.window.isBeingDraggedAround){
+                return folder.window;
             }
         }
         return null;
@@ -287,16 +303,70 @@ public class LazyGui  {
     }
 
     private float slider(String path, float defaultValue, float min, float max, boolean constrained) {
-        String fullPath = getFolder() + path;
-        if(isPathTakenByUnexpectedType(fullPath, SliderNode.class)){
+        SliderNode node = findOrCreateSliderNode(getFullPath(path), defaultValue, min, max, constrained);
+        if (node == null) {
             return defaultValue;
         }
+        return node.valueFloat;
+    }
+
+    /**
+     * Resolves a float slider control element once and returns a handle for reading and writing its value without any further path lookups.
+     * Lazily initializes the slider if needed and uses a default value of 0.
+     * Useful for controls that are queried many times per frame.
+     *
+     * @param path forward slash separated unique path to the control element
+     * @return handle to the slider
+     * @see SliderHandle
+     */
+    public SliderHandle sliderHandle(String path) {
+        return sliderHandle(path, 0, Float.MAX_VALUE, -Float.MAX_VALUE, false);
+    }
+
+    /**
+     * Resolves a float slider control element once and returns a handle for reading and writing its value without any further path lookups.
+     * Lazily initializes the slider if needed and uses a specified default value.
+     * Useful for controls that are queried many times per frame.
+     *
+     * @param path forward slash separated unique path to the control element
+     * @param defaultValue default value to set the slider to
+     * @return handle to the slider
+     * @see SliderHandle
+     */
+    public SliderHandle sliderHandle(String path, float defaultValue) {
+        return sliderHandle(path, defaultValue, Float.MAX_VALUE, -Float.MAX_VALUE, false);
+    }
+
+    /**
+     * Resolves a float slider control element once and returns a handle for reading and writing its value without any further path lookups.
+     * Lazily initializes the slider if needed and uses a default value specified in the parameter
+     * along with enforcing a minimum and maximum of reachable values.
+     *
+     * @param path forward slash separated unique path to the control element
+     * @param defaultValue the default value, ideally between min and max
+     * @param min the value cannot go below this, min &lt; max must be true
+     * @param max the value cannot go above this, max &gt; min must be true
+     * @return handle to the slider
+     * @see SliderHandle
+     */
+    public SliderHandle sliderHandle(String path, float defaultValue, float min, float max) {
+        return sliderHandle(path, defaultValue, min, max, true);
+    }
+
+    private SliderHandle sliderHandle(String path, float defaultValue, float min, float max, boolean constrained) {
+        return new SliderHandle(findOrCreateSliderNode(getFullPath(path), defaultValue, min, max, constrained), defaultValue);
+    }
+
+    private SliderNode findOrCreateSliderNode(String fullPath, float defaultValue, float min, float max, boolean constrained) {
+        if(isPathTakenByUnexpectedType(fullPath, SliderNode.class)){
+            return null;
+        }
         SliderNode node = (SliderNode) findNode(fullPath);
         if (node == null) {
             node = createSliderNode(fullPath, defaultValue, min, max, constrained);
             insertNodeAtItsPath(node);
         }
-        return node.valueFloat;
+        return node;
     }
 
     private SliderNode createSliderNode(String path, float defaultValue, float min, float max, boolean constrained) {
@@ -315,7 +385,7 @@ public class LazyGui  {
      * @param value value to set the float slider at the path to
      */
     public void sliderSet(String path, float value){
-        String fullPath = getFolder() + path;
+        String fullPath = getFullPath(path);
         if(isPathTakenByUnexpectedType(fullPath, SliderNode.class)){
             return;
         }
@@ -324,7 +394,7 @@ public class LazyGui  {
             node = createSliderNode(fullPath, value, -Float.MAX_VALUE, Float.MAX_VALUE, false);
             insertNodeAtItsPath(node);
         }
-        node.valueFloat = value;
+        node.setValueFloat(value);
     }
 
     /**
@@ -336,7 +406,7 @@ public class LazyGui  {
      * @param amountToAdd value to set the float slider at the path to
      */
     public void sliderAdd(String path, float amountToAdd){
-        String fullPath = getFolder() + path;
+        String fullPath = getFullPath(path);
         if(isPathTakenByUnexpectedType(fullPath, SliderNode.class)){
             return;
         }
@@ -345,7 +415,7 @@ public class LazyGui  {
             node = createSliderNode(fullPath, 0, -Float.MAX_VALUE, Float.MAX_VALUE, false);
             insertNodeAtItsPath(node);
         }
-        node.valueFloat += amountToAdd;
+        node.setValueFloat(node.valueFloat + amountToAdd);
     }
 
     /**
@@ -387,16 +457,68 @@ public class LazyGui  {
     }
 
     private int sliderInt(String path, int defaultValue, int min, int max, boolean constrained) {
-        String fullPath = getFolder() + path;
-        if(isPathTakenByUnexpectedType(fullPath, SliderNode.class)){
+        SliderIntNode node = findOrCreateSliderIntNode(getFullPath(path), defaultValue, min, max, constrained);
+        if (node == null) {
             return defaultValue;
         }
+        return node.getIntValue();
+    }
+
+    /**
+     * Resolves an integer slider control element once and returns a handle for reading and writing its value without any further path lookups.
+     * Lazily initializes the slider if needed and uses a default value of 0.
+     *
+     * @param path forward slash separated unique path to the control element
+     * @return handle to the slider
+     * @see SliderIntHandle
+     */
+    public SliderIntHandle sliderIntHandle(String path) {
+        return sliderIntHandle(path, 0, -Integer.MAX_VALUE, Integer.MAX_VALUE, false);
+    }
+
+    /**
+     * Resolves an integer slider control element once and returns a handle for reading and writing its value without any further path lookups.
+     * Lazily initializes the slider if needed and uses the specified default value.
+     *
+     * @param path forward slash separated unique path to the control element
+     * @param defaultValue default value to set the slider to
+     * @return handle to the slider
+     * @see SliderIntHandle
+     */
+    public SliderIntHandle sliderIntHandle(String path, int defaultValue) {
+        return sliderIntHandle(path, defaultValue, -Integer.MAX_VALUE, Integer.MAX_VALUE, false);
+    }
+
+    /**
+     * Resolves an integer slider control element once and returns a handle for reading and writing its value without any further path lookups.
+     * Lazily initializes the slider if needed and uses a default value specified in the parameter
+     * along with enforcing a minimum and maximum of reachable values.
+     *
+     * @param path forward slash separated unique path to the control element
+     * @param defaultValue the default value, ideally between min and max
+     * @param min the value cannot go below this, min &lt; max must be true
+     * @param max the value cannot go above this, max &gt; min must be true
+     * @return handle to the slider
+     * @see SliderIntHandle
+     */
+    public SliderIntHandle sliderIntHandle(String path, int defaultValue, int min, int max) {
+        return sliderIntHandle(path, defaultValue, min, max, true);
+    }
+
+    private SliderIntHandle sliderIntHandle(String path, int defaultValue, int min, int max, boolean constrained) {
+        return new SliderIntHandle(findOrCreateSliderIntNode(getFullPath(path), defaultValue, min, max, constrained), defaultValue);
+    }
+
+    private SliderIntNode findOrCreateSliderIntNode(String fullPath, int defaultValue, int min, int max, boolean constrained) {
+        if(isPathTakenByUnexpectedType(fullPath, SliderIntNode.class)){
+            return null;
+        }
         SliderIntNode node = (SliderIntNode) findNode(fullPath);
         if (node == null) {
             node = createSliderIntNode(fullPath, defaultValue, min, max, constrained);
             insertNodeAtItsPath(node);
         }
-        return node.getIntValue();
+        return node;
     }
 
     private SliderIntNode createSliderIntNode(String path, int defaultValue, int min, int max, boolean constrained) {
@@ -416,7 +538,7 @@ public class LazyGui  {
      * @param value value to set the float slider at the path to
      */
     public void sliderIntSet(String path, int value){
-        String fullPath = getFolder() + path;
+        String fullPath = getFullPath(path);
         if(isPathTakenByUnexpectedType(fullPath, SliderNode.class)){
             return;
         }
@@ -425,7 +547,7 @@ public class LazyGui  {
             node = createSliderIntNode(fullPath, value, -Integer.MAX_VALUE, Integer.MAX_VALUE, false);
             insertNodeAtItsPath(node);
         }
-        node.valueFloat = value;
+        node.setValueFloat(value);
     }
 
     /**
@@ -523,7 +645,7 @@ public class LazyGui  {
     }
 
     private PVector plotXYZ(String path, PVector defaultXYZ, boolean useZ){
-        String fullPath = getFolder() + path;
+        String fullPath = getFullPath(path);
         if(isPathTakenByUnexpectedType(fullPath, PlotFolderNode.class)){
             return defaultXYZ == null ? new PVector() : defaultXYZ.copy();
         }
@@ -580,7 +702,7 @@ public class LazyGui  {
     }
 
     private void plotSet(String path, PVector valueToSet, boolean useZ){
-        String fullPath = getFolder() + path;
+        String fullPath = getFullPath(path);
         if(isPathTakenByUnexpectedType(fullPath, PlotFolderNode.class)){
             return;
         }
@@ -617,16 +739,48 @@ public class LazyGui  {
      * @return current value of the toggle
      */
     public boolean toggle(String path, boolean defaultValue) {
-        String fullPath = getFolder() + path;
-        if(isPathTakenByUnexpectedType(fullPath, ToggleNode.class)){
+        ToggleNode node = findOrCreateToggleNode(getFullPath(path), defaultValue);
+        if (node == null) {
             return defaultValue;
         }
+        return node.valueBoolean;
+    }
+
+    /**
+     * Resolves a toggle control element once and returns a handle for reading and writing its value without any further path lookups.
+     * Lazily initializes the toggle if needed and sets its value to false by default.
+     *
+     * @param path forward slash separated unique path to the control element
+     * @return handle to the toggle
+     * @see ToggleHandle
+     */
+    public ToggleHandle toggleHandle(String path) {
+        return toggleHandle(path, false);
+    }
+
+    /**
+     * Resolves a toggle control element once and returns a handle for reading and writing its value without any further path lookups.
+     * Lazily initializes the toggle if needed and sets its value to the specified parameter default.
+     *
+     * @param path forward slash separated unique path to the control element
+     * @param defaultValue default value of the toggle
+     * @return handle to the toggle
+     * @see ToggleHandle
+     */
+    public ToggleHandle toggleHandle(String path, boolean defaultValue) {
+        return new ToggleHandle(findOrCreateToggleNode(getFullPath(path), defaultValue), defaultValue);
+    }
+
+    private ToggleNode findOrCreateToggleNode(String fullPath, boolean defaultValue) {
+        if(isPathTakenByUnexpectedType(fullPath, ToggleNode.class)){
+            return null;
+        }
         ToggleNode node = (ToggleNode) findNode(fullPath);
         if (node == null) {
             node = createToggleNode(fullPath, defaultValue);
             insertNodeAtItsPath(node);
         }
-        return node.valueBoolean;
+        return node;
     }
 
     /**
@@ -638,7 +792,7 @@ public class LazyGui  {
      * @param value current value of the toggle
      */
     public void toggleSet(String path, boolean value) {
-        String fullPath = getFolder() + path;
+        String fullPath = getFullPath(path);
         if(isPathTakenByUnexpectedType(fullPath, ToggleNode.class)){
             return;
         }
@@ -647,7 +801,7 @@ public class LazyGui  {
             node = createToggleNode(fullPath, value);
             insertNodeAtItsPath(node);
         }
-        node.valueBoolean = value;
+        node.setValueBoolean(value);
     }
 
     private ToggleNode createToggleNode(String path, boolean defaultValue) {
@@ -669,16 +823,35 @@ public class LazyGui  {
      * @return button value that can only be true once per user interaction
      */
     public boolean button(String path) {
-        String fullPath = getFolder() + path;
-        if(isPathTakenByUnexpectedType(fullPath, ButtonNode.class)){
+        ButtonNode node = findOrCreateButtonNode(getFullPath(path));
+        if (node == null) {
             return false;
         }
+        return node.getBooleanValueAndSetItToFalse();
+    }
+
+    /**
+     * Resolves a button control element once and returns a handle for reading its value without any further path lookups.
+     * Lazily initializes the button if needed.
+     *
+     * @param path forward slash separated unique path to the control element
+     * @return handle to the button
+     * @see ButtonHandle
+     */
+    public ButtonHandle buttonHandle(String path) {
+        return new ButtonHandle(findOrCreateButtonNode(getFullPath(path)));
+    }
+
+    private ButtonNode findOrCreateButtonNode(String fullPath) {
+        if(isPathTakenByUnexpectedType(fullPath, ButtonNode.class)){
+            return null;
+        }
         ButtonNode node = (ButtonNode) findNode(fullPath);
         if (node == null) {
             node = createButtonNode(fullPath);
             insertNodeAtItsPath(node);
         }
-        return node.getBooleanValueAndSetItToFalse();
+        return node;
     }
 
     private ButtonNode createButtonNode(String path) {
@@ -737,10 +910,47 @@ public class LazyGui  {
      * @return currently selected string
      */
     public String radio(String path, String[] options, String defaultOption) {
-        String fullPath = getFolder() + path;
-        if(isPathTakenByUnexpectedType(fullPath, RadioFolderNode.class)){
+        RadioFolderNode node = findOrCreateRadioNode(getFullPath(path), options, defaultOption);
+        if (node == null) {
             return defaultOption == null ? options[0] : defaultOption;
         }
+        return node.valueString;
+    }
+
+    /**
+     * Resolves a radio control element once and returns a handle for reading and selecting its value without any further path lookups.
+     * Lazily initializes the radio element if needed - any later changes in the options parameter will be ignored.
+     * Sets the default value to the first value in the array.
+     *
+     * @param path forward slash separated unique path to the control element
+     * @param options list of options to display
+     * @return handle to the radio element
+     * @see RadioHandle
+     */
+    public RadioHandle radioHandle(String path, String[] options) {
+        return radioHandle(path, options, null);
+    }
+
+    /**
+     * Resolves a radio control element once and returns a handle for reading and selecting its value without any further path lookups.
+     * Lazily initializes the radio element if needed - any later changes in the options parameter will be ignored.
+     * Sets the default value to the specified parameter value, which must be contained in the options array, or it will be ignored.
+     *
+     * @param path forward slash separated unique path to the control element
+     * @param options list of options to display
+     * @param defaultOption default option to select, must also be found in options, or it is ignored
+     * @return handle to the radio element
+     * @see RadioHandle
+     */
+    public RadioHandle radioHandle(String path, String[] options, String defaultOption) {
+        RadioFolderNode node = findOrCreateRadioNode(getFullPath(path), options, defaultOption);
+        return new RadioHandle(node, defaultOption == null ? options[0] : defaultOption);
+    }
+
+    private RadioFolderNode findOrCreateRadioNode(String fullPath, String[] options, String defaultOption) {
+        if(isPathTakenByUnexpectedType(fullPath, RadioFolderNode.class)){
+            return null;
+        }
         if (options == null || options.length == 0) {
             throw new IllegalArgumentException("options parameter must not be null nor empty");
         }
@@ -750,7 +960,7 @@ public class LazyGui  {
             node = new RadioFolderNode(fullPath, parentFolder, options, defaultOption);
             insertNodeAtItsPath(node);
         }
-        return node.valueString;
+        return node;
     }
 
     /**
@@ -762,7 +972,7 @@ public class LazyGui  {
      * @param optionToSet string option to set the radio element to
      */
     public void radioSet(String path, String optionToSet){
-        String fullPath = getFolder() + path;
+        String fullPath = getFullPath(path);
         if(isPathTakenByUnexpectedType(fullPath, RadioFolderNode.class)){
             return;
         }
@@ -842,17 +1052,49 @@ public class LazyGui  {
      * @return hex and hsba values in a PickerColor object
      */
     public PickerColor colorPicker(String path, int hex) {
-        String fullPath = getFolder() + path;
-        if(isPathTakenByUnexpectedType(fullPath, ColorPickerFolderNode.class)){
+        ColorPickerFolderNode node = findOrCreateColorPickerNode(getFullPath(path), hex);
+        if (node == null) {
             return new PickerColor(hex);
         }
+        return node.getColor();
+    }
+
+    /**
+     * Resolves a color picker control element once and returns a handle for reading and writing its color without any further path lookups.
+     * Lazily initializes the color picker if needed. Default hsba values are (1,1,0,1) - therefore default color is black.
+     *
+     * @param path forward slash separated unique path to the control element
+     * @return handle to the color picker
+     * @see ColorPickerHandle
+     */
+    public ColorPickerHandle colorPickerHandle(String path) {
+        return colorPickerHandle(path, color(1, 1, 0, 1));
+    }
+
+    /**
+     * Resolves a color picker control element once and returns a handle for reading and writing its color without any further path lookups.
+     * Lazily initializes the color picker if needed with the parameter hex value as default color.
+     *
+     * @param path forward slash separated unique path to the control element
+     * @param hex hex color as an integer like 0xFF123456, also works with processing 'color' type
+     * @return handle to the color picker
+     * @see ColorPickerHandle
+     */
+    public ColorPickerHandle colorPickerHandle(String path, int hex) {
+        return new ColorPickerHandle(findOrCreateColorPickerNode(getFullPath(path), hex), hex);
+    }
+
+    private ColorPickerFolderNode findOrCreateColorPickerNode(String fullPath, int hex) {
+        if(isPathTakenByUnexpectedType(fullPath, ColorPickerFolderNode.class)){
+            return null;
+        }
         ColorPickerFolderNode node = (ColorPickerFolderNode) findNode(fullPath);
         if (node == null) {
             FolderNode folder = NodeTree.findParentFolderLazyInitPath(fullPath);
             node = new ColorPickerFolderNode(fullPath, folder, hex);
             insertNodeAtItsPath(node);
         }
-        return node.getColor();
+        return node;
     }
 
     /**
@@ -864,7 +1106,7 @@ public class LazyGui  {
      * @param hex hex color to set, also works with processing 'color' type
      */
     public void colorPickerSet(String path, int hex) {
-        String fullPath = getFolder() + path;
+        String fullPath = getFullPath(path);
         if(isPathTakenByUnexpectedType(fullPath, ColorPickerFolderNode.class)){
             return;
         }
@@ -888,7 +1130,7 @@ public class LazyGui  {
      * @param hueToAdd hue to add, with the hue value being normalized to the range [0,1]
      */
     public void colorPickerHueAdd(String path, float hueToAdd) {
-        String fullPath = getFolder() + path;
+        String fullPath = getFullPath(path);
         if(isPathTakenByUnexpectedType(fullPath, ColorPickerFolderNode.class)){
             return;
         }
@@ -939,17 +1181,49 @@ public class LazyGui  {
     }
 
     private String getTextNodeValue(String path, String content){
-        String fullPath = getFolder() + path;
-        if(NodeTree.isPathTakenByUnexpectedType(fullPath, TextNode.class)){
+        TextNode node = findOrCreateTextNode(getFullPath(path), content);
+        if (node == null) {
             return content;
         }
+        return node.getStringValue();
+    }
+
+    /**
+     * Resolves a text input element once and returns a handle for reading and writing its content without any further path lookups.
+     * Lazily initializes the text input element if needed with its content set to an empty string.
+     *
+     * @param path forward slash separated unique path to the control element
+     * @return handle to the text input
+     * @see TextHandle
+     */
+    public TextHandle textHandle(String path){
+        return textHandle(path, "");
+    }
+
+    /**
+     * Resolves a text input element once and returns a handle for reading and writing its content without any further path lookups.
+     * Lazily initializes the text input element if needed with the specified default.
+     *
+     * @param path forward slash separated unique path to the control element
+     * @param content default value for the text content
+     * @return handle to the text input
+     * @see TextHandle
+     */
+    public TextHandle textHandle(String path, String content){
+        return new TextHandle(findOrCreateTextNode(getFullPath(path), content), content);
+    }
+
+    private TextNode findOrCreateTextNode(String fullPath, String content){
+        if(NodeTree.isPathTakenByUnexpectedType(fullPath, TextNode.class)){
+            return null;
+        }
         TextNode node = (TextNode) findNode(fullPath);
         if (node == null) {
             FolderNode folder = NodeTree.findParentFolderLazyInitPath(fullPath);
             node = new TextNode(fullPath, folder, content);
             insertNodeAtItsPath(node);
         }
-        return node.getStringValue();
+        return node;
     }
 
     /**
@@ -965,7 +1239,7 @@ public class LazyGui  {
     }
 
     private void setTextNodeContent(String path, String content){
-        String fullPath = getFolder() + path;
+        String fullPath = getFullPath(path);
         TextNode node = (TextNode) findNode(fullPath);
         if(NodeTree.isPathTakenByUnexpectedType(fullPath, TextNode.class)){
             return;
@@ -1011,7 +1285,7 @@ public class LazyGui  {
      * @return PGraphics ready to be displayed as an image
      */
     public PGraphics gradient(String path, int[] defaultColors) {
-        String fullPath = getFolder() + path;
+        String fullPath = getFullPath(path);
         if(isPathTakenByUnexpectedType(fullPath, GradientPickerFolderNode.class)){
             return null;
         }
@@ -1033,7 +1307,7 @@ public class LazyGui  {
      * @return PickerColor color at the specified position in the gradient
      */
     public PickerColor gradientColorAt(String path, float position) {
-        String fullPath = getFolder() + path;
+        String fullPath = getFullPath(path);
         if(isPathTakenByUnexpectedType(fullPath, GradientPickerFolderNode.class)){
             return null;
         }
@@ -1071,7 +1345,7 @@ public class LazyGui  {
             // remove trailing slash if un-escaped
             slashSafeFolderName = slashSafeFolderName.substring(0, slashSafeFolderName.length()-1);
         }
-        pathPrefix.add(0, slashSafeFolderName);
+        pathPrefix.push(slashSafeFolderName);
     }
 
     /**
@@ -1086,9 +1360,7 @@ public class LazyGui  {
             println("Too many calls to popFolder() - there is nothing to pop");
             printedPopWarningAlready = true;
         }
-        if(!pathPrefix.isEmpty()){
-            pathPrefix.remove(0);
-        }
+        pathPrefix.pop();
     }
 
     /**
@@ -1109,16 +1381,11 @@ public class LazyGui  {
      * @return entire path prefix stack concatenated to one string
      */
     public String getFolder(){
-        if(pathPrefix.isEmpty()){
-            return "";
-        }
-        StringBuilder sb = new StringBuilder();
-        for (int i = pathPrefix.size() - 1; i >= 0; i--) {
-            String folder = pathPrefix.get(i);
-            sb.append(folder);
-            sb.append("/");
-        }
-        return sb.toString();
+        return pathPrefix.getPrefix();
+    }
+
+    private String getFullPath(String path){
+        return pathPrefix.getFullPath(path);
     }
 
     /**
@@ -1133,7 +1400,7 @@ public class LazyGui  {
             hideCurrentFolder();
             return;
         }
-        String fullPath = getFolder() + path;
+        String fullPath = getFullPath(path);
         NodeTree.hideAtFullPath(fullPath);
     }
 
@@ -1160,7 +1427,7 @@ public class LazyGui  {
             showCurrentFolder();
             return;
         }
-        String fullPath = getFolder() + path;
+        String fullPath = getFullPath(path);
         NodeTree.showAtFullPath(fullPath);
     }
 
@@ -1176,6 +1443,60 @@ public class LazyGui  {
         NodeTree.showAtFullPath(fullPath);
     }
 
+    /**
+     * Checks whether the value of a control element or of anything inside a folder has changed
+     * since the last time this function was called with the same path.
+     * Meant for skipping expensive work like rebuilding geometry on frames where nothing in the relevant part of the GUI moved.
+     * Changes from the mouse, the keyboard, code, undo and redo, and loading saves are all counted.
+     * Returns true on the first call for a path that exists, so the work always runs at least once.
+     * Does not initialize a control and returns false for paths that have not been initialized yet.
+     * @param path path to the control element or folder - it will get prefixed by the current path prefix stack to get the full path,
+     *             an empty string checks the current folder
+     * @return whether anything changed at or below this path since the last call
+     */
+    public boolean hasChanged(String path){
+        String fullPath = getFullPathOfControlOrFolder(path);
+        AbstractNode node = findNode(fullPath);
+        if(node == null){
+            return false;
+        }
+        long changeVersion = node.getChangeVersion();
+        Long lastSeenVersion = lastSeenChangeVersions.put(fullPath, changeVersion);
+        return lastSeenVersion == null || lastSeenVersion != changeVersion;
+    }
+
+    /**
+     * Registers a listener that gets called whenever the value of a control element or of anything inside a folder changes.
+     * The listener is called right when the change happens, typically before draw() when the change comes from user input.
+     * The path does not need to be initialized yet, the listener starts hearing about changes once it is.
+     * @param path path to the control element or folder - it will get prefixed by the current path prefix stack to get the full path,
+     *             an empty string listens to the current folder
+     * @param listener callback that receives the full path of the control element that changed
+     */
+    public void onChange(String path, ValueChangeListener listener){
+        ChangeStore.addListener(getFullPathOfControlOrFolder(path), listener);
+    }
+
+    /**
+     * Removes a listener previously registered by {@link #onChange onChange(String path, ValueChangeListener listener)} at the same path.
+     * @param path path the listener was registered at - it will get prefixed by the current path prefix stack to get the full path
+     * @param listener the listener to remove
+     */
+    public void removeOnChange(String path, ValueChangeListener listener){
+        ChangeStore.removeListener(getFullPathOfControlOrFolder(path), listener);
+    }
+
+    private String getFullPathOfControlOrFolder(String path){
+        if(!path.equals("") && !path.equals("/")){
+            return getFullPath(path);
+        }
+        String fullPath = getFolder();
+        if(fullPath.endsWith("/")){
+            fullPath = fullPath.substring(0, fullPath.length() - 1);
+        }
+        return fullPath;
+    }
+
     /**
      * Creates a new, sequentially numbered save file in the gui save folder inside the sketch data folder.
      * Works the same way as clicking the "Create new save" gui button inside the built-in 'saves' window.
@@ -1205,6 +1526,71 @@ public class LazyGui  {
         JsonSaveStore.loadStateFromFilePath(path);
     }
 
+    /**
+     * Writes an existing save out as a standalone json save file, which is mostly useful for autosaves kept in the deduplicated save history.
+     * Finds the existing save the same way loadSave() does and places the new file the same way createSave(path) does.
+     * @param path name of the existing save file inside the save folder or its entire absolute path
+     * @param jsonPath name of the new json save file or its entire absolute path, ".json" file type suffix is optional and will be appended if missing
+     */
+    public void exportSaveAsJson(String path, String jsonPath){
+        JsonSaveStore.exportSaveAsJson(path, jsonPath);
+    }
+
+    /**
+     * Writes an existing save out as a compact binary save file, the counterpart of exportSaveAsJson(), loadable just like any other save.
+     * @param path name of the existing save file inside the save folder or its entire absolute path
+     * @param binaryPath name of the new binary save file or its entire absolute path, ".lgsave" file type suffix is optional and will be appended if missing
+     */
+    public void exportSaveAsBinary(String path, String binaryPath){
+        JsonSaveStore.exportSaveAsBinary(path, binaryPath);
+    }
+
+    /**
+     * Reads save files into memory as presets that can then be recalled or morphed between without touching the disk again.
+     * Replaces any previously preloaded presets. Finds each save the same way loadSave() does.
+     * Intended to be called once in setup(), preferably after all the controls that the presets should affect were created.
+     * @param paths names of the existing save files inside the save folder or their entire absolute paths, the index of each preset is its position here
+     */
+    public void preloadPresets(String... paths){
+        PresetBank.preload(paths);
+    }
+
+    /**
+     * Gets the number of presets preloaded with preloadPresets().
+     * @return number of preloaded presets
+     */
+    public int getPresetCount(){
+        return PresetBank.getPresetCount();
+    }
+
+    /**
+     * Instantly sets every slider, toggle and color picker to its value in a preloaded preset, stopping any morph in progress.
+     * Much cheaper than loadSave(), so it is fine to call it in the middle of a performance.
+     * @param presetIndex index of the preset in the order it was passed to preloadPresets()
+     */
+    public void recallPreset(int presetIndex){
+        PresetBank.recall(presetIndex);
+    }
+
+    /**
+     * Smoothly morphs every slider, toggle and color picker from one preloaded preset to another over the given time.
+     * Sliders move linearly, colors go the shorter way around the hue wheel and toggles flip halfway through.
+     * @param fromPresetIndex index of the preset to start from
+     * @param toPresetIndex index of the preset to end at
+     * @param seconds how long the morph takes, zero or less recalls the target preset instantly
+     */
+    public void morphPreset(int fromPresetIndex, int toPresetIndex, float seconds){
+        PresetBank.morph(fromPresetIndex, toPresetIndex, seconds);
+    }
+
+    /**
+     * Checks whether a morph started by morphPreset() is still in progress.
+     * @return whether the preset morph is in progress
+     */
+    public boolean isMorphingPreset(){
+        return PresetBank.isMorphing();
+    }
+
     /**
      * Gets the main font as currently used by the GUI.
      * @return main gui font
@@ -1221,13 +1607,6 @@ public class LazyGui  {
         return FontStore.getSideFont();
     }
 
-    private void updateAllNodeValuesRegardlessOfParentWindowOpenness() {
-        List<AbstractNode> allNodes = getAllNodesAsList();
-        for(AbstractNode node : allNodes){
-            node.updateValuesRegardlessOfParentWindowOpenness();
-        }
-    }
-
     /**
      * Should be called at the end of LazyGui.draw().
      * Calling this at the start of draw() would not allow the user to take a screenshot of the gui.
@@ -1,12 +1,17 @@
 package com.krab.lazy;
 
+import com.krab.lazy.stores.AutosaveRetention;
+import com.krab.lazy.stores.ChangeJournal;
 import com.krab.lazy.stores.FontStore;
 import com.krab.lazy.stores.JsonSaveStore;
 import com.krab.lazy.stores.LayoutStore;
+import com.krab.lazy.stores.RedrawStore;
+import com.krab.lazy.stores.UndoRedoStore;
 import com.krab.lazy.utils.MouseHiding;
 import com.krab.lazy.themes.Theme;
 import com.krab.lazy.themes.ThemeStore;
 import com.krab.lazy.themes.ThemeType;
+import com.krab.lazy.windows.WindowManager;
 
 import static com.krab.lazy.stores.GlobalReferences.gui;
 
@@ -27,10 +32,19 @@ public class LazyGuiSettings {
     private boolean loadLatestSaveOnStartup;
     private boolean autosaveOnExitEnabled;
     private boolean autosaveLockGuardEnabled;
+    private boolean compactSaveFilesEnabled;
+    private boolean autosaveHistoryEnabled;
+    private boolean binarySaveFilesEnabled;
+    private boolean binarySaveCompressionEnabled;
+    private boolean shardedSaveFilesEnabled;
+    private boolean lazyFolderSavesEnabled;
+    private boolean changeJournalEnabled;
     private boolean mouseShouldHideWhenDragging;
     private boolean mouseShouldConfineToWindow;
     private boolean autosuggestWindowWidth;
     private long autosaveLockGuardMillisLimit;
+    private int latestAutosavesToKeep;
+    private boolean olderAutosaveThinningEnabled;
     private float cellSize;
     private int mainFontSize, sideFontSize;
     private boolean startWithGuiHidden = false;
@@ -41,6 +55,10 @@ public class LazyGuiSettings {
     private String pathToSpecificSaveToLoadOnStartupOnce = null;
     private String sketchNameOverride = null;
     private int smoothingValue;
+    private boolean windowTexturesEnabled;
+    private boolean skipUnchangedFramesEnabled;
+    private float guiRefreshRateLimit;
+    private long undoMemoryBudgetBytes;
 
     /**
      * Constructor, call this before any other function here.
@@ -61,26 +79,51 @@ public class LazyGuiSettings {
         this.autosaveOnExitEnabled = JsonSaveStore.autosaveOnExitEnabled;
         this.loadLatestSaveOnStartup = JsonSaveStore.shouldLoadLatestSaveOnStartupByDefault;
         this.autosaveLockGuardEnabled = JsonSaveStore.autosaveLockGuardEnabled;
+        this.compactSaveFilesEnabled = JsonSaveStore.compactSaveFilesEnabled;
+        this.autosaveHistoryEnabled = JsonSaveStore.autosaveHistoryEnabled;
+        this.binarySaveFilesEnabled = JsonSaveStore.binarySaveFilesEnabled;
+        this.binarySaveCompressionEnabled = JsonSaveStore.binarySaveCompressionEnabled;
+        this.shardedSaveFilesEnabled = JsonSaveStore.shardedSaveFilesEnabled;
+        this.lazyFolderSavesEnabled = JsonSaveStore.lazyFolderSavesEnabled;
+        this.changeJournalEnabled = ChangeJournal.journalEnabled;
         this.autosaveLockGuardMillisLimit = JsonSaveStore.autosaveLockGuardMillisLimit;
+        this.latestAutosavesToKeep = AutosaveRetention.latestAutosavesToKeep;
+        this.olderAutosaveThinningEnabled = AutosaveRetention.olderAutosaveThinningEnabled;
         this.mouseShouldHideWhenDragging = MouseHiding.shouldHideWhenDragging;
         this.mouseShouldConfineToWindow = MouseHiding.shouldConfineToWindow;
         this.cellSize = LayoutStore.cell;
         this.startWithGuiHidden = LayoutStore.isGuiHidden();
         this.smoothingValue = LayoutStore.getSmoothingValue();
+        this.windowTexturesEnabled = WindowManager.windowTexturesEnabled;
+        this.skipUnchangedFramesEnabled = RedrawStore.skipUnchangedFramesEnabled;
+        this.guiRefreshRateLimit = RedrawStore.refreshRateLimit;
         this.autosuggestWindowWidth = LayoutStore.getAutosuggestWindowWidth();
         this.mainFontSize = FontStore.mainFontSizeDefault;
         this.sideFontSize = FontStore.sideFontSizeDefault;
+        this.undoMemoryBudgetBytes = UndoRedoStore.memoryBudgetBytes;
     }
 
     void applyEarlyStartupSettings() {
         JsonSaveStore.autosaveOnExitEnabled = autosaveOnExitEnabled;
         JsonSaveStore.autosaveLockGuardEnabled = autosaveLockGuardEnabled;
+        JsonSaveStore.compactSaveFilesEnabled = compactSaveFilesEnabled;
+        JsonSaveStore.autosaveHistoryEnabled = autosaveHistoryEnabled;
+        JsonSaveStore.binarySaveFilesEnabled = binarySaveFilesEnabled;
+        JsonSaveStore.binarySaveCompressionEnabled = binarySaveCompressionEnabled;
+        JsonSaveStore.shardedSaveFilesEnabled = shardedSaveFilesEnabled;
+        JsonSaveStore.lazyFolderSavesEnabled = lazyFolderSavesEnabled;
+        ChangeJournal.journalEnabled = changeJournalEnabled;
         JsonSaveStore.autosaveLockGuardMillisLimit = autosaveLockGuardMillisLimit;
+        AutosaveRetention.latestAutosavesToKeep = latestAutosavesToKeep;
+        AutosaveRetention.olderAutosaveThinningEnabled = olderAutosaveThinningEnabled;
         MouseHiding.shouldHideWhenDragging = mouseShouldHideWhenDragging;
         MouseHiding.shouldConfineToWindow = mouseShouldConfineToWindow;
         LayoutStore.cell = cellSize;
         LayoutStore.setAutosuggestWindowWidth(autosuggestWindowWidth);
         LayoutStore.setSmoothingValue(smoothingValue);
+        WindowManager.windowTexturesEnabled = windowTexturesEnabled;
+        RedrawStore.skipUnchangedFramesEnabled = skipUnchangedFramesEnabled;
+        RedrawStore.refreshRateLimit = guiRefreshRateLimit;
         FontStore.mainFontSizeDefault = mainFontSize;
         FontStore.sideFontSizeDefault = sideFontSize;
         if (themeCustom != null) {
@@ -89,6 +132,7 @@ public class LazyGuiSettings {
             ThemeStore.selectThemeByTypeBeforeInit(themePreset);
         }
         LayoutStore.setIsGuiHidden(startWithGuiHidden);
+        UndoRedoStore.memoryBudgetBytes = undoMemoryBudgetBytes;
         if(sketchNameOverride != null){
             LayoutStore.setOverridingSketchName(sketchNameOverride);
         }
@@ -212,6 +256,127 @@ public class LazyGuiSettings {
         return this;
     }
 
+    /**
+     * How many of the latest autosaves to always keep. Every autosave gets its own file named after the time it was made,
+     * older autosaves are deleted or thinned out on startup. Manual saves are never deleted. The default is 10.
+     *
+     * @param latestAutosavesToKeep number of the latest autosaves to keep
+     * @return this settings object for chaining statements easily
+     * @see #setAutosaveHistoryThinning(boolean)
+     */
+    public LazyGuiSettings setAutosaveHistoryLength(int latestAutosavesToKeep) {
+        this.latestAutosavesToKeep = latestAutosavesToKeep;
+        return this;
+    }
+
+    /**
+     * Should the autosaves older than the latest few be thinned out instead of deleted?
+     * When enabled, one autosave is kept per hour for the last day, one per day for the last month and one per week before that.
+     * When disabled, only the latest autosaves are kept. Enabled by default.
+     *
+     * @param thinningEnabled should older autosaves be thinned out by age instead of being deleted
+     * @return this settings object for chaining statements easily
+     * @see #setAutosaveHistoryLength(int)
+     */
+    public LazyGuiSettings setAutosaveHistoryThinning(boolean thinningEnabled) {
+        this.olderAutosaveThinningEnabled = thinningEnabled;
+        return this;
+    }
+
+    /**
+     * Should the save files be written as compact json without any indentation or line breaks?
+     * Compact saves are smaller and faster to write, but harder to read and diff. Both kinds can always be loaded.
+     *
+     * @param compactSaveFilesEnabled should new save files be compact
+     * @return this settings object for chaining statements easily
+     */
+    public LazyGuiSettings setCompactSaveFiles(boolean compactSaveFilesEnabled) {
+        this.compactSaveFilesEnabled = compactSaveFilesEnabled;
+        return this;
+    }
+
+    /**
+     * Should autosaves go to the deduplicated save history instead of being written as full json files?
+     * The history stores every node's state once and shares it between all the saves it did not change in,
+     * each autosave then only adds the changed nodes and a tiny ".manifest" file, and an autosave where nothing changed is skipped.
+     * History saves load just like json saves and can be exported as json with LazyGui.exportSaveAsJson(). Enabled by default.
+     *
+     * @param autosaveHistoryEnabled should autosaves be written to the deduplicated save history
+     * @return this settings object for chaining statements easily
+     */
+    public LazyGuiSettings setAutosaveToHistory(boolean autosaveHistoryEnabled) {
+        this.autosaveHistoryEnabled = autosaveHistoryEnabled;
+        return this;
+    }
+
+    /**
+     * Should new save files be written in the compact binary ".lgsave" format instead of json?
+     * Binary saves are several times smaller and faster to load, but cannot be read or edited by hand.
+     * Saves given an explicit ".json" or ".lgsave" file type keep it regardless of this setting.
+     * Both kinds can always be loaded and converted into each other with LazyGui.exportSaveAsJson() and LazyGui.exportSaveAsBinary(). Disabled by default.
+     *
+     * @param binarySaveFilesEnabled should new save files be binary
+     * @return this settings object for chaining statements easily
+     */
+    public LazyGuiSettings setBinarySaveFiles(boolean binarySaveFilesEnabled) {
+        this.binarySaveFilesEnabled = binarySaveFilesEnabled;
+        return this;
+    }
+
+    /**
+     * Should binary save files be deflate compressed? Compression makes them smaller still at a small cost in save and load time.
+     * Enabled by default, only matters when binary saves are used.
+     *
+     * @param binarySaveCompressionEnabled should binary save files be compressed
+     * @return this settings object for chaining statements easily
+     */
+    public LazyGuiSettings setBinarySaveCompression(boolean binarySaveCompressionEnabled) {
+        this.binarySaveCompressionEnabled = binarySaveCompressionEnabled;
+        return this;
+    }
+
+    /**
+     * Should new save files be split into one shard per top-level folder in a single ".lgshards" file?
+     * The shards are written and parsed in parallel on all cores, which makes saving and loading GUIs with tens of thousands of controls
+     * across many top-level folders several times faster. Small GUIs gain nothing from it. Takes precedence over binary saves.
+     * Sharded saves load just like json saves and can be exported as json with LazyGui.exportSaveAsJson(). Disabled by default.
+     *
+     * @param shardedSaveFilesEnabled should new save files be sharded
+     * @return this settings object for chaining statements easily
+     */
+    public LazyGuiSettings setShardedSaveFiles(boolean shardedSaveFilesEnabled) {
+        this.shardedSaveFilesEnabled = shardedSaveFilesEnabled;
+        return this;
+    }
+
+    /**
+     * Should new saves keep each top-level folder in its own file that only gets loaded once the sketch first creates that folder?
+     * Startup time and memory then only grow with the part of the GUI a run actually uses, like the one scene out of many that is selected.
+     * The state of folders a run never creates is carried over into its new saves unchanged.
+     * Takes precedence over sharded and binary saves and also applies to autosaves instead of the deduplicated save history.
+     * Lazy saves can be exported as a single json file with LazyGui.exportSaveAsJson(). Disabled by default.
+     *
+     * @param lazyFolderSavesEnabled should new saves load their top-level folders lazily
+     * @return this settings object for chaining statements easily
+     */
+    public LazyGuiSettings setLazyFolderSaves(boolean lazyFolderSavesEnabled) {
+        this.lazyFolderSavesEnabled = lazyFolderSavesEnabled;
+        return this;
+    }
+
+    /**
+     * Should every change be recorded in a journal file, so that changes are not lost when the sketch crashes or gets killed before it can autosave?
+     * The journal is written on a background thread, replayed on the next startup after a bad exit and deleted after a graceful one.
+     * Once it grows over a megabyte it gets compacted into a new autosave. Enabled by default.
+     *
+     * @param changeJournalEnabled should changes be journaled for crash recovery
+     * @return this settings object for chaining statements easily
+     */
+    public LazyGuiSettings setChangeJournal(boolean changeJournalEnabled) {
+        this.changeJournalEnabled = changeJournalEnabled;
+        return this;
+    }
+
     /**
      * When the lock guard is enabled it checks whether the last frame took too long and does not autosave if it did.
      * Autosaving isn't always a good idea - this protects the user against cases when the sketch gets stuck in an endless loop that may have been caused by selecting some dangerous gui values.
@@ -338,6 +503,57 @@ public class LazyGuiSettings {
         return this;
     }
 
+    /**
+     * Should each window keep its contents in a cached texture that only gets redrawn when something in the window changes?
+     * A window that is not being interacted with is then drawn as a single image, so the cost of drawing the GUI follows what changed rather than how many windows are open.
+     * Windows with animated elements like a hovered slider or a color preview are still drawn from scratch every frame. Enabled by default.
+     *
+     * @param windowTexturesEnabled should unchanged windows be drawn from their cached textures
+     * @return this settings object for chaining statements easily
+     */
+    public LazyGuiSettings setWindowTextures(boolean windowTexturesEnabled){
+        this.windowTexturesEnabled = windowTexturesEnabled;
+        return this;
+    }
+
+    /**
+     * Should the GUI skip drawing itself on frames where nothing it shows has changed and show its previous frame instead?
+     * The GUI is drawn again after any mouse or keyboard input, value change, new control, theme or font change and while something in it is animating.
+     * An idle GUI then costs only drawing one image over the sketch every frame. Enabled by default.
+     *
+     * @param skipUnchangedFramesEnabled should the GUI only be drawn again when something in it changed
+     * @return this settings object for chaining statements easily
+     */
+    public LazyGuiSettings setSkipUnchangedFrames(boolean skipUnchangedFramesEnabled){
+        this.skipUnchangedFramesEnabled = skipUnchangedFramesEnabled;
+        return this;
+    }
+
+    /**
+     * Limits how many times per second the GUI gets drawn, showing its previous frame in between, for example 30 or 60 in a sketch running faster than that.
+     * Mouse and keyboard input is still handled on every frame, so the values the sketch reads from the GUI change just as soon as without the limit.
+     * The GUI is drawn on every frame regardless of the limit while the user drags a control or a window. No limit by default.
+     *
+     * @param framesPerSecond maximum GUI frames per second, zero or less draws the GUI on every sketch frame
+     * @return this settings object for chaining statements easily
+     */
+    public LazyGuiSettings setGuiRefreshRate(float framesPerSecond){
+        this.guiRefreshRateLimit = framesPerSecond;
+        return this;
+    }
+
+    /**
+     * Limits the memory used by the undo history. The oldest undo steps are forgotten when the history grows over this limit.
+     * The latest undo step is always kept. The default is 16 MB.
+     *
+     * @param megabytes approximate memory limit for the undo history in megabytes
+     * @return this settings object for chaining statements easily
+     */
+    public LazyGuiSettings setUndoMemoryBudget(float megabytes){
+        this.undoMemoryBudgetBytes = (long) (megabytes * 1024 * 1024);
+        return this;
+    }
+
     boolean getShouldLoadLatestSaveOnStartup() {
         return loadLatestSaveOnStartup;
     }
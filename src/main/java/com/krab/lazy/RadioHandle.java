@@ -0,0 +1,63 @@
+package com.krab.lazy;
+
+import com.krab.lazy.nodes.RadioFolderNode;
+
+import java.util.List;
+
+import static processing.core.PApplet.println;
+
+/**
+ * Pre-resolved reference to a radio control element.
+ * Obtained once from LazyGui.radioHandle() and then queried any number of times
+ * without building the path string or looking the radio element up again.
+ * If the path was already taken by a different type of control element when the handle was created,
+ * the handle is detached and always returns its default option.
+ * @see LazyGui#radioHandle(String, String[], String)
+ */
+public class RadioHandle {
+    private final RadioFolderNode node;
+    private final String defaultOption;
+
+    RadioHandle(RadioFolderNode node, String defaultOption) {
+        this.node = node;
+        this.defaultOption = defaultOption;
+    }
+
+    /**
+     * Gets the currently selected option.
+     * @return currently selected string
+     */
+    public String get() {
+        if (node == null) {
+            return defaultOption;
+        }
+        return node.valueString;
+    }
+
+    /**
+     * Selects one of the existing options without requiring user interaction.
+     * If the option is not found in the radio's options it is ignored and a warning message is printed to console.
+     * @param optionToSet string option to set the radio element to
+     */
+    public void set(String optionToSet) {
+        if (node == null) {
+            return;
+        }
+        List<String> options = node.getOptions();
+        if (options.contains(optionToSet)) {
+            node.selectOption(optionToSet);
+        } else {
+            println("attempted to set an option: " + optionToSet +
+                    " to a radio element at path: " + node.path +
+                    " which does not appear in the options: " + options);
+        }
+    }
+
+    /**
+     * Whether this handle is backed by a live radio element. Detached handles always return the default option.
+     * @return false when the path was taken by a different type of control element
+     */
+    public boolean isAttached() {
+        return node != null;
+    }
+}
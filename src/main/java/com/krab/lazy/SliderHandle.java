@@ -0,0 +1,64 @@
+package com.krab.lazy;
+
+import com.krab.lazy.nodes.SliderNode;
+
+/**
+ * Pre-resolved reference to a float slider control element.
+ * Obtained once from LazyGui.sliderHandle() and then queried any number of times
+ * without building the path string or looking the slider up again.
+ * Reading the value is a plain field read that never allocates.
+ * If the path was already taken by a different type of control element when the handle was created,
+ * the handle is detached and always returns its default value.
+ * @see LazyGui#sliderHandle(String, float)
+ */
+public class SliderHandle {
+    private final SliderNode node;
+    private final float defaultValue;
+
+    SliderHandle(SliderNode node, float defaultValue) {
+        this.node = node;
+        this.defaultValue = defaultValue;
+    }
+
+    /**
+     * Gets the current value of the slider.
+     * @return current float value of the slider
+     */
+    public float get() {
+        if (node == null) {
+            return defaultValue;
+        }
+        return node.valueFloat;
+    }
+
+    /**
+     * Sets the value of the slider without requiring user interaction.
+     * Does not block changing the value in the future in any way.
+     * @param value value to set the slider to
+     */
+    public void set(float value) {
+        if (node == null) {
+            return;
+        }
+        node.setValueFloat(value);
+    }
+
+    /**
+     * Adds to the value of the slider without requiring user interaction.
+     * @param amountToAdd value to add to the current slider value
+     */
+    public void add(float amountToAdd) {
+        if (node == null) {
+            return;
+        }
+        node.setValueFloat(node.valueFloat + amountToAdd);
+    }
+
+    /**
+     * Whether this handle is backed by a live slider. Detached handles always return the default value.
+     * @return false when the path was taken by a different type of control element
+     */
+    public boolean isAttached() {
+        return node != null;
+    }
+}
@@ -0,0 +1,52 @@
+package com.krab.lazy;
+
+import com.krab.lazy.nodes.SliderIntNode;
+
+/**
+ * Pre-resolved reference to an integer slider control element.
+ * Obtained once from LazyGui.sliderIntHandle() and then queried any number of times
+ * without building the path string or looking the slider up again.
+ * If the path was already taken by a different type of control element when the handle was created,
+ * the handle is detached and always returns its default value.
+ * @see LazyGui#sliderIntHandle(String, int)
+ */
+public class SliderIntHandle {
+    private final SliderIntNode node;
+    private final int defaultValue;
+
+    SliderIntHandle(SliderIntNode node, int defaultValue) {
+        this.node = node;
+        this.defaultValue = defaultValue;
+    }
+
+    /**
+     * Gets the current value of the slider.
+     * @return current int value of the slider
+     */
+    public int get() {
+        if (node == null) {
+            return defaultValue;
+        }
+        return node.getIntValue();
+    }
+
+    /**
+     * Sets the value of the slider without requiring user interaction.
+     * Does not block changing the value in the future in any way.
+     * @param value value to set the slider to
+     */
+    public void set(int value) {
+        if (node == null) {
+            return;
+        }
+        node.setValueFloat(value);
+    }
+
+    /**
+     * Whether this handle is backed by a live slider. Detached handles always return the default value.
+     * @return false when the path was taken by a different type of control element
+     */
+    public boolean isAttached() {
+        return node != null;
+    }
+}
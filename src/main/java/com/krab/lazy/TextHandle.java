@@ -0,0 +1,52 @@
+package com.krab.lazy;
+
+import com.krab.lazy.nodes.TextNode;
+
+/**
+ * Pre-resolved reference to a text input control element.
+ * Obtained once from LazyGui.textHandle() and then queried any number of times
+ * without building the path string or looking the text input up again.
+ * If the path was already taken by a different type of control element when the handle was created,
+ * the handle is detached and always returns its default content.
+ * @see LazyGui#textHandle(String, String)
+ */
+public class TextHandle {
+    private final TextNode node;
+    private final String defaultContent;
+
+    TextHandle(TextNode node, String defaultContent) {
+        this.node = node;
+        this.defaultContent = defaultContent;
+    }
+
+    /**
+     * Gets the current content of the text input.
+     * @return current value of the text input
+     */
+    public String get() {
+        if (node == null) {
+            return defaultContent;
+        }
+        return node.getStringValue();
+    }
+
+    /**
+     * Sets the content of the text input without requiring user interaction.
+     * Setting it every frame will result in the text field effectively being read-only.
+     * @param content new text content
+     */
+    public void set(String content) {
+        if (node == null) {
+            return;
+        }
+        node.setStringValue(content);
+    }
+
+    /**
+     * Whether this handle is backed by a live text input. Detached handles always return the default content.
+     * @return false when the path was taken by a different type of control element
+     */
+    public boolean isAttached() {
+        return node != null;
+    }
+}
@@ -0,0 +1,52 @@
+package com.krab.lazy;
+
+import com.krab.lazy.nodes.ToggleNode;
+
+/**
+ * Pre-resolved reference to a toggle control element.
+ * Obtained once from LazyGui.toggleHandle() and then queried any number of times
+ * without building the path string or looking the toggle up again.
+ * If the path was already taken by a different type of control element when the handle was created,
+ * the handle is detached and always returns its default value.
+ * @see LazyGui#toggleHandle(String, boolean)
+ */
+public class ToggleHandle {
+    private final ToggleNode node;
+    private final boolean defaultValue;
+
+    ToggleHandle(ToggleNode node, boolean defaultValue) {
+        this.node = node;
+        this.defaultValue = defaultValue;
+    }
+
+    /**
+     * Gets the current value of the toggle.
+     * @return current value of the toggle
+     */
+    public boolean get() {
+        if (node == null) {
+            return defaultValue;
+        }
+        return node.valueBoolean;
+    }
+
+    /**
+     * Sets the value of the toggle without requiring user interaction.
+     * Does not block changing the value in the future in any way.
+     * @param value value to set the toggle to
+     */
+    public void set(boolean value) {
+        if (node == null) {
+            return;
+        }
+        node.setValueBoolean(value);
+    }
+
+    /**
+     * Whether this handle is backed by a live toggle. Detached handles always return the default value.
+     * @return false when the path was taken by a different type of control element
+     */
+    public boolean isAttached() {
+        return node != null;
+    }
+}
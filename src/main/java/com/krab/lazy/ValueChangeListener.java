@@ -0,0 +1,15 @@
+package com.krab.lazy;
+
+/**
+ * Callback for value changes of a control element or of anything inside a folder.
+ * Registered with LazyGui.onChange() and called right when the change happens,
+ * which is usually during input handling before the sketch's draw() runs.
+ * @see LazyGui#onChange(String, ValueChangeListener)
+ */
+public interface ValueChangeListener {
+    /**
+     * Called whenever a value changes at the path the listener was registered at or anywhere below it.
+     * @param changedPath full path of the control element whose value changed
+     */
+    void onValueChanged(String changedPath);
+}
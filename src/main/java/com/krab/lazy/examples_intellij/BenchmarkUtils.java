@@ -0,0 +1,51 @@
+package com.krab.lazy.examples_intellij;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+import static processing.core.PApplet.nf;
+
+/**
+ * Small helpers shared by the benchmark sketches in this package.
+ * Allocation is measured with the HotSpot specific per-thread allocation counter when it is available.
+ */
+class BenchmarkUtils {
+    private static final ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+
+    private BenchmarkUtils() {
+
+    }
+
+    /**
+     * Bytes allocated so far by the current thread, or -1 when the JVM does not support measuring it.
+     */
+    static long allocatedBytes() {
+        if (threadBean instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean) threadBean).getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+        return -1;
+    }
+
+    static String formatNanos(double nanos) {
+        if (nanos >= 1e6) {
+            return nf((float) (nanos / 1e6), 0, 2) + " ms";
+        }
+        if (nanos >= 1e3) {
+            return nf((float) (nanos / 1e3), 0, 2) + " us";
+        }
+        return nf((float) nanos, 0, 1) + " ns";
+    }
+
+    static String formatBytes(double bytes) {
+        if (bytes < 0) {
+            return "n/a";
+        }
+        if (bytes >= 1024 * 1024) {
+            return nf((float) (bytes / (1024 * 1024)), 0, 2) + " MB";
+        }
+        if (bytes >= 1024) {
+            return nf((float) (bytes / 1024), 0, 2) + " KB";
+        }
+        return nf((float) bytes, 0, 1) + " B";
+    }
+}
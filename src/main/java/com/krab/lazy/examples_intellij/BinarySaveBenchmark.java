@@ -0,0 +1,149 @@
+package com.krab.lazy.examples_intellij;
+
+import com.krab.lazy.LazyGui;
+import com.krab.lazy.LazyGuiSettings;
+import com.krab.lazy.stores.BinarySaveFormat;
+import com.krab.lazy.stores.LoadedNodeState;
+import com.krab.lazy.stores.NodeStateJsonReader;
+import com.krab.lazy.stores.NodeTree;
+import com.krab.lazy.stores.NodeTreeJsonWriter;
+import processing.core.PApplet;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static com.krab.lazy.examples_intellij.BenchmarkUtils.*;
+
+/**
+ * Saves a tree of about 20k nodes as indented json, compact json, binary and compressed binary,
+ * then compares their file sizes and how long each one takes to encode and to parse back into loaded node states.
+ * Also checks that json converted to binary and back is the very same json.
+ */
+public class BinarySaveBenchmark extends PApplet {
+    LazyGui gui;
+    final int folderCount = 300;
+    final int slidersPerFolder = 66;
+    final int rounds = 20;
+    final int warmupRounds = 5;
+    final List<String> results = new ArrayList<>();
+    long sink = 0;
+
+    public static void main(String[] args) {
+        PApplet.main(java.lang.invoke.MethodHandles.lookup().lookupClass());
+    }
+
+    @Override
+    public void settings() {
+        size(800, 400, P2D);
+    }
+
+    @Override
+    public void setup() {
+        gui = new LazyGui(this, new LazyGuiSettings()
+                .setLoadLatestSaveOnStartup(false)
+                .setAutosaveOnExit(false)
+        );
+        gui.pushFolder("bench");
+        for (int i = 0; i < folderCount; i++) {
+            gui.pushFolder("folder " + i);
+            for (int j = 0; j < slidersPerFolder; j++) {
+                gui.slider("slider " + j, i * 0.01f + j);
+            }
+            gui.toggle("enabled", i % 2 == 0);
+            gui.text("label", "folder number " + i);
+            gui.popFolder();
+        }
+        gui.popFolder();
+    }
+
+    @Override
+    public void draw() {
+        background(0.1f);
+        if (frameCount == 2) {
+            runBenchmark();
+        }
+        fill(255);
+        textSize(16);
+        for (int i = 0; i < results.size(); i++) {
+            text(results.get(i), 20, 40 + i * 24);
+        }
+    }
+
+    private void runBenchmark() {
+        byte[] prettyJson = NodeTreeJsonWriter.toJsonBytes(NodeTree.getRoot(), true);
+        byte[] compactJson = NodeTreeJsonWriter.toJsonBytes(NodeTree.getRoot(), false);
+        LoadedNodeState state = parseJson(compactJson);
+        byte[] binary = BinarySaveFormat.encode(state, false);
+        byte[] deflated = BinarySaveFormat.encode(state, true);
+        report("saved nodes: " + countNodes(state));
+        report("lossless json -> binary -> json: " + Arrays.equals(prettyJson,
+                NodeTreeJsonWriter.toJsonBytes(parseBinary(deflated), true)));
+
+        for (int i = 0; i < warmupRounds; i++) {
+            sink += NodeTreeJsonWriter.toJsonBytes(NodeTree.getRoot(), true).length;
+            sink += BinarySaveFormat.encode(LoadedNodeState.capture(NodeTree.getRoot(), true), true).length;
+            sink += countNodes(parseJson(prettyJson)) + countNodes(parseBinary(binary)) + countNodes(parseBinary(deflated));
+        }
+        reportVariant("pretty json", prettyJson, () -> NodeTreeJsonWriter.toJsonBytes(NodeTree.getRoot(), true).length,
+                () -> countNodes(parseJson(prettyJson)));
+        reportVariant("compact json", compactJson, () -> NodeTreeJsonWriter.toJsonBytes(NodeTree.getRoot(), false).length,
+                () -> countNodes(parseJson(compactJson)));
+        reportVariant("binary", binary, () -> BinarySaveFormat.encode(LoadedNodeState.capture(NodeTree.getRoot(), true), false).length,
+                () -> countNodes(parseBinary(binary)));
+        reportVariant("deflated binary", deflated, () -> BinarySaveFormat.encode(LoadedNodeState.capture(NodeTree.getRoot(), true), true).length,
+                () -> countNodes(parseBinary(deflated)));
+        report("(sink " + sink + ")");
+    }
+
+    private void reportVariant(String name, byte[] file, Timed encode, Timed parse) {
+        long start = System.nanoTime();
+        for (int i = 0; i < rounds; i++) {
+            sink += encode.run();
+        }
+        long encodeNanos = (System.nanoTime() - start) / rounds;
+        start = System.nanoTime();
+        for (int i = 0; i < rounds; i++) {
+            sink += parse.run();
+        }
+        long parseNanos = (System.nanoTime() - start) / rounds;
+        report(name + ": " + formatBytes(file.length) + ", encode " + formatNanos(encodeNanos) + ", parse " + formatNanos(parseNanos));
+    }
+
+    private interface Timed {
+        int run();
+    }
+
+    private LoadedNodeState parseJson(byte[] json) {
+        try {
+            return NodeStateJsonReader.read(new String(json, StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private LoadedNodeState parseBinary(byte[] binary) {
+        try {
+            return BinarySaveFormat.decode(binary);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private int countNodes(LoadedNodeState node) {
+        int count = 1;
+        if (node.children != null) {
+            for (LoadedNodeState child : node.children) {
+                count += countNodes(child);
+            }
+        }
+        return count;
+    }
+
+    private void report(String line) {
+        println(line);
+        results.add(line);
+    }
+}
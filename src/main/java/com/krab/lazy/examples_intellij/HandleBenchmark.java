@@ -0,0 +1,115 @@
+package com.krab.lazy.examples_intellij;
+
+import com.krab.lazy.LazyGui;
+import com.krab.lazy.LazyGuiSettings;
+import com.krab.lazy.SliderHandle;
+import processing.core.PApplet;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.krab.lazy.examples_intellij.BenchmarkUtils.*;
+
+/**
+ * Compares the per-call cost of the string based gui.slider() API against pre-resolved SliderHandle objects.
+ * Every object reads its control through two levels of pushFolder(), which is the typical usage inside per-object loops.
+ */
+public class HandleBenchmark extends PApplet {
+    LazyGui gui;
+    final int objectCount = 500;
+    final int rounds = 200;
+    final int warmupRounds = 50;
+    final String[] objectNames = new String[objectCount];
+    final SliderHandle[] handles = new SliderHandle[objectCount];
+    final List<String> results = new ArrayList<>();
+    float sink = 0;
+
+    public static void main(String[] args) {
+        PApplet.main(java.lang.invoke.MethodHandles.lookup().lookupClass());
+    }
+
+    @Override
+    public void settings() {
+        size(800, 400, P2D);
+    }
+
+    @Override
+    public void setup() {
+        gui = new LazyGui(this, new LazyGuiSettings()
+                .setLoadLatestSaveOnStartup(false)
+                .setAutosaveOnExit(false)
+        );
+        for (int i = 0; i < objectCount; i++) {
+            objectNames[i] = "object " + i;
+            gui.pushFolder("bench");
+            gui.pushFolder(objectNames[i]);
+            handles[i] = gui.sliderHandle("amount", i);
+            gui.popFolder();
+            gui.popFolder();
+        }
+    }
+
+    @Override
+    public void draw() {
+        background(0.1f);
+        if (frameCount == 2) {
+            runBenchmark();
+        }
+        fill(255);
+        textSize(16);
+        for (int i = 0; i < results.size(); i++) {
+            text(results.get(i), 20, 40 + i * 24);
+        }
+    }
+
+    private void runBenchmark() {
+        for (int i = 0; i < warmupRounds; i++) {
+            readWithStrings();
+            readWithHandles();
+        }
+        long allocBefore = allocatedBytes();
+        long start = System.nanoTime();
+        for (int i = 0; i < rounds; i++) {
+            readWithStrings();
+        }
+        long stringNanos = System.nanoTime() - start;
+        long stringAlloc = allocatedBytes() - allocBefore;
+
+        allocBefore = allocatedBytes();
+        start = System.nanoTime();
+        for (int i = 0; i < rounds; i++) {
+            readWithHandles();
+        }
+        long handleNanos = System.nanoTime() - start;
+        long handleAlloc = allocatedBytes() - allocBefore;
+
+        int calls = rounds * objectCount;
+        report("calls per variant: " + calls + " (sink " + sink + ")");
+        report("gui.slider(path): " + formatNanos(stringNanos / (double) calls) + " per call, " +
+                formatBytes(stringAlloc / (double) calls) + " allocated per call");
+        report("SliderHandle.get(): " + formatNanos(handleNanos / (double) calls) + " per call, " +
+                formatBytes(handleAlloc / (double) calls) + " allocated per call");
+        report("speedup: " + nf(stringNanos / max(handleNanos, 1), 0, 1) + "x");
+    }
+
+    private void readWithStrings() {
+        gui.pushFolder("bench");
+        for (int i = 0; i < objectCount; i++) {
+            gui.pushFolder(objectNames[i]);
+            sink += gui.slider("amount", i);
+            gui.popFolder();
+        }
+        gui.popFolder();
+    }
+
+    private void readWithHandles() {
+        for (int i = 0; i < objectCount; i++) {
+            sink += handles[i].get();
+        }
+    }
+
+    private void report(String line) {
+        println(line);
+        results.add(line);
+    }
+}
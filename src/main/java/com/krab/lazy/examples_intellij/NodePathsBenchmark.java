@@ -0,0 +1,153 @@
+package com.krab.lazy.examples_intellij;
+
+import com.krab.lazy.utils.NodePaths;
+import processing.core.PApplet;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static com.krab.lazy.examples_intellij.BenchmarkUtils.*;
+
+/**
+ * Compares the hand-written path scanner in NodePaths against the regex based implementation it replaced.
+ * Also checks that both implementations return the same results for every sample path before timing them.
+ */
+public class NodePathsBenchmark extends PApplet {
+    static final String REGEX_UNESCAPED_SLASH_LOOKBEHIND = "(?<!\\\\)\\/";
+    static final String REGEX_UNESCAPED_SLASH_LOOKAROUND = "(?<!\\\\)(?=\\/)";
+    final String[] samplePaths = {
+            "",
+            "slider",
+            "scene/shapes/circle/radius",
+            "scene/shapes/circle\\/ellipse/size x",
+            "/leading slash",
+            "trailing slash/",
+            "double//slash",
+            "a\\\\/b",
+            "options/themes/custom/window border",
+            "very/deep/path/with/many/segments/in/it/for/the/scanner/value",
+    };
+    final int rounds = 200000;
+    final int warmupRounds = 20000;
+    final List<String> results = new ArrayList<>();
+    int sink = 0;
+
+    public static void main(String[] args) {
+        PApplet.main(java.lang.invoke.MethodHandles.lookup().lookupClass());
+    }
+
+    @Override
+    public void settings() {
+        size(800, 400, P2D);
+    }
+
+    @Override
+    public void draw() {
+        background(0.1f);
+        if (frameCount == 2) {
+            checkEquivalence();
+            runBenchmark();
+        }
+        fill(255);
+        textSize(16);
+        for (int i = 0; i < results.size(); i++) {
+            text(results.get(i), 20, 40 + i * 24);
+        }
+    }
+
+    private void checkEquivalence() {
+        int mismatches = 0;
+        for (String path : samplePaths) {
+            if (!Arrays.equals(regexSplit(path), NodePaths.splitByUnescapedSlashes(path))
+                    || !Arrays.equals(regexSplitKeepingSlashes(path), NodePaths.splitByUnescapesSlashesWithoutRemovingThem(path))
+                    || !regexPathWithoutName(path).equals(NodePaths.getPathWithoutName(path))
+                    || !regexNameWithoutPrefixSlash(path).equals(NodePaths.getNameWithoutPrefixSlash(path))
+                    || !regexDisplayString(path).equals(NodePaths.getDisplayStringWithoutEscapes(path))) {
+                report("mismatch for path: \"" + path + "\"");
+                mismatches++;
+            }
+        }
+        report("equivalence check: " + (mismatches == 0 ? "ok" : mismatches + " mismatches"));
+    }
+
+    private void runBenchmark() {
+        for (int i = 0; i < warmupRounds; i++) {
+            parseWithRegex();
+            parseWithScanner();
+        }
+        long allocBefore = allocatedBytes();
+        long start = System.nanoTime();
+        for (int i = 0; i < rounds; i++) {
+            parseWithRegex();
+        }
+        long regexNanos = System.nanoTime() - start;
+        long regexAlloc = allocatedBytes() - allocBefore;
+
+        allocBefore = allocatedBytes();
+        start = System.nanoTime();
+        for (int i = 0; i < rounds; i++) {
+            parseWithScanner();
+        }
+        long scannerNanos = System.nanoTime() - start;
+        long scannerAlloc = allocatedBytes() - allocBefore;
+
+        long paths = (long) rounds * samplePaths.length;
+        report("paths parsed per variant: " + paths + " (sink " + sink + ")");
+        report("regex: " + formatNanos(regexNanos / (double) paths) + " per path, " +
+                formatBytes(regexAlloc / (double) paths) + " allocated per path");
+        report("scanner: " + formatNanos(scannerNanos / (double) paths) + " per path, " +
+                formatBytes(scannerAlloc / (double) paths) + " allocated per path");
+        report("speedup: " + nf(regexNanos / max(scannerNanos, 1), 0, 1) + "x");
+    }
+
+    private void parseWithRegex() {
+        for (String path : samplePaths) {
+            sink += regexSplit(path).length;
+            sink += regexSplitKeepingSlashes(path).length;
+            sink += regexPathWithoutName(path).length();
+            sink += regexNameWithoutPrefixSlash(path).length();
+            sink += regexDisplayString(path).length();
+        }
+    }
+
+    private void parseWithScanner() {
+        for (String path : samplePaths) {
+            sink += NodePaths.splitByUnescapedSlashes(path).length;
+            sink += NodePaths.splitByUnescapesSlashesWithoutRemovingThem(path).length;
+            sink += NodePaths.getPathWithoutName(path).length();
+            sink += NodePaths.getNameWithoutPrefixSlash(path).length();
+            sink += NodePaths.getDisplayStringWithoutEscapes(path).length();
+        }
+    }
+
+    private static String[] regexSplit(String path) {
+        return path.split(REGEX_UNESCAPED_SLASH_LOOKBEHIND);
+    }
+
+    private static String[] regexSplitKeepingSlashes(String path) {
+        return path.split(REGEX_UNESCAPED_SLASH_LOOKAROUND);
+    }
+
+    private static String regexPathWithoutName(String path) {
+        String[] split = regexSplitKeepingSlashes(path);
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < split.length - 1; i++) {
+            sb.append(split[i]);
+        }
+        return sb.toString();
+    }
+
+    private static String regexNameWithoutPrefixSlash(String path) {
+        return path.replaceAll(REGEX_UNESCAPED_SLASH_LOOKBEHIND, "");
+    }
+
+    private static String regexDisplayString(String path) {
+        return path.replaceAll("\\\\/", "/");
+    }
+
+    private void report(String line) {
+        println(line);
+        results.add(line);
+    }
+}
@@ -0,0 +1,118 @@
+package com.krab.lazy.examples_intellij;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.krab.lazy.LazyGui;
+import com.krab.lazy.LazyGuiSettings;
+import com.krab.lazy.stores.NodeTree;
+import com.krab.lazy.stores.NodeTreeJsonWriter;
+import processing.core.PApplet;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.krab.lazy.examples_intellij.BenchmarkUtils.*;
+
+/**
+ * Compares serializing a tree of about 10k nodes with the reflection based Gson path used before
+ * against the streaming NodeTreeJsonWriter in both its pretty and compact modes.
+ * Also checks that the pretty output of both is identical.
+ */
+public class NodeTreeJsonBenchmark extends PApplet {
+    LazyGui gui;
+    final int folderCount = 100;
+    final int slidersPerFolder = 100;
+    final int rounds = 20;
+    final int warmupRounds = 5;
+    final Gson gson = new GsonBuilder().excludeFieldsWithoutExposeAnnotation().setPrettyPrinting().create();
+    final List<String> results = new ArrayList<>();
+    long sink = 0;
+
+    public static void main(String[] args) {
+        PApplet.main(java.lang.invoke.MethodHandles.lookup().lookupClass());
+    }
+
+    @Override
+    public void settings() {
+        size(800, 400, P2D);
+    }
+
+    @Override
+    public void setup() {
+        gui = new LazyGui(this, new LazyGuiSettings()
+                .setLoadLatestSaveOnStartup(false)
+                .setAutosaveOnExit(false)
+        );
+        for (int i = 0; i < folderCount; i++) {
+            gui.pushFolder("bench");
+            gui.pushFolder("folder " + i);
+            for (int j = 0; j < slidersPerFolder; j++) {
+                gui.slider("slider " + j, i * 0.01f + j);
+            }
+            gui.popFolder();
+            gui.popFolder();
+        }
+    }
+
+    @Override
+    public void draw() {
+        background(0.1f);
+        if (frameCount == 2) {
+            runBenchmark();
+        }
+        fill(255);
+        textSize(16);
+        for (int i = 0; i < results.size(); i++) {
+            text(results.get(i), 20, 40 + i * 24);
+        }
+    }
+
+    private void runBenchmark() {
+        String gsonJson = gson.toJson(NodeTree.getRoot());
+        String streamedJson = NodeTreeJsonWriter.toJsonString(NodeTree.getRoot(), true);
+        report("nodes: " + NodeTree.getAllNodes().length + ", identical pretty output: " + gsonJson.equals(streamedJson));
+        for (int i = 0; i < warmupRounds; i++) {
+            sink += gson.toJson(NodeTree.getRoot()).length();
+            sink += NodeTreeJsonWriter.toJsonBytes(NodeTree.getRoot(), true).length;
+            sink += NodeTreeJsonWriter.toJsonBytes(NodeTree.getRoot(), false).length;
+        }
+
+        long allocBefore = allocatedBytes();
+        long start = System.nanoTime();
+        for (int i = 0; i < rounds; i++) {
+            sink += gson.toJson(NodeTree.getRoot()).length();
+        }
+        reportVariant("gson pretty", System.nanoTime() - start, allocatedBytes() - allocBefore, gsonJson.length());
+
+        allocBefore = allocatedBytes();
+        start = System.nanoTime();
+        int prettyLength = 0;
+        for (int i = 0; i < rounds; i++) {
+            prettyLength = NodeTreeJsonWriter.toJsonBytes(NodeTree.getRoot(), true).length;
+            sink += prettyLength;
+        }
+        reportVariant("streaming pretty", System.nanoTime() - start, allocatedBytes() - allocBefore, prettyLength);
+
+        allocBefore = allocatedBytes();
+        start = System.nanoTime();
+        int compactLength = 0;
+        for (int i = 0; i < rounds; i++) {
+            compactLength = NodeTreeJsonWriter.toJsonBytes(NodeTree.getRoot(), false).length;
+            sink += compactLength;
+        }
+        reportVariant("streaming compact", System.nanoTime() - start, allocatedBytes() - allocBefore, compactLength);
+        report("(sink " + sink + ")");
+    }
+
+    private void reportVariant(String name, long nanos, long allocated, int outputLength) {
+        double nanosPerRound = nanos / (double) rounds;
+        float megabytesPerSecond = (float) (outputLength / (1024.0 * 1024.0) / (nanosPerRound / 1e9));
+        report(name + ": " + formatNanos(nanosPerRound) + " per tree, " + nf(megabytesPerSecond, 0, 1) + " MB/s, " +
+                formatBytes(allocated / (double) rounds) + " allocated per tree, output " + formatBytes(outputLength));
+    }
+
+    private void report(String line) {
+        println(line);
+        results.add(line);
+    }
+}
@@ -0,0 +1,188 @@
+package com.krab.lazy.examples_intellij;
+
+import com.krab.lazy.LazyGui;
+import com.krab.lazy.LazyGuiSettings;
+import com.krab.lazy.nodes.AbstractNode;
+import com.krab.lazy.nodes.NodeType;
+import com.krab.lazy.stores.JsonSaveStore;
+import com.krab.lazy.stores.LoadedNodeState;
+import com.krab.lazy.stores.NodeStateJsonReader;
+import com.krab.lazy.stores.NodeTree;
+import com.krab.lazy.stores.NodeTreeJsonWriter;
+import processing.core.PApplet;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Queue;
+
+import static com.krab.lazy.examples_intellij.BenchmarkUtils.*;
+
+/**
+ * Loads a save of about 20k nodes where a third of the saved nodes do not exist in the gui yet,
+ * then pastes one big folder over another one.
+ * Compares the single pass walk of the loaded and live trees in JsonSaveStore against the per-path lookup it replaced,
+ * which found every node by its full path and rewrote every path with String.replace() when pasting.
+ * Both variants are timed including the parsing, which is also timed on its own.
+ */
+public class SaveLoadBenchmark extends PApplet {
+    LazyGui gui;
+    final int folderCount = 100;
+    final int slidersPerFolder = 66;
+    final int rounds = 20;
+    final int warmupRounds = 5;
+    final List<String> results = new ArrayList<>();
+    String saveJson;
+    String folderJson;
+    long sink = 0;
+
+    public static void main(String[] args) {
+        PApplet.main(java.lang.invoke.MethodHandles.lookup().lookupClass());
+    }
+
+    @Override
+    public void settings() {
+        size(800, 400, P2D);
+    }
+
+    @Override
+    public void setup() {
+        gui = new LazyGui(this, new LazyGuiSettings()
+                .setLoadLatestSaveOnStartup(false)
+                .setAutosaveOnExit(false)
+        );
+        createSliders("bench");
+        createSliders("bench copy");
+        createSliders("missing");
+        saveJson = NodeTreeJsonWriter.toJsonString(NodeTree.getRoot(), false);
+        folderJson = NodeTreeJsonWriter.toJsonString(NodeTree.findNode("bench"), false);
+        // the saved "missing" folder stays in the json but is taken out of the gui, so its states end up pending
+        AbstractNode missing = NodeTree.findNode("missing");
+        NodeTree.getRoot().children.remove(missing);
+        NodeTree.unindexSubtree(missing);
+    }
+
+    private void createSliders(String topFolder) {
+        gui.pushFolder(topFolder);
+        for (int i = 0; i < folderCount; i++) {
+            gui.pushFolder("folder " + i);
+            for (int j = 0; j < slidersPerFolder; j++) {
+                gui.slider("slider " + j, i * 0.01f + j);
+            }
+            gui.popFolder();
+        }
+        gui.popFolder();
+    }
+
+    @Override
+    public void draw() {
+        background(0.1f);
+        if (frameCount == 2) {
+            runBenchmark();
+        }
+        fill(255);
+        textSize(16);
+        for (int i = 0; i < results.size(); i++) {
+            text(results.get(i), 20, 40 + i * 24);
+        }
+    }
+
+    private void runBenchmark() {
+        int savedNodeCount = countNodes(parse(saveJson));
+        report("saved nodes: " + savedNodeCount + ", live nodes: " + NodeTree.getAllNodes().length);
+        for (int i = 0; i < warmupRounds; i++) {
+            sink += countNodes(parse(saveJson));
+            applyWithPathLookups(parse(saveJson), null);
+            JsonSaveStore.loadStateFromJsonString(saveJson, null);
+            applyWithPathLookups(parse(folderJson), "bench copy");
+            JsonSaveStore.loadStateFromJsonString(folderJson, "bench copy");
+        }
+
+        long start = System.nanoTime();
+        for (int i = 0; i < rounds; i++) {
+            sink += parse(saveJson).children.size();
+        }
+        long parseNanos = (System.nanoTime() - start) / rounds;
+        report("parse: " + formatNanos(parseNanos) + " per save");
+
+        start = System.nanoTime();
+        for (int i = 0; i < rounds; i++) {
+            applyWithPathLookups(parse(saveJson), null);
+        }
+        long lookupNanos = System.nanoTime() - start;
+        start = System.nanoTime();
+        for (int i = 0; i < rounds; i++) {
+            JsonSaveStore.loadStateFromJsonString(saveJson, null);
+        }
+        long walkNanos = System.nanoTime() - start;
+        reportVariant("load", savedNodeCount, lookupNanos, walkNanos);
+        report("pending states after load: " + JsonSaveStore.getPendingStateCount());
+
+        int pastedNodeCount = countNodes(parse(folderJson));
+        start = System.nanoTime();
+        for (int i = 0; i < rounds; i++) {
+            applyWithPathLookups(parse(folderJson), "bench copy");
+        }
+        lookupNanos = System.nanoTime() - start;
+        start = System.nanoTime();
+        for (int i = 0; i < rounds; i++) {
+            JsonSaveStore.loadStateFromJsonString(folderJson, "bench copy");
+        }
+        walkNanos = System.nanoTime() - start;
+        reportVariant("paste", pastedNodeCount, lookupNanos, walkNanos);
+        report("(sink " + sink + ")");
+    }
+
+    // the previous apply step: one lookup by full path per loaded node, with every path rewritten when pasting
+    private void applyWithPathLookups(LoadedNodeState root, String outputRootPath) {
+        Queue<LoadedNodeState> queue = new LinkedList<>();
+        queue.offer(root);
+        String inputRootPath = root.path;
+        while (!queue.isEmpty()) {
+            LoadedNodeState loadedNode = queue.poll();
+            String loadedPath = loadedNode.path;
+            if (outputRootPath != null) {
+                loadedPath = loadedPath.replace(inputRootPath, outputRootPath);
+            }
+            AbstractNode nodeToEdit = NodeTree.findNode(loadedPath);
+            if (nodeToEdit != null) {
+                nodeToEdit.overwriteState(loadedNode);
+            }
+            if (loadedNode.children != null && Objects.equals(loadedNode.type, NodeType.FOLDER.toString())) {
+                queue.addAll(loadedNode.children);
+            }
+        }
+    }
+
+    private LoadedNodeState parse(String json) {
+        try {
+            return NodeStateJsonReader.read(json);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private int countNodes(LoadedNodeState node) {
+        int count = 1;
+        if (node.children != null) {
+            for (LoadedNodeState child : node.children) {
+                count += countNodes(child);
+            }
+        }
+        return count;
+    }
+
+    private void reportVariant(String name, int nodeCount, long lookupNanos, long walkNanos) {
+        double lookupPerRound = lookupNanos / (double) rounds;
+        double walkPerRound = walkNanos / (double) rounds;
+        report(name + " with path lookups: " + formatNanos(lookupPerRound) + " (" + formatNanos(lookupPerRound / nodeCount) + " per node)");
+        report(name + " with tree walk: " + formatNanos(walkPerRound) + " (" + formatNanos(walkPerRound / nodeCount) + " per node)");
+    }
+
+    private void report(String line) {
+        println(line);
+        results.add(line);
+    }
+}
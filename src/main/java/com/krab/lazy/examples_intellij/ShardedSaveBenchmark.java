@@ -0,0 +1,141 @@
+package com.krab.lazy.examples_intellij;
+
+import com.krab.lazy.LazyGui;
+import com.krab.lazy.LazyGuiSettings;
+import com.krab.lazy.stores.NodeStateJsonReader;
+import com.krab.lazy.stores.NodeTree;
+import com.krab.lazy.stores.NodeTreeJsonWriter;
+import com.krab.lazy.stores.ShardedSaveFormat;
+import processing.core.PApplet;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static com.krab.lazy.examples_intellij.BenchmarkUtils.*;
+
+/**
+ * Saves a tree of about 27k nodes spread over 300 top-level folders both as a single compact json and as a sharded save,
+ * then compares how long each one takes to write and to parse back into loaded node states.
+ * The sharded save should get faster with every core, the single json stays on one thread.
+ * Also checks that the sharded save parses into exactly the same tree as the json does.
+ */
+public class ShardedSaveBenchmark extends PApplet {
+    LazyGui gui;
+    final int topLevelFolderCount = 300;
+    final int subfolderCount = 3;
+    final int slidersPerSubfolder = 30;
+    final int rounds = 20;
+    final int warmupRounds = 5;
+    final List<String> results = new ArrayList<>();
+    long sink = 0;
+
+    public static void main(String[] args) {
+        PApplet.main(java.lang.invoke.MethodHandles.lookup().lookupClass());
+    }
+
+    @Override
+    public void settings() {
+        size(800, 400, P2D);
+    }
+
+    @Override
+    public void setup() {
+        gui = new LazyGui(this, new LazyGuiSettings()
+                .setLoadLatestSaveOnStartup(false)
+                .setAutosaveOnExit(false)
+        );
+        for (int i = 0; i < topLevelFolderCount; i++) {
+            gui.pushFolder("rig " + i);
+            for (int j = 0; j < subfolderCount; j++) {
+                gui.pushFolder("group " + j);
+                for (int k = 0; k < slidersPerSubfolder; k++) {
+                    gui.slider("slider " + k, i * 0.01f + k);
+                }
+                gui.popFolder();
+            }
+            gui.popFolder();
+        }
+    }
+
+    @Override
+    public void draw() {
+        background(0.1f);
+        if (frameCount == 2) {
+            runBenchmark();
+        }
+        fill(255);
+        textSize(16);
+        for (int i = 0; i < results.size(); i++) {
+            text(results.get(i), 20, 40 + i * 24);
+        }
+    }
+
+    private void runBenchmark() {
+        byte[] json = NodeTreeJsonWriter.toJsonBytes(NodeTree.getRoot(), false);
+        byte[] sharded = ShardedSaveFormat.encode(NodeTree.getRoot());
+        report("cores: " + Runtime.getRuntime().availableProcessors() + ", live nodes: " + NodeTree.getAllNodes().length);
+        report("json: " + formatBytes(json.length) + ", sharded: " + formatBytes(sharded.length));
+        try {
+            report("sharded parses into the same tree: " + Arrays.equals(json,
+                    NodeTreeJsonWriter.toJsonBytes(ShardedSaveFormat.decode(sharded), false)));
+        } catch (IOException e) {
+            report("sharded save failed to parse: " + e.getMessage());
+            return;
+        }
+
+        for (int i = 0; i < warmupRounds; i++) {
+            sink += NodeTreeJsonWriter.toJsonBytes(NodeTree.getRoot(), false).length;
+            sink += ShardedSaveFormat.encode(NodeTree.getRoot()).length;
+            sink += parseJson(json) + parseSharded(sharded);
+        }
+
+        long start = System.nanoTime();
+        for (int i = 0; i < rounds; i++) {
+            sink += NodeTreeJsonWriter.toJsonBytes(NodeTree.getRoot(), false).length;
+        }
+        long jsonWriteNanos = (System.nanoTime() - start) / rounds;
+        start = System.nanoTime();
+        for (int i = 0; i < rounds; i++) {
+            sink += ShardedSaveFormat.encode(NodeTree.getRoot()).length;
+        }
+        long shardedWriteNanos = (System.nanoTime() - start) / rounds;
+        report("write json: " + formatNanos(jsonWriteNanos) + ", write sharded: " + formatNanos(shardedWriteNanos));
+
+        start = System.nanoTime();
+        for (int i = 0; i < rounds; i++) {
+            sink += parseJson(json);
+        }
+        long jsonParseNanos = (System.nanoTime() - start) / rounds;
+        start = System.nanoTime();
+        for (int i = 0; i < rounds; i++) {
+            sink += parseSharded(sharded);
+        }
+        long shardedParseNanos = (System.nanoTime() - start) / rounds;
+        report("parse json: " + formatNanos(jsonParseNanos) + ", parse sharded: " + formatNanos(shardedParseNanos));
+        report("(sink " + sink + ")");
+    }
+
+    private int parseJson(byte[] json) {
+        try {
+            return NodeStateJsonReader.read(new String(json, StandardCharsets.UTF_8)).children.size();
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private int parseSharded(byte[] sharded) {
+        try {
+            return ShardedSaveFormat.decode(sharded).children.size();
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private void report(String line) {
+        println(line);
+        results.add(line);
+    }
+}
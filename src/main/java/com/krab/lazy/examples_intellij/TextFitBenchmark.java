@@ -0,0 +1,118 @@
+package com.krab.lazy.examples_intellij;
+
+import com.krab.lazy.LazyGui;
+import com.krab.lazy.LazyGuiSettings;
+import com.krab.lazy.stores.FontStore;
+import processing.core.PApplet;
+import processing.core.PGraphics;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.krab.lazy.examples_intellij.BenchmarkUtils.*;
+
+/**
+ * Compares fitting labels into a node's width with FontStore against the per-character measuring loop it replaced.
+ * The labels are fitted the way the GUI does it every frame, the same texts into the same widths over and over.
+ */
+public class TextFitBenchmark extends PApplet {
+    LazyGui gui;
+    final int labelCount = 100;
+    final float availableWidth = 150;
+    final int rounds = 2000;
+    final int warmupRounds = 200;
+    final String[] labels = new String[labelCount];
+    final List<String> results = new ArrayList<>();
+    int sink = 0;
+
+    public static void main(String[] args) {
+        PApplet.main(java.lang.invoke.MethodHandles.lookup().lookupClass());
+    }
+
+    @Override
+    public void settings() {
+        size(800, 400, P2D);
+    }
+
+    @Override
+    public void setup() {
+        gui = new LazyGui(this, new LazyGuiSettings()
+                .setLoadLatestSaveOnStartup(false)
+                .setAutosaveOnExit(false)
+        );
+        for (int i = 0; i < labelCount; i++) {
+            labels[i] = "scene/shapes/circle " + i + "/a label long enough to need trimming";
+        }
+    }
+
+    @Override
+    public void draw() {
+        background(0.1f);
+        if (frameCount == 2) {
+            runBenchmark(g);
+        }
+        fill(255);
+        textSize(16);
+        for (int i = 0; i < results.size(); i++) {
+            text(results.get(i), 20, 40 + i * 24);
+        }
+    }
+
+    private void runBenchmark(PGraphics pg) {
+        pg.pushStyle();
+        pg.textFont(FontStore.getMainFont());
+        for (int i = 0; i < warmupRounds; i++) {
+            fitByMeasuringEveryCharacter(pg);
+            fitWithFontStore(pg);
+        }
+        long allocBefore = allocatedBytes();
+        long start = System.nanoTime();
+        for (int i = 0; i < rounds; i++) {
+            fitByMeasuringEveryCharacter(pg);
+        }
+        long loopNanos = System.nanoTime() - start;
+        long loopAlloc = allocatedBytes() - allocBefore;
+
+        allocBefore = allocatedBytes();
+        start = System.nanoTime();
+        for (int i = 0; i < rounds; i++) {
+            fitWithFontStore(pg);
+        }
+        long storeNanos = System.nanoTime() - start;
+        long storeAlloc = allocatedBytes() - allocBefore;
+        pg.popStyle();
+
+        long fits = (long) rounds * labelCount;
+        report("labels fitted per variant: " + fits + " (sink " + sink + ")");
+        report("measuring every character: " + formatNanos(loopNanos / (double) fits) + " per label, " +
+                formatBytes(loopAlloc / (double) fits) + " allocated per label");
+        report("FontStore: " + formatNanos(storeNanos / (double) fits) + " per label, " +
+                formatBytes(storeAlloc / (double) fits) + " allocated per label");
+        report("speedup: " + nf(loopNanos / max(storeNanos, 1), 0, 1) + "x");
+    }
+
+    private void fitByMeasuringEveryCharacter(PGraphics pg) {
+        for (String label : labels) {
+            StringBuilder result = new StringBuilder();
+            for (int i = 0; i < label.length(); i++) {
+                char character = label.charAt(i);
+                if (pg.textWidth(result.toString() + character) >= availableWidth) {
+                    break;
+                }
+                result.append(character);
+            }
+            sink += result.length();
+        }
+    }
+
+    private void fitWithFontStore(PGraphics pg) {
+        for (String label : labels) {
+            sink += FontStore.getSubstringFromStartToFit(pg, label, availableWidth).length();
+        }
+    }
+
+    private void report(String line) {
+        println(line);
+        results.add(line);
+    }
+}
@@ -0,0 +1,88 @@
+package com.krab.lazy.examples_intellij;
+
+import com.krab.lazy.LazyGui;
+import com.krab.lazy.LazyGuiSettings;
+import com.krab.lazy.nodes.FolderNode;
+import com.krab.lazy.stores.NodeTree;
+import com.krab.lazy.windows.WindowManager;
+import processing.core.PApplet;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.krab.lazy.examples_intellij.BenchmarkUtils.*;
+
+/**
+ * Opens a dozen windows full of sliders and compares how long drawing the GUI takes
+ * with the cached window textures and when every window is drawn from scratch every frame.
+ * Keep the mouse outside the windows while it runs, a hovered slider makes its window draw from scratch either way.
+ */
+public class WindowTextureBenchmark extends PApplet {
+    LazyGui gui;
+    final int windowCount = 12;
+    final int slidersPerWindow = 25;
+    final int warmupFrames = 60;
+    final int measuredFrames = 300;
+    final List<String> results = new ArrayList<>();
+    long cachedNanos = 0;
+    long uncachedNanos = 0;
+
+    public static void main(String[] args) {
+        PApplet.main(java.lang.invoke.MethodHandles.lookup().lookupClass());
+    }
+
+    @Override
+    public void settings() {
+        size(1600, 900, P2D);
+    }
+
+    @Override
+    public void setup() {
+        gui = new LazyGui(this, new LazyGuiSettings()
+                .setLoadLatestSaveOnStartup(false)
+                .setAutosaveOnExit(false)
+        );
+        for (int i = 0; i < windowCount; i++) {
+            gui.pushFolder("window " + i);
+            for (int j = 0; j < slidersPerWindow; j++) {
+                gui.slider("slider " + j, i + j * 0.1f);
+            }
+            gui.popFolder();
+        }
+        for (int i = 0; i < windowCount; i++) {
+            FolderNode folder = (FolderNode) NodeTree.findNode("window " + i);
+            WindowManager.uncoverOrCreateWindow(folder, false, 250f + (i % 6) * 220, 40f + (i / 6) * 430, null);
+        }
+    }
+
+    @Override
+    public void draw() {
+        background(0.1f);
+        int frame = frameCount - warmupFrames;
+        boolean measuringCached = frame >= 0 && frame < measuredFrames;
+        boolean measuringUncached = frame >= measuredFrames + warmupFrames && frame < measuredFrames * 2 + warmupFrames;
+        WindowManager.windowTexturesEnabled = frame < measuredFrames;
+        long start = System.nanoTime();
+        gui.draw();
+        long elapsed = System.nanoTime() - start;
+        if (measuringCached) {
+            cachedNanos += elapsed;
+        } else if (measuringUncached) {
+            uncachedNanos += elapsed;
+        } else if (frame == measuredFrames * 2 + warmupFrames) {
+            report("windows: " + windowCount + ", sliders per window: " + slidersPerWindow);
+            report("gui draw with window textures: " + formatNanos(cachedNanos / (double) measuredFrames));
+            report("gui draw from scratch: " + formatNanos(uncachedNanos / (double) measuredFrames));
+        }
+        fill(1);
+        textSize(16);
+        for (int i = 0; i < results.size(); i++) {
+            text(results.get(i), 20, height - 80 + i * 24);
+        }
+    }
+
+    private void report(String line) {
+        println(line);
+        results.add(line);
+    }
+}
@@ -1,6 +1,7 @@
 package com.krab.lazy.input;
 
 import com.krab.lazy.stores.GlobalReferences;
+import com.krab.lazy.stores.RedrawStore;
 import com.krab.lazy.stores.UndoRedoStore;
 import com.krab.lazy.utils.KeyCodes;
 import processing.event.KeyEvent;
@@ -49,6 +50,7 @@ public class UserInputPublisher {
      */
     @SuppressWarnings("unused")
     public void keyEvent(KeyEvent event){
+        RedrawStore.requestRedraw();
         switch(event.getAction()){
             case KeyEvent.PRESS:
                 keyPressed(event);
@@ -95,6 +97,7 @@ public class UserInputPublisher {
      */
     @SuppressWarnings("unused")
     public void mouseEvent(MouseEvent event) {
+        RedrawStore.requestRedraw();
         updatePreviousMousePositionBeforeHandling(event);
         switch(event.getAction()){
             case MouseEvent.MOVE:
@@ -1,12 +1,12 @@
 package com.krab.lazy.nodes;
 
-import com.google.gson.JsonElement;
 import com.google.gson.annotations.Expose;
+import com.google.gson.stream.JsonWriter;
 
 
 import com.krab.lazy.input.LazyKeyEvent;
 import com.krab.lazy.stores.*;
-import com.krab.lazy.utils.NodePaths;
+import com.krab.lazy.utils.ParsedNodePath;
 import com.krab.lazy.input.LazyMouseEvent;
 import com.krab.lazy.stores.FontStore;
 import com.krab.lazy.stores.LayoutStore;
@@ -17,6 +17,9 @@ import com.krab.lazy.themes.ThemeStore;
 import processing.core.PGraphics;
 import processing.core.PVector;
 
+import java.io.IOException;
+import java.util.List;
+
 import static processing.core.PApplet.*;
 
 /**
@@ -40,20 +43,32 @@ public abstract class AbstractNode {
     public final PVector pos = new PVector();
     public final PVector size = new PVector();
     public final String name;
+    public final ParsedNodePath parsedPath;
 
     public float masterInlineNodeHeightInCells = 1;
     public boolean isInlineNodeDragged = false;
     public boolean isMouseOverNode = false;
 
     private boolean isInlineNodeVisible = true;
+    private long changeVersion = 0;
 
     public void setIsMouseOverThisNodeOnly(){
-        isMouseOverNode = true;
-        NodeTree.setAllOtherNodesMouseOverToFalse(this);
+        InteractionStore.setHovered(this);
+    }
+
+    /**
+     * Lets a node highlight other nodes along with itself while it is hovered.
+     * Called by the InteractionStore whenever this node becomes hovered or asks for a refresh of its linked targets.
+     * @param targets list to add the linked nodes to
+     * @see InteractionStore#refreshLinkedHoverTargets(AbstractNode)
+     */
+    public void collectLinkedHoverTargets(List<AbstractNode> targets){
+
     }
 
     protected AbstractNode(NodeType type, String path, FolderNode parentFolder) {
         this.path = path;
+        this.parsedPath = ParsedNodePath.parse(path);
         this.name = getNameFromPath(path);
         this.type = type;
         this.parent = parentFolder;
@@ -63,6 +78,7 @@ public abstract class AbstractNode {
     private AbstractNode(){
         parent = null;
         name = null;
+        parsedPath = null;
     }
 
     /**
@@ -102,12 +118,24 @@ public abstract class AbstractNode {
     }
 
     /**
-     * Secondary update function, called for all nodes every frame, regardless of their parent window's closed state.
+     * Secondary update function, called every frame regardless of the parent window's closed state,
+     * but only while the node is registered in the UpdateScheduler.
+     * @see UpdateScheduler#register(AbstractNode)
      */
     public void updateValuesRegardlessOfParentWindowOpenness(){
 
     }
 
+    /**
+     * Whether the window containing this node should currently be drawn from scratch instead of from its cached texture.
+     * The cached texture is only redrawn when a value, hover state, size or the look of the GUI changes,
+     * so nodes that animate, use shaders working in screen coordinates or run logic while drawing must override this.
+     * @return whether this node needs to be drawn directly on the GUI canvas this frame
+     */
+    public boolean needsRedrawEveryFrame(){
+        return false;
+    }
+
     protected void highlightNodeBackground(PGraphics pg) {
         pg.noStroke();
         pg.fill(ThemeStore.getColor(ThemeColorType.FOCUS_BACKGROUND));
@@ -186,7 +214,7 @@ public abstract class AbstractNode {
 
     public void mousePressedOverNode(float x, float y) {
         isInlineNodeDragged = true;
-        isMouseOverNode = true;
+        InteractionStore.addToHover(this);
     }
 
     public void mouseReleasedAnywhere(LazyMouseEvent e) {
@@ -195,12 +223,36 @@ public abstract class AbstractNode {
             onActionEnded();
         }
         isInlineNodeDragged = false;
+        InteractionStore.clearDraggedIf(this);
     }
 
     public void onActionEnded(){
         UndoRedoStore.onUndoableActionEnded();
     }
 
+    /**
+     * Gets the version of the last value change of this node or of any node below it when this is a folder.
+     * Versions come from one global counter, so they only ever grow and a higher version always means a later change.
+     * @return version of the last change or 0 when nothing has changed since this node was created
+     * @see ChangeStore
+     */
+    public long getChangeVersion(){
+        return changeVersion;
+    }
+
+    /**
+     * Must be called by value nodes whenever their value actually changes, regardless of whether it came from
+     * the user, from code or from loading a save.
+     * Bumps the change version of this node and of all its parent folders and notifies the change listeners.
+     */
+    protected void markValueChanged(){
+        long version = ChangeStore.nextVersion();
+        for (AbstractNode node = this; node != null; node = node.parent) {
+            node.changeVersion = version;
+        }
+        ChangeStore.notifyListeners(this);
+    }
+
     public void keyPressedOverNode(LazyKeyEvent e, float x, float y) {
 
     }
@@ -214,7 +266,7 @@ public abstract class AbstractNode {
     }
 
     public void mouseDragNodeContinue(LazyMouseEvent e) {
-        isMouseOverNode = true;
+        InteractionStore.addToHover(this);
     }
 
     public boolean isParentWindowVisible(){
@@ -231,8 +283,28 @@ public abstract class AbstractNode {
         return !parent.window.closed;
     }
 
+    /**
+     * Used by value nodes to write their own exposed fields when saving to json, the counterpart of overwriteState().
+     * Must write the same fields in the same order as Gson would: the most derived class first, each in declaration order,
+     * so subclasses write their own fields before calling super.
+     * The children, the window and the fields of this class are written by the NodeTreeJsonWriter itself.
+     * @param writer json writer positioned inside this node's object
+     * @throws IOException when the underlying stream fails
+     */
+    public void writeValueFields(JsonWriter writer) throws IOException {
+
+    }
+
+    /**
+     * Copies the same fields as writeValueFields(JsonWriter) into a typed state, used by the formats that do not go through json.
+     * @param state state to fill in
+     */
+    public void writeValueFields(LoadedNodeState state) {
+
+    }
+
     // used by value nodes to load state from json
-    public void overwriteState(JsonElement loadedNode){
+    public void overwriteState(LoadedNodeState loadedNode){
 
     }
 
@@ -253,12 +325,7 @@ public abstract class AbstractNode {
             }
             return GlobalReferences.app.getClass().getSimpleName(); // not using lowercase separated class name after all because it breaks what users expect to see
         }
-        String[] split = NodePaths.splitByUnescapesSlashesWithoutRemovingThem(path);
-        if (split.length == 0) {
-            return "";
-        }
-        String nameWithoutPrefixSlash = NodePaths.getNameWithoutPrefixSlash(split[split.length - 1]);
-        return NodePaths.getDisplayStringWithoutEscapes(nameWithoutPrefixSlash);
+        return parsedPath.getDisplayName();
     }
 
     @SuppressWarnings("unused") // previously used for getting root window name, might still be useful some day
@@ -321,10 +388,16 @@ public abstract class AbstractNode {
         if(this.equals(NodeTree.getRoot())){
             return;
         }
+        if(isInlineNodeVisible){
+            RedrawStore.requestRedraw();
+        }
         isInlineNodeVisible = false;
     }
 
     public void showInlineNode() {
+        if(!isInlineNodeVisible){
+            RedrawStore.requestRedraw();
+        }
         isInlineNodeVisible = true;
     }
 
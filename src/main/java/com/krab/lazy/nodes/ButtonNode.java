@@ -16,13 +16,12 @@ public class ButtonNode extends AbstractNode {
     }
 
     boolean valueBoolean = false;
-    private boolean mousePressedLastFrame = false;
+    private boolean armed = false;
+    private int frameCountClicked = -1;
 
     @Override
     protected void drawNodeBackground(PGraphics pg) {
-        boolean mousePressed = app.mousePressed;
-        valueBoolean = isMouseOverNode && mousePressedLastFrame && !mousePressed;
-        mousePressedLastFrame = mousePressed;
+
     }
 
     @Override
@@ -51,13 +50,31 @@ public class ButtonNode extends AbstractNode {
         pg.rect(0,0, innerButtonSize, innerButtonSize);
     }
 
+    @Override
+    public void mousePressedOverNode(float x, float y) {
+        super.mousePressedOverNode(x, y);
+        armed = true;
+    }
+
+    @Override
+    public void mouseReleasedOverNode(float x, float y) {
+        super.mouseReleasedOverNode(x, y);
+        if (armed) {
+            // clicks come from the input events rather than from drawing, so they do not wait for the gui to be drawn
+            valueBoolean = true;
+            frameCountClicked = app.frameCount;
+        }
+        armed = false;
+    }
+
     @Override
     public void mouseDragNodeContinue(LazyMouseEvent e) {
 
     }
 
     public boolean getBooleanValueAndSetItToFalse() {
-        boolean result = valueBoolean;
+        // a click that nothing asked about on the frame it happened or on the next one is forgotten
+        boolean result = valueBoolean && app.frameCount <= frameCountClicked + 1;
         valueBoolean = false;
         return result;
     }
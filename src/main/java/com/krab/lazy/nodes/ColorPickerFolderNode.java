@@ -1,7 +1,7 @@
 package com.krab.lazy.nodes;
 
-import com.google.gson.JsonElement;
 import com.google.gson.annotations.Expose;
+import com.google.gson.stream.JsonWriter;
 
 import com.krab.lazy.LazyGui;
 import com.krab.lazy.PickerColor;
@@ -9,16 +9,20 @@ import com.krab.lazy.input.LazyKeyEvent;
 import com.krab.lazy.utils.KeyCodes;
 import com.krab.lazy.utils.ClipboardUtils;
 import com.krab.lazy.stores.JsonSaveStore;
+import com.krab.lazy.stores.LoadedNodeState;
 import processing.core.PGraphics;
 
+import java.io.IOException;
+
 import static com.krab.lazy.stores.NormColorStore.getColorStore;
 import static com.krab.lazy.stores.LayoutStore.cell;
 import static processing.core.PApplet.*;
 
 public class ColorPickerFolderNode extends FolderNode {
 
+    // computed from the hex on demand, so changing the color every frame does not build a new string every frame
     @Expose
-    String hexString;
+    private String hexString;
     private int hex;
     @SuppressWarnings("FieldCanBeLocal")
     private final String HEX_NODE_NAME = "hex";
@@ -71,10 +75,10 @@ public class ColorPickerFolderNode extends FolderNode {
     public void loadValuesFromHex(boolean setDefaults) {
         lazyInitNodes();
         PGraphics colorProvider = getColorStore();
-        ((ColorSliderNode) findChildByName(HUE_NODE_NAME)).valueFloat = colorProvider.hue(hex);
-        ((ColorSliderNode) findChildByName(SAT_NODE_NAME)).valueFloat = colorProvider.saturation(hex);
-        ((ColorSliderNode) findChildByName(BR_NODE_NAME)).valueFloat = colorProvider.brightness(hex);
-        ((ColorSliderNode) findChildByName(ALPHA_NODE_NAME)).valueFloat = colorProvider.alpha(hex);
+        loadSliderValue(HUE_NODE_NAME, colorProvider.hue(hex));
+        loadSliderValue(SAT_NODE_NAME, colorProvider.saturation(hex));
+        loadSliderValue(BR_NODE_NAME, colorProvider.brightness(hex));
+        loadSliderValue(ALPHA_NODE_NAME, colorProvider.alpha(hex));
         if (setDefaults) {
             ((ColorSliderNode) findChildByName(HUE_NODE_NAME)).valueFloatDefault = colorProvider.hue(hex);
             ((ColorSliderNode) findChildByName(SAT_NODE_NAME)).valueFloatDefault = colorProvider.saturation(hex);
@@ -83,6 +87,15 @@ public class ColorPickerFolderNode extends FolderNode {
         }
     }
 
+    // writes the field directly, because setValueFloat() would recompute the hex from the partially loaded sliders
+    private void loadSliderValue(String nodeName, float value) {
+        ColorSliderNode node = (ColorSliderNode) findChildByName(nodeName);
+        if (Float.compare(node.valueFloat, value) != 0) {
+            node.valueFloat = value;
+            node.markValueChanged();
+        }
+    }
+
     void loadValuesFromHSBA() {
         PGraphics colorProvider = getColorStore();
         setHex(colorProvider.color(
@@ -117,24 +130,62 @@ public class ColorPickerFolderNode extends FolderNode {
         return getValue(ALPHA_NODE_NAME);
     }
 
+    public int getHex() {
+        return hex;
+    }
+
     String getHexString() {
+        if (hexString == null) {
+            hexString = hex(hex);
+        }
         return hexString;
     }
 
+    /**
+     * Sets all four color sliders at once and recomputes the hex only once afterwards, without allocating anything.
+     * @param hue hue in the range of [0,1]
+     * @param saturation saturation in the range of [0,1]
+     * @param brightness brightness in the range of [0,1]
+     * @param alpha alpha in the range of [0,1]
+     */
+    public void setHSBA(float hue, float saturation, float brightness, float alpha) {
+        lazyInitNodes();
+        loadSliderValue(HUE_NODE_NAME, hue);
+        loadSliderValue(SAT_NODE_NAME, saturation);
+        loadSliderValue(BR_NODE_NAME, brightness);
+        loadSliderValue(ALPHA_NODE_NAME, alpha);
+        loadValuesFromHSBA();
+    }
+
     public void setHex(int hex) {
         if (hex == 0) {
             hex = unhex("00010101");
         }
+        int previousHex = this.hex;
         this.hex = hex;
-        hexString = hex(hex);
+        if (previousHex != hex) {
+            hexString = null;
+            markValueChanged();
+        }
+    }
+
+    @Override
+    public void writeValueFields(JsonWriter writer) throws IOException {
+        writer.name("hexString").value(getHexString());
+        super.writeValueFields(writer);
+    }
+
+    @Override
+    public void writeValueFields(LoadedNodeState state) {
+        state.hexString = getHexString();
+        super.writeValueFields(state);
     }
 
     @Override
-    public void overwriteState(JsonElement loadedNode) {
+    public void overwriteState(LoadedNodeState loadedNode) {
         super.overwriteState(loadedNode);
-        JsonElement loadedString = loadedNode.getAsJsonObject().get("hexString");
-        if (loadedString != null) {
-            setHex(unhex(loadedString.getAsString()));
+        if (loadedNode.hexString != null) {
+            setHex(unhex(loadedNode.hexString));
             loadValuesFromHex(true);
         }
     }
@@ -167,7 +218,7 @@ public class ColorPickerFolderNode extends FolderNode {
 
     public void setHue(float hueToAdd) {
         ColorSliderNode hueSlider = (ColorSliderNode) findChildByName(HUE_NODE_NAME);
-        hueSlider.valueFloat = LazyGui.hueModulo(hueSlider.valueFloat + hueToAdd);
+        hueSlider.setValueFloat(LazyGui.hueModulo(hueSlider.valueFloat + hueToAdd));
         loadValuesFromHSBA();
     }
 }
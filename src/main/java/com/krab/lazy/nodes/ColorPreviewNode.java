@@ -31,6 +31,12 @@ class ColorPreviewNode extends AbstractNode {
 
     }
 
+    @Override
+    public boolean needsRedrawEveryFrame() {
+        // the checkerboard shader is aligned to the node's position on the gui canvas
+        return true;
+    }
+
     private void drawCheckerboard(PGraphics pg) {
         PShader checkerboardShader = ShaderStore.getShader(checkerboardShaderPath);
         checkerboardShader.set("quadPos", pos.x, pos.y);
@@ -1,7 +1,5 @@
 package com.krab.lazy.nodes;
 
-import com.google.gson.JsonElement;
-import com.google.gson.JsonObject;
 import com.google.gson.annotations.Expose;
 
 import com.krab.lazy.input.LazyKeyEvent;
@@ -12,6 +10,7 @@ import com.krab.lazy.themes.ThemeColorType;
 import com.krab.lazy.themes.ThemeStore;
 import com.krab.lazy.utils.ClipboardUtils;
 import com.krab.lazy.stores.JsonSaveStore;
+import com.krab.lazy.stores.LoadedNodeState;
 import com.krab.lazy.windows.Window;
 import com.krab.lazy.windows.WindowManager;
 import processing.core.PApplet;
@@ -158,22 +157,14 @@ public class FolderNode extends AbstractNode {
         }
     }
 
-    public void overwriteState(JsonElement loadedNode) {
+    public void overwriteState(LoadedNodeState loadedNode) {
         super.overwriteState(loadedNode);
-        JsonObject wholeObject = loadedNode.getAsJsonObject();
-        if (wholeObject.has("window")) {
-            JsonObject winObject = wholeObject.getAsJsonObject("window");
-            if (winObject.has("closed") && winObject.has("posX") && winObject.has("posY") && winObject.has("windowSizeX")) {
-                boolean isClosed = winObject.get("closed").getAsBoolean();
-                float posX = winObject.get("posX").getAsFloat();
-                float posY = winObject.get("posY").getAsFloat();
-                float sizeX = winObject.get("windowSizeX").getAsFloat();
-                if (!isClosed) {
-                    WindowManager.uncoverOrCreateWindow(this, false, posX, posY, sizeX);
-                    // open it at this spot
-                }else if(window != null){
-                    window.closed = true;
-                }
+        if (loadedNode.hasWindow) {
+            if (!loadedNode.windowClosed) {
+                WindowManager.uncoverOrCreateWindow(this, false, loadedNode.windowPosX, loadedNode.windowPosY, loadedNode.windowSizeX);
+                // open it at this spot
+            }else if(window != null){
+                window.closed = true;
             }
         }
     }
@@ -1,6 +1,6 @@
 package com.krab.lazy.nodes;
 
-import com.google.gson.JsonElement;
+import com.krab.lazy.stores.LoadedNodeState;
 import com.krab.lazy.stores.GlobalReferences;
 import processing.core.PGraphics;
 
@@ -24,7 +24,7 @@ class GradientColorStopNode extends ColorPickerFolderNode {
     }
 
     @Override
-    public void overwriteState(JsonElement loadedNode) {
+    public void overwriteState(LoadedNodeState loadedNode) {
         super.overwriteState(loadedNode);
     }
 
@@ -1,6 +1,5 @@
 package com.krab.lazy.nodes;
 
-import com.google.gson.JsonElement;
 import com.krab.lazy.PickerColor;
 import com.krab.lazy.stores.*;
 import com.krab.lazy.utils.ArrayListBuilder;
@@ -55,6 +54,7 @@ public class GradientPickerFolderNode extends FolderNode {
             children.add(createGradientColorPicker(path + "/" + getColorNameByIndex(i), colorHex, colorPosition));
         }
         JsonSaveStore.overwriteWithLoadedStateIfAny(this);
+        UpdateScheduler.register(this);
     }
 
     @Override
@@ -205,7 +205,7 @@ public class GradientPickerFolderNode extends FolderNode {
         return (GradientColorStopNode) findChildByName(getColorNameByIndex(i));
     }
 
-    public void overwriteState(JsonElement loadedNode) {
+    public void overwriteState(LoadedNodeState loadedNode) {
         super.overwriteState(loadedNode);
     }
 
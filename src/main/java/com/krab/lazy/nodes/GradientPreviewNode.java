@@ -2,11 +2,15 @@ package com.krab.lazy.nodes;
 
 import com.krab.lazy.input.LazyMouseEvent;
 import com.krab.lazy.stores.FontStore;
+import com.krab.lazy.stores.InteractionStore;
 import com.krab.lazy.stores.LayoutStore;
+import com.krab.lazy.stores.UpdateScheduler;
 import com.krab.lazy.themes.ThemeColorType;
 import com.krab.lazy.themes.ThemeStore;
 import processing.core.PGraphics;
 
+import java.util.List;
+
 import static com.krab.lazy.stores.GlobalReferences.app;
 import static processing.core.PApplet.*;
 import static processing.core.PApplet.map;
@@ -17,11 +21,13 @@ class GradientPreviewNode extends AbstractNode {
     final int NULL = -1;
     int hoveredColorIndex = NULL;
     int draggedColorIndex = NULL;
+    private int highlightedColorIndex = NULL;
 
     GradientPreviewNode(String path, GradientPickerFolderNode parent) {
         super(NodeType.TRANSIENT, path, parent);
         this.parent = parent;
         masterInlineNodeHeightInCells = 6;
+        UpdateScheduler.register(this);
     }
 
     @Override
@@ -29,31 +35,31 @@ class GradientPreviewNode extends AbstractNode {
         pg.image(parent.getOutputGraphics(), 1, 1, size.x - 1, size.y - 1);
     }
 
+    @Override
+    public boolean needsRedrawEveryFrame() {
+        // the gradient preview is a live texture and the hovered color stop follows the mouse
+        return true;
+    }
+
     @Override
     public void updateValuesRegardlessOfParentWindowOpenness() {
-        int colorRowToHighlight = NULL;
-        if(draggedColorIndex != NULL){
-            colorRowToHighlight = hoveredColorIndex;
-        }
-        else if(hoveredColorIndex != NULL){
-            colorRowToHighlight = hoveredColorIndex;
-        }
-        if(colorRowToHighlight != NULL){
-            parent.findColorStopByIndex(colorRowToHighlight).isMouseOverNode = true;
-        }
         if(isParentWindowVisible() && isMouseOverNode && draggedColorIndex == NULL){
             hoveredColorIndex = findClosestStopOnScreen(app.mouseX, app.mouseY);
-        }else{
-            // turn off mouseover for only once when setting hovered index to NULL from non-null
-            // to allow natural mouseover interaction otherwise
-            // weird hacks here and in the PlotFolder - need a better system
-            if(hoveredColorIndex != NULL && draggedColorIndex == NULL){
-                for (int i = 0; i < parent.colorCount; i++) {
-                    parent.findColorStopByIndex(i).isMouseOverNode = false;
-                }
-            }
+        }else if(draggedColorIndex == NULL){
             hoveredColorIndex = NULL;
         }
+        if(highlightedColorIndex != hoveredColorIndex){
+            // the color stop row under the hovered triangle is highlighted as a linked hover target
+            highlightedColorIndex = hoveredColorIndex;
+            InteractionStore.refreshLinkedHoverTargets(this);
+        }
+    }
+
+    @Override
+    public void collectLinkedHoverTargets(List<AbstractNode> targets) {
+        if(highlightedColorIndex != NULL && highlightedColorIndex < parent.colorCount){
+            targets.add(parent.findColorStopByIndex(highlightedColorIndex));
+        }
     }
 
     @Override
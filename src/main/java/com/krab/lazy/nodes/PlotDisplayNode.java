@@ -8,6 +8,8 @@ import com.krab.lazy.themes.ThemeStore;
 import processing.core.PGraphics;
 import processing.core.PVector;
 
+import java.util.List;
+
 import static com.krab.lazy.stores.LayoutStore.cell;
 import static processing.core.PApplet.*;
 
@@ -27,10 +29,12 @@ class PlotDisplayNode extends AbstractNode {
     protected void drawNodeBackground(PGraphics pg) {
         masterInlineNodeHeightInCells = floor(size.x / cell);
         drawPlotGrid(pg);
-        if(isMouseOverNode){
-            sliderX.isMouseOverNode = true;
-            sliderY.isMouseOverNode = true;
-        }
+    }
+
+    @Override
+    public void collectLinkedHoverTargets(List<AbstractNode> targets) {
+        targets.add(sliderX);
+        targets.add(sliderY);
     }
 
     @Override
@@ -1,6 +1,7 @@
 package com.krab.lazy.nodes;
 
 import com.krab.lazy.input.LazyKeyEvent;
+import com.krab.lazy.stores.UpdateScheduler;
 import com.krab.lazy.utils.KeyCodes;
 import processing.core.PGraphics;
 import processing.core.PVector;
@@ -47,6 +48,7 @@ public class PlotFolderNode extends FolderNode {
     @Override
     public void updateValuesRegardlessOfParentWindowOpenness() {
         syncPrecision();
+        UpdateScheduler.unregister(this);
     }
 
     private void syncPrecision() {
@@ -81,10 +83,10 @@ public class PlotFolderNode extends FolderNode {
     }
 
     public void setVectorValue(float x, float y, float z) {
-        sliderX.valueFloat = x;
-        sliderY.valueFloat = y;
+        sliderX.setValueFloat(x);
+        sliderY.setValueFloat(y);
         if(sliderZ != null){
-            sliderZ.valueFloat = z;
+            sliderZ.setValueFloat(z);
         }
     }
 
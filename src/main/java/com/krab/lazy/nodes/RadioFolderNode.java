@@ -1,10 +1,13 @@
 package com.krab.lazy.nodes;
 
-import com.google.gson.JsonElement;
 import com.google.gson.annotations.Expose;
+import com.google.gson.stream.JsonWriter;
 import com.krab.lazy.stores.JsonSaveStore;
+import com.krab.lazy.stores.LoadedNodeState;
+import com.krab.lazy.stores.UpdateScheduler;
 import processing.core.PGraphics;
 
+import java.io.IOException;
 import java.util.*;
 
 import static com.krab.lazy.stores.LayoutStore.cell;
@@ -71,6 +74,14 @@ public class RadioFolderNode extends FolderNode {
     public void updateValuesRegardlessOfParentWindowOpenness() {
         checkForChildValueChange();
         rememberCurrentValues();
+        UpdateScheduler.unregister(this);
+    }
+
+    /**
+     * Schedules a single check of the option toggles on the next frame to reflect any change in valueString.
+     */
+    void requestChildValueCheck() {
+        UpdateScheduler.register(this);
     }
 
     private void checkForChildValueChange() {
@@ -78,7 +89,10 @@ public class RadioFolderNode extends FolderNode {
             RadioItemNode option = (RadioItemNode) child;
             boolean oldValue = oldValues.get(option.path);
             if (option.valueBoolean && !oldValue) {
-                valueString = option.valueString;
+                if (!option.valueString.equals(valueString)) {
+                    valueString = option.valueString;
+                    markValueChanged();
+                }
                 setAllOtherOptionsToFalse(option);
                 break;
             }
@@ -86,34 +100,36 @@ public class RadioFolderNode extends FolderNode {
     }
 
     public void selectOption(String optionToSet) {
-        boolean success = false;
         for (AbstractNode child : children) {
             RadioItemNode option = (RadioItemNode) child;
             if(option.valueString.equals(optionToSet)){
-                option.valueBoolean = true;
-                success = true;
+                select(option);
+                onActionEnded();
+                return;
             }
         }
-        if(success){
-            setAllOtherOptionsToFalse(optionToSet);
-            onActionEnded();
-        }
     }
 
-    void setAllOtherOptionsToFalse(RadioItemNode optionToKeepTrue) {
-        for (AbstractNode child : children) {
-            RadioItemNode option = (RadioItemNode) child;
-            if(!option.path.equals(optionToKeepTrue.path)){
-                option.valueBoolean = false;
-            }
+    /**
+     * Selects the option right away, so the option toggles and valueString are never out of sync
+     * when the undo history records or restores them.
+     * @param optionToSelect one of the children of this radio folder
+     */
+    void select(RadioItemNode optionToSelect) {
+        optionToSelect.setValueBoolean(true);
+        setAllOtherOptionsToFalse(optionToSelect);
+        if (!optionToSelect.valueString.equals(valueString)) {
+            valueString = optionToSelect.valueString;
+            markValueChanged();
         }
+        rememberCurrentValues();
     }
 
-    void setAllOtherOptionsToFalse(String optionToKeepTrue) {
+    void setAllOtherOptionsToFalse(RadioItemNode optionToKeepTrue) {
         for (AbstractNode child : children) {
             RadioItemNode option = (RadioItemNode) child;
-            if(!option.valueString.equals(optionToKeepTrue)){
-                option.valueBoolean = false;
+            if(!option.path.equals(optionToKeepTrue.path)){
+                option.setValueBoolean(false);
             }
         }
     }
@@ -131,18 +147,29 @@ public class RadioFolderNode extends FolderNode {
     }
 
     @Override
-    public void overwriteState(JsonElement loadedNode) {
+    public void writeValueFields(JsonWriter writer) throws IOException {
+        writer.name("valueString").value(valueString);
+        super.writeValueFields(writer);
+    }
+
+    @Override
+    public void writeValueFields(LoadedNodeState state) {
+        state.valueString = valueString;
+        super.writeValueFields(state);
+    }
+
+    @Override
+    public void overwriteState(LoadedNodeState loadedNode) {
         super.overwriteState(loadedNode);
-        JsonElement loadedString = loadedNode.getAsJsonObject().get("valueString");
-        if(loadedString == null){
+        String oldValue = loadedNode.valueString;
+        if(oldValue == null){
             return;
         }
-        String oldValue = loadedString.getAsString();
         for (AbstractNode child : children) {
             RadioItemNode option = (RadioItemNode) child;
             if(option.valueString.equals(oldValue)){
-                option.valueBoolean = true;
-                setAllOtherOptionsToFalse(option);
+                select(option);
+                return;
             }
         }
     }
@@ -1,5 +1,7 @@
 package com.krab.lazy.nodes;
 
+import com.krab.lazy.stores.LoadedNodeState;
+
 class RadioItemNode extends ToggleNode {
 
     final String valueString;
@@ -13,9 +15,15 @@ class RadioItemNode extends ToggleNode {
     @Override
     public void mouseReleasedOverNode(float x, float y){
         if(armed && !valueBoolean){ // can only toggle manually to true, toggle to false happens automatically
-            valueBoolean = true;
+            ((RadioFolderNode) parent).select(this);
             onActionEnded();
         }
         armed = false;
     }
+
+    @Override
+    public void overwriteState(LoadedNodeState loadedNode) {
+        super.overwriteState(loadedNode);
+        ((RadioFolderNode) parent).requestChildValueCheck();
+    }
 }
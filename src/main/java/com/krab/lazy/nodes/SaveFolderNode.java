@@ -2,29 +2,41 @@ package com.krab.lazy.nodes;
 
 import com.krab.lazy.stores.JsonSaveStore;
 import com.krab.lazy.stores.NodeTree;
+import com.krab.lazy.stores.RedrawStore;
+import com.krab.lazy.stores.SaveCatalog;
+import com.krab.lazy.stores.UpdateScheduler;
 import processing.core.PGraphics;
 
 import java.awt.*;
 import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import static com.krab.lazy.stores.JsonSaveStore.*;
+import static processing.core.PApplet.*;
 
 public class SaveFolderNode extends FolderNode {
 
+    private static final int savesPerPage = 10;
     private final ArrayList<AbstractNode> childrenThatAreNotSaveFiles = new ArrayList<>();
-    private final ButtonNode buttonCreateNewSave, buttonOpenSaveFolder;
+    private final ArrayList<SaveItemNode> shownSaveItems = new ArrayList<>();
+    private final ButtonNode buttonCreateNewSave, buttonOpenSaveFolder, buttonNewerSaves, buttonOlderSaves;
     private final ToggleNode autosaveEnabledToggle, autosaveGuardToggle, readAutosaveExplanationToggle;
     private final SliderIntNode autosaveMillisSlider;
     private final String readmeTextNodePath;
     private final TextNode autosaveReadmeTextNode;
+    private long lastSeenSaveCatalogVersion = -1;
+    private int pageIndex = 0;
+    private int shownPageIndex = -1;
     private final String autosaveReadmeContents =
             "- autosave triggers on graceful sketch exit\n" +
             "- save guard blocks autosave in unresponsive sketches\n" +
             "- unresponsive meaning it took longer than \n" +
-            "   'save guard (ms)' to render the last frame";
+            "   'save guard (ms)' to render the last frame\n" +
+            "- older autosaves get thinned out on startup";
 
     public SaveFolderNode(String path, FolderNode parent) {
         super(path, parent);
@@ -46,9 +58,14 @@ public class SaveFolderNode extends FolderNode {
         children.add(buttonCreateNewSave);
         children.add(buttonOpenSaveFolder);
         children.add(autosaveFolder);
+        buttonNewerSaves = new ButtonNode(path + "/newer saves", this);
+        buttonOlderSaves = new ButtonNode(path + "/older saves", this);
+        children.add(buttonNewerSaves);
+        children.add(buttonOlderSaves);
         childrenThatAreNotSaveFiles.addAll(children);
         updateReadmeVisibility();
         updateSaveList();
+        UpdateScheduler.register(this);
     }
 
     @Override
@@ -62,6 +79,12 @@ public class SaveFolderNode extends FolderNode {
         if(buttonOpenSaveFolder.getBooleanValueAndSetItToFalse()){
             openSaveFolder();
         }
+        if(buttonNewerSaves.getBooleanValueAndSetItToFalse()){
+            pageIndex--;
+        }
+        if(buttonOlderSaves.getBooleanValueAndSetItToFalse()){
+            pageIndex++;
+        }
         updateReadmeVisibility();
         updateSaveList();
     }
@@ -75,52 +98,73 @@ public class SaveFolderNode extends FolderNode {
         }
     }
 
+    /**
+     * Shows one page of the saves as children, newest first.
+     * Only the saves on the current page exist as nodes and nothing is done unless the catalog or the page changes.
+     */
     void updateSaveList() {
-        List<File> filenames = JsonSaveStore.getSaveFileList();
-        if(filenames == null){
+        List<File> saveFiles = JsonSaveStore.getSaveFileList();
+        long catalogVersion = SaveCatalog.getVersion();
+        if(catalogVersion == lastSeenSaveCatalogVersion && pageIndex == shownPageIndex){
             return;
         }
-        removeChildrenWithDeletedSaveFiles(filenames);
-        addNewlyFoundSaveFilesAsChildren(filenames);
+        lastSeenSaveCatalogVersion = catalogVersion;
+        int pageCount = max(1, ceil(saveFiles.size() / (float) savesPerPage));
+        pageIndex = constrain(pageIndex, 0, pageCount - 1);
+        shownPageIndex = pageIndex;
+        int fromIndex = pageIndex * savesPerPage;
+        showSaveFilesAsChildren(saveFiles.subList(fromIndex, min(fromIndex + savesPerPage, saveFiles.size())));
+        updatePageButtonVisibility(pageCount);
     }
 
-    private void addNewlyFoundSaveFilesAsChildren(List<File> filenames) {
-        for (File file : filenames) {
+    private void showSaveFilesAsChildren(List<File> pageFiles) {
+        Map<String, SaveItemNode> previousItemsByName = new HashMap<>();
+        for (SaveItemNode item : shownSaveItems) {
+            previousItemsByName.put(item.name, item);
+        }
+        List<SaveItemNode> pageItems = new ArrayList<>(pageFiles.size());
+        for (File file : pageFiles) {
             String filename = file.getName();
-            if (!filename.contains(".json")) {
-                continue;
-            }
             String saveDisplayName = getSaveDisplayName(filename);
-            String childNodePath = path + "/" + saveDisplayName;
-            if(findChildByName(saveDisplayName) == null){
-                children.add(childrenThatAreNotSaveFiles.size(), new SaveItemNode(childNodePath, this, filename));
+            SaveItemNode saveItem = previousItemsByName.remove(saveDisplayName);
+            if(saveItem == null){
+                saveItem = new SaveItemNode(path + "/" + saveDisplayName, this, filename);
+            }
+            pageItems.add(saveItem);
+        }
+        children.removeAll(shownSaveItems);
+        for(SaveItemNode removedItem : previousItemsByName.values()){
+            NodeTree.unindexSubtree(removedItem);
+        }
+        children.addAll(childrenThatAreNotSaveFiles.size(), pageItems);
+        for(SaveItemNode item : pageItems){
+            if(!shownSaveItems.contains(item)){
+                NodeTree.indexSubtree(item);
             }
         }
+        if(!pageItems.equals(shownSaveItems)){
+            // reordering the saves that stay on the page does not index anything, so the change would go unnoticed
+            RedrawStore.requestRedraw();
+        }
+        shownSaveItems.clear();
+        shownSaveItems.addAll(pageItems);
     }
 
-    private void removeChildrenWithDeletedSaveFiles(List<File> existingFilenames) {
-        List<AbstractNode> childrenToRemove = new ArrayList<>();
-        for(AbstractNode child : children){
-            if(childrenThatAreNotSaveFiles.contains(child)){
-                continue;
-            }
-            boolean childHasLostSourceFile = true;
-            for(File file : existingFilenames){
-                if(child.name.equals(getSaveDisplayName(file.getName()))){
-                    childHasLostSourceFile = false;
-                    break;
-                }
-            }
-            if(childHasLostSourceFile){
-                childrenToRemove.add(child);
-            }
+    private void updatePageButtonVisibility(int pageCount) {
+        if(pageIndex > 0){
+            buttonNewerSaves.showInlineNode();
+        }else{
+            buttonNewerSaves.hideInlineNode();
+        }
+        if(pageIndex < pageCount - 1){
+            buttonOlderSaves.showInlineNode();
+        }else{
+            buttonOlderSaves.hideInlineNode();
         }
-        children.removeAll(childrenToRemove);
-        childrenToRemove.clear();
     }
 
     private String getSaveDisplayName(String filenameWithSuffix) {
-        return filenameWithSuffix.substring(0, filenameWithSuffix.indexOf(".json"));
+        return filenameWithSuffix.substring(0, filenameWithSuffix.lastIndexOf('.'));
     }
 
     protected void drawNodeBackground(PGraphics pg) {
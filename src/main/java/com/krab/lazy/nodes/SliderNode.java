@@ -1,8 +1,7 @@
 package com.krab.lazy.nodes;
 
-import com.google.gson.JsonElement;
-import com.google.gson.JsonObject;
 import com.google.gson.annotations.Expose;
+import com.google.gson.stream.JsonWriter;
 
 
 import com.krab.lazy.input.LazyKeyEvent;
@@ -15,9 +14,13 @@ import com.krab.lazy.themes.ThemeStore;
 import com.krab.lazy.utils.ArrayListBuilder;
 import com.krab.lazy.utils.ClipboardUtils;
 import com.krab.lazy.stores.JsonSaveStore;
+import com.krab.lazy.stores.LoadedNodeState;
+import com.krab.lazy.stores.RedrawStore;
+import com.krab.lazy.stores.UpdateScheduler;
 import processing.core.PGraphics;
 import processing.opengl.PShader;
 
+import java.io.IOException;
 import java.util.ArrayList;
 
 import static com.krab.lazy.stores.NormColorStore.*;
@@ -121,6 +124,15 @@ public class SliderNode extends AbstractNode {
             updateValueMouseInteraction();
         }
         updateNumpad();
+        if (!isInlineNodeDragged && !isNumpadInputActive() && !wasNumpadInputActiveLastFrame) {
+            UpdateScheduler.unregister(this);
+        }
+    }
+
+    @Override
+    public boolean needsRedrawEveryFrame() {
+        // the scrolling background follows the mouse and the numpad buffer changes without the value changing
+        return isInlineNodeDragged || isMouseOverNode || isNumpadInputActive() || wasNumpadInputActiveLastFrame;
     }
 
     @Override
@@ -223,6 +235,10 @@ public class SliderNode extends AbstractNode {
         }
         currentPrecisionIndex = constrain(newPrecisionIndex, 0, precisionRange.size() - 1);
         valueFloatPrecision = precisionRange.get(currentPrecisionIndex);
+        if (parent instanceof PlotFolderNode) {
+            // the plot keeps the precision of its sliders in sync
+            UpdateScheduler.register(parent);
+        }
     }
 
     protected boolean validatePrecision(int newPrecisionIndex) {
@@ -252,6 +268,10 @@ public class SliderNode extends AbstractNode {
     }
 
     private void updateNumpad() {
+        if (isNumpadInputActive() || wasNumpadInputActiveLastFrame) {
+            // the buffer and its cursor are shown until the input times out, which no event announces
+            RedrawStore.requestRedraw();
+        }
         if (!isNumpadInputActive() && wasNumpadInputActiveLastFrame) {
             if (numpadBufferValue.endsWith(".")) {
                 numpadBufferValue += "0";
@@ -352,6 +372,7 @@ public class SliderNode extends AbstractNode {
 
     protected void setNumpadInputActiveStarted() {
         numpadInputAppendLastMillis = app.millis();
+        UpdateScheduler.register(this);
     }
 
     protected boolean isNumpadInputActive() {
@@ -377,9 +398,13 @@ public class SliderNode extends AbstractNode {
         return true;
     }
 
-    protected void setValueFloat(float floatToSet) {
+    public void setValueFloat(float floatToSet) {
+        float previousValue = valueFloat;
         valueFloat = floatToSet;
         onValueFloatChanged();
+        if (Float.compare(previousValue, valueFloat) != 0) {
+            markValueChanged();
+        }
     }
 
     protected void onValueFloatChanged() {
@@ -392,19 +417,39 @@ public class SliderNode extends AbstractNode {
         mouseDeltaX = e.getPrevX() - e.getX();
         mouseDeltaY = e.getPrevY() - e.getY();
         e.setConsumed(true);
+        UpdateScheduler.register(this);
+    }
+
+    @Override
+    public void writeValueFields(JsonWriter writer) throws IOException {
+        // floats are boxed so they get written by Float.toString() just like Gson does
+        writer.name("valueFloat").value((Float) valueFloat);
+        writer.name("currentPrecisionIndex").value(currentPrecisionIndex);
+        writer.name("valueFloatPrecision").value((Float) valueFloatPrecision);
+        super.writeValueFields(writer);
+    }
+
+    @Override
+    public void writeValueFields(LoadedNodeState state) {
+        state.valueFloat = valueFloat;
+        state.hasValueFloat = true;
+        state.currentPrecisionIndex = currentPrecisionIndex;
+        state.hasCurrentPrecisionIndex = true;
+        state.valueFloatPrecision = valueFloatPrecision;
+        state.hasValueFloatPrecision = true;
+        super.writeValueFields(state);
     }
 
     @Override
-    public void overwriteState(JsonElement loadedNode) {
-        JsonObject json = loadedNode.getAsJsonObject();
-        if (json.has("currentPrecisionIndex")) {
-            currentPrecisionIndex = json.get("currentPrecisionIndex").getAsInt();
+    public void overwriteState(LoadedNodeState loadedNode) {
+        if (loadedNode.hasCurrentPrecisionIndex) {
+            currentPrecisionIndex = loadedNode.currentPrecisionIndex;
         }
-        if (json.has("valueFloatPrecision")) {
-            valueFloatPrecision = json.get("valueFloatPrecision").getAsFloat();
+        if (loadedNode.hasValueFloatPrecision) {
+            valueFloatPrecision = loadedNode.valueFloatPrecision;
         }
-        if (json.has("valueFloat")) {
-            setValueFloat(json.get("valueFloat").getAsFloat());
+        if (loadedNode.hasValueFloat) {
+            setValueFloat(loadedNode.valueFloat);
         }
     }
 
@@ -1,8 +1,7 @@
 package com.krab.lazy.nodes;
 
-import com.google.gson.JsonElement;
-import com.google.gson.JsonObject;
 import com.google.gson.annotations.Expose;
+import com.google.gson.stream.JsonWriter;
 import com.krab.lazy.input.LazyKeyEvent;
 import com.krab.lazy.stores.*;
 import com.krab.lazy.themes.ThemeColorType;
@@ -12,6 +11,8 @@ import com.krab.lazy.utils.KeyCodes;
 import processing.core.PConstants;
 import processing.core.PGraphics;
 
+import java.io.IOException;
+
 import static processing.core.PConstants.*;
 
 public class TextNode extends AbstractNode {
@@ -41,6 +42,12 @@ public class TextNode extends AbstractNode {
 //        drawLeftIndentLine(pg);
     }
 
+    @Override
+    public boolean needsRedrawEveryFrame() {
+        // the typed buffer is displayed before it becomes the value
+        return isMouseOverNode || !stringValue.equals(buffer);
+    }
+
     @Override
     protected void drawNodeForeground(PGraphics pg, String name) {
         fillForegroundBasedOnMouseOver(pg);
@@ -120,6 +127,9 @@ public class TextNode extends AbstractNode {
     @Override
     public void updateValuesRegardlessOfParentWindowOpenness() {
         trySetContentToBufferAfterDelay();
+        if(stringValue.equals(buffer)){
+            UpdateScheduler.unregister(this);
+        }
     }
 
     private void trySetContentToBufferAfterDelay() {
@@ -138,6 +148,7 @@ public class TextNode extends AbstractNode {
                 return;
             }
             millisInputStarted = GlobalReferences.app.millis();
+            UpdateScheduler.register(this);
             if (e.getKeyCode() == PConstants.BACKSPACE) {
                 if (buffer.length() > 0) {
                     buffer = buffer.substring(0, buffer.length() - 1);
@@ -160,11 +171,21 @@ public class TextNode extends AbstractNode {
     }
 
     @Override
-    public void overwriteState(JsonElement loadedNode) {
-        JsonObject json = loadedNode.getAsJsonObject();
-        if (json.has("stringValue")) {
-            stringValue = json.get("stringValue").getAsString();
-            buffer = stringValue;
+    public void writeValueFields(JsonWriter writer) throws IOException {
+        writer.name("stringValue").value(stringValue);
+        super.writeValueFields(writer);
+    }
+
+    @Override
+    public void writeValueFields(LoadedNodeState state) {
+        state.stringValue = stringValue;
+        super.writeValueFields(state);
+    }
+
+    @Override
+    public void overwriteState(LoadedNodeState loadedNode) {
+        if (loadedNode.stringValue != null) {
+            setStringValue(loadedNode.stringValue);
         }
     }
 
@@ -178,8 +199,12 @@ public class TextNode extends AbstractNode {
     }
 
     public void setStringValue(String newValue) {
+        boolean changed = !newValue.equals(stringValue);
         stringValue = newValue;
         buffer = newValue;
+        if (changed) {
+            markValueChanged();
+        }
     }
 
     @Override
@@ -1,13 +1,16 @@
 package com.krab.lazy.nodes;
 
-import com.google.gson.JsonElement;
 import com.google.gson.annotations.Expose;
+import com.google.gson.stream.JsonWriter;
 
 import com.krab.lazy.stores.LayoutStore;
 import com.krab.lazy.input.LazyMouseEvent;
 import com.krab.lazy.stores.JsonSaveStore;
+import com.krab.lazy.stores.LoadedNodeState;
 import processing.core.PGraphics;
 
+import java.io.IOException;
+
 public class ToggleNode extends AbstractNode {
 
     @Expose
@@ -43,7 +46,7 @@ public class ToggleNode extends AbstractNode {
     public void mouseReleasedOverNode(float x, float y){
         super.mouseReleasedOverNode(x,y);
         if(armed){
-            valueBoolean = !valueBoolean;
+            setValueBoolean(!valueBoolean);
             onActionEnded();
         }
         armed = false;
@@ -54,11 +57,31 @@ public class ToggleNode extends AbstractNode {
 
     }
 
-    public void overwriteState(JsonElement loadedNode) {
-        JsonElement booleanElement = loadedNode.getAsJsonObject().get("valueBoolean");
-        if(booleanElement != null){
-            valueBoolean = booleanElement.getAsBoolean();
+    @Override
+    public void writeValueFields(JsonWriter writer) throws IOException {
+        writer.name("valueBoolean").value(valueBoolean);
+        super.writeValueFields(writer);
+    }
+
+    @Override
+    public void writeValueFields(LoadedNodeState state) {
+        state.valueBoolean = valueBoolean;
+        state.hasValueBoolean = true;
+        super.writeValueFields(state);
+    }
+
+    public void overwriteState(LoadedNodeState loadedNode) {
+        if(loadedNode.hasValueBoolean){
+            setValueBoolean(loadedNode.valueBoolean);
+        }
+    }
+
+    public void setValueBoolean(boolean valueToSet) {
+        if (valueBoolean == valueToSet) {
+            return;
         }
+        valueBoolean = valueToSet;
+        markValueChanged();
     }
 
     @Override
@@ -0,0 +1,196 @@
+package com.krab.lazy.stores;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static processing.core.PApplet.println;
+
+/**
+ * Encodes and writes save files on a background thread so the animation thread only pays for taking the snapshot of the GUI state,
+ * which is a plain copy of the node values made by LoadedNodeState.capture(), the encoder then turns it into the file contents here.
+ * Pending saves are kept in a small bounded queue keyed by their file path,
+ * a save to a path that is already waiting in the queue replaces the older snapshot instead of writing the file twice.
+ * When the queue is full, queueing a save to a new path waits for the writer to catch up.
+ * Every file is first written completely to a temporary file in the same folder and then atomically moved over the target,
+ * so a crash in the middle of writing never leaves a truncated save behind.
+ */
+public class AsyncSaveWriter {
+    private static final int maxPendingSaves = 8;
+    private static final String tempFilePrefix = "lazygui-save-";
+    private static final String tempFileSuffix = ".tmp";
+    private static final Object lock = new Object();
+    private static final LinkedHashMap<String, SaveEncoder> pendingSaves = new LinkedHashMap<>();
+    // path of the save the writer thread is encoding and writing right now, null when it is idle
+    private static String pathBeingWritten = null;
+    private static Thread writerThread;
+
+    private AsyncSaveWriter() {
+
+    }
+
+    /**
+     * Turns a snapshot of the GUI state into the contents of a save file, called on the writer thread.
+     */
+    interface SaveEncoder {
+        byte[] encode() throws IOException;
+    }
+
+    /**
+     * Queues an already encoded snapshot of the GUI state to be written to the file at the given path.
+     * @param fullPath absolute path of the save file
+     * @param snapshot encoded GUI state that is no longer touched by the caller
+     */
+    static void enqueue(String fullPath, byte[] snapshot) {
+        enqueue(fullPath, () -> snapshot);
+    }
+
+    /**
+     * Queues a snapshot of the GUI state to be encoded and written to the file at the given path.
+     * @param fullPath absolute path of the save file
+     * @param encoder encodes a snapshot that is no longer touched by the caller, so it can safely run on the writer thread
+     */
+    static void enqueue(String fullPath, SaveEncoder encoder) {
+        synchronized (lock) {
+            while (!pendingSaves.containsKey(fullPath) && pendingSaves.size() >= maxPendingSaves) {
+                try {
+                    lock.wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            }
+            pendingSaves.put(fullPath, encoder);
+            lazyStartWriterThread();
+            lock.notifyAll();
+        }
+    }
+
+    /**
+     * Waits until every queued save has been written.
+     * @param timeoutMillis how long to wait at most
+     * @return true if all saves were written in time
+     */
+    static boolean flush(long timeoutMillis) {
+        long deadline = System.currentTimeMillis() + timeoutMillis;
+        synchronized (lock) {
+            while (!pendingSaves.isEmpty() || pathBeingWritten != null) {
+                long millisLeft = deadline - System.currentTimeMillis();
+                if (millisLeft <= 0) {
+                    return false;
+                }
+                try {
+                    lock.wait(millisLeft);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return whether any save is still waiting in the queue or being written
+     */
+    static boolean hasPendingSaves() {
+        synchronized (lock) {
+            return !pendingSaves.isEmpty() || pathBeingWritten != null;
+        }
+    }
+
+    /**
+     * @return paths of the saves that are still waiting in the queue or being written, which may not exist on disk yet
+     */
+    static List<String> getPendingSavePaths() {
+        synchronized (lock) {
+            List<String> paths = new ArrayList<>(pendingSaves.keySet());
+            if (pathBeingWritten != null) {
+                paths.add(pathBeingWritten);
+            }
+            return paths;
+        }
+    }
+
+    private static void lazyStartWriterThread() {
+        if (writerThread != null) {
+            return;
+        }
+        writerThread = new Thread(AsyncSaveWriter::writeSavesForever, "LazyGui save writer");
+        writerThread.setDaemon(true);
+        writerThread.start();
+    }
+
+    private static void writeSavesForever() {
+        //noinspection InfiniteLoopStatement
+        while (true) {
+            String fullPath;
+            SaveEncoder encoder;
+            synchronized (lock) {
+                while (pendingSaves.isEmpty()) {
+                    try {
+                        lock.wait();
+                    } catch (InterruptedException e) {
+                        // keep writing, saves are not meant to be abandoned
+                    }
+                }
+                Iterator<Map.Entry<String, SaveEncoder>> oldestSave = pendingSaves.entrySet().iterator();
+                Map.Entry<String, SaveEncoder> save = oldestSave.next();
+                oldestSave.remove();
+                fullPath = save.getKey();
+                encoder = save.getValue();
+                pathBeingWritten = fullPath;
+                lock.notifyAll();
+            }
+            try {
+                writeAtomically(Paths.get(fullPath), encoder.encode(), true);
+                println("Created new save: " + fullPath);
+                SaveCatalog.rescan();
+            } catch (Exception e) {
+                println("Could not write save to: " + fullPath + " because of " + e);
+            } finally {
+                synchronized (lock) {
+                    pathBeingWritten = null;
+                    lock.notifyAll();
+                }
+            }
+        }
+    }
+
+    /**
+     * Writes the file under a temporary name first and then moves it over the target, so the target is never seen half written.
+     * @param target file to write
+     * @param content complete contents of the file
+     * @param forceToDisk whether to wait for the contents to reach the disk before the move, which survives a power loss and not just a crash
+     * @throws IOException when writing or moving fails
+     */
+    static void writeAtomically(Path target, byte[] content, boolean forceToDisk) throws IOException {
+        Path dir = target.toAbsolutePath().getParent();
+        Files.createDirectories(dir);
+        Path temp = Files.createTempFile(dir, tempFilePrefix, tempFileSuffix);
+        try {
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                ByteBuffer buffer = ByteBuffer.wrap(content);
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+                if (forceToDisk) {
+                    channel.force(true);
+                }
+            }
+            try {
+                Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+}
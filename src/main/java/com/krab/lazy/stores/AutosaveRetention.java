@@ -0,0 +1,92 @@
+package com.krab.lazy.stores;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Predicate;
+
+import static processing.core.PApplet.println;
+
+/**
+ * Decides which autosaves to delete so the save folder does not keep growing with every graceful exit.
+ * The latest autosaves are always kept, older ones are thinned out by age so that at most one is kept per time bucket,
+ * the buckets getting wider the older the autosaves are.
+ * Manual saves are never touched, only the files named like autosaves are considered.
+ */
+public class AutosaveRetention {
+    public static int latestAutosavesToKeep = 10;
+    public static boolean olderAutosaveThinningEnabled = true;
+
+    private static final long hourMillis = 60L * 60 * 1000;
+    private static final long dayMillis = 24 * hourMillis;
+    // pairs of {maximum age, bucket size}, autosaves older than the last maximum age fall into the last bucket size
+    private static final long[][] ageBuckets = {
+            {dayMillis, hourMillis},
+            {30 * dayMillis, dayMillis},
+            {Long.MAX_VALUE, 7 * dayMillis},
+    };
+
+    private AutosaveRetention() {
+
+    }
+
+    /**
+     * Deletes the autosaves that the retention rules do not keep.
+     * @param savesNewestFirst all save files sorted by their last modified time with the newest first
+     * @param isAutosave tells autosaves apart from manual saves
+     * @return number of deleted files
+     */
+    static int deleteExpiredAutosaves(List<File> savesNewestFirst, Predicate<File> isAutosave) {
+        List<File> toDelete = findExpiredAutosaves(savesNewestFirst, isAutosave, System.currentTimeMillis());
+        int deletedCount = 0;
+        for (File file : toDelete) {
+            if (file.delete()) {
+                deletedCount++;
+            } else {
+                println("Could not delete old autosave: " + file.getPath());
+            }
+        }
+        return deletedCount;
+    }
+
+    static List<File> findExpiredAutosaves(List<File> savesNewestFirst, Predicate<File> isAutosave, long nowMillis) {
+        List<File> expired = new ArrayList<>();
+        Set<Long> occupiedBuckets = new HashSet<>();
+        int autosavesSeen = 0;
+        for (File file : savesNewestFirst) {
+            if (!isAutosave.test(file)) {
+                continue;
+            }
+            autosavesSeen++;
+            if (autosavesSeen <= latestAutosavesToKeep) {
+                continue;
+            }
+            if (!olderAutosaveThinningEnabled) {
+                expired.add(file);
+                continue;
+            }
+            // the list is sorted newest first, so the autosave kept in each bucket is the newest one in it
+            if (!occupiedBuckets.add(getAgeBucketKey(nowMillis - file.lastModified()))) {
+                expired.add(file);
+            }
+        }
+        return expired;
+    }
+
+    private static long getAgeBucketKey(long ageMillis) {
+        long bucketsBefore = 0;
+        long bucketStartAge = 0;
+        for (long[] bucket : ageBuckets) {
+            long maxAge = bucket[0];
+            long bucketSize = bucket[1];
+            if (ageMillis < maxAge) {
+                return bucketsBefore + Math.max(0, ageMillis - bucketStartAge) / bucketSize;
+            }
+            bucketsBefore += (maxAge - bucketStartAge) / bucketSize + 1;
+            bucketStartAge = maxAge;
+        }
+        return bucketsBefore;
+    }
+}
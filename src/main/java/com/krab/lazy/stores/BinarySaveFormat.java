@@ -0,0 +1,303 @@
+package com.krab.lazy.stores;
+
+import com.krab.lazy.utils.NodePaths;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Compact binary alternative to the json save files holding exactly the same content, so saves convert both ways without loss.
+ * <pre>
+ * file:    magic "LGSB", format version byte, flags byte (bit 0 = the rest is deflate compressed)
+ * payload: string table (varint count, then each string as a varint byte length and utf-8 bytes)
+ *          followed by the node records in depth first order, each prefixed with its varint byte length
+ * record:  varint field flags, varint class name and type string indexes (0 meaning null),
+ *          varint string index of the node name, or of the full path when it does not follow from the parent's path,
+ *          then the present values in the order of the flags, then a varint child count if the node has children
+ * </pre>
+ * Paths are stored as the name of the node within its parent, so names repeated across folders are stored only once.
+ * Floats keep their exact bits, strings are looked up in the string table and readers skip the rest of records longer than they understand.
+ */
+public class BinarySaveFormat {
+    static final String BINARY_EXTENSION = ".lgsave";
+    private static final byte[] MAGIC = {'L', 'G', 'S', 'B'};
+    private static final int FORMAT_VERSION = 1;
+    private static final int FLAG_DEFLATED = 1;
+
+    private static final int HAS_VALUE_FLOAT = 1;
+    private static final int HAS_CURRENT_PRECISION_INDEX = 1 << 1;
+    private static final int HAS_VALUE_FLOAT_PRECISION = 1 << 2;
+    private static final int HAS_VALUE_BOOLEAN = 1 << 3;
+    private static final int HAS_VALUE_STRING = 1 << 4;
+    private static final int HAS_HEX_STRING = 1 << 5;
+    private static final int HAS_STRING_VALUE = 1 << 6;
+    private static final int HAS_WINDOW = 1 << 7;
+    private static final int HAS_CHILDREN = 1 << 8;
+    private static final int HAS_FULL_PATH = 1 << 9;
+
+    private BinarySaveFormat() {
+
+    }
+
+    /**
+     * @param header the first bytes of a file, at least four of them are needed for a match
+     * @return whether the bytes start like a binary save
+     */
+    static boolean hasMagic(byte[] header) {
+        if (header.length < MAGIC.length) {
+            return false;
+        }
+        for (int i = 0; i < MAGIC.length; i++) {
+            if (header[i] != MAGIC[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    static int getMagicLength() {
+        return MAGIC.length;
+    }
+
+    /**
+     * Encodes a tree of node states.
+     * @param root root of the tree to encode
+     * @param compressed whether to deflate everything after the header
+     * @return the complete contents of a binary save file
+     */
+    public static byte[] encode(LoadedNodeState root, boolean compressed) {
+        try {
+            StringTable strings = new StringTable();
+            ByteArrayOutputStream records = new ByteArrayOutputStream();
+            DataOutputStream recordsOut = new DataOutputStream(records);
+            ByteArrayOutputStream recordBuffer = new ByteArrayOutputStream();
+            writeRecordsRecursively(root, null, recordsOut, recordBuffer, strings);
+
+            ByteArrayOutputStream file = new ByteArrayOutputStream(records.size() / 2 + 64);
+            file.write(MAGIC);
+            file.write(FORMAT_VERSION);
+            file.write(compressed ? FLAG_DEFLATED : 0);
+            OutputStream payload = compressed ? new DeflaterOutputStream(file, new Deflater(Deflater.BEST_SPEED)) : file;
+            DataOutputStream payloadOut = new DataOutputStream(payload);
+            writeVarInt(payloadOut, strings.list.size());
+            for (String string : strings.list) {
+                byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+                writeVarInt(payloadOut, bytes.length);
+                payloadOut.write(bytes);
+            }
+            records.writeTo(payloadOut);
+            payloadOut.flush();
+            if (payload instanceof DeflaterOutputStream) {
+                ((DeflaterOutputStream) payload).finish();
+            }
+            return file.toByteArray();
+        } catch (IOException e) {
+            throw new IllegalStateException("Encoding a binary save in memory failed", e);
+        }
+    }
+
+    private static void writeRecordsRecursively(LoadedNodeState state, String parentPath, DataOutputStream out,
+                                                ByteArrayOutputStream recordBuffer, StringTable strings) throws IOException {
+        recordBuffer.reset();
+        DataOutputStream record = new DataOutputStream(recordBuffer);
+        String name = NodePaths.getLastSegment(state.path);
+        boolean pathFollowsFromParent = parentPath != null &&
+                state.path.equals(parentPath.isEmpty() ? name : parentPath + "/" + name);
+        int flags = (state.hasValueFloat ? HAS_VALUE_FLOAT : 0)
+                | (state.hasCurrentPrecisionIndex ? HAS_CURRENT_PRECISION_INDEX : 0)
+                | (state.hasValueFloatPrecision ? HAS_VALUE_FLOAT_PRECISION : 0)
+                | (state.hasValueBoolean ? HAS_VALUE_BOOLEAN : 0)
+                | (state.valueString != null ? HAS_VALUE_STRING : 0)
+                | (state.hexString != null ? HAS_HEX_STRING : 0)
+                | (state.stringValue != null ? HAS_STRING_VALUE : 0)
+                | (state.hasWindow ? HAS_WINDOW : 0)
+                | (state.children != null ? HAS_CHILDREN : 0)
+                | (pathFollowsFromParent ? 0 : HAS_FULL_PATH);
+        writeVarInt(record, flags);
+        writeVarInt(record, strings.indexOfNullable(state.className));
+        writeVarInt(record, strings.indexOfNullable(state.type));
+        writeVarInt(record, strings.indexOf(pathFollowsFromParent ? name : state.path));
+        if (state.hasValueFloat) {
+            record.writeFloat(state.valueFloat);
+        }
+        if (state.hasCurrentPrecisionIndex) {
+            writeVarInt(record, (state.currentPrecisionIndex << 1) ^ (state.currentPrecisionIndex >> 31));
+        }
+        if (state.hasValueFloatPrecision) {
+            record.writeFloat(state.valueFloatPrecision);
+        }
+        if (state.hasValueBoolean) {
+            record.writeBoolean(state.valueBoolean);
+        }
+        if (state.valueString != null) {
+            writeVarInt(record, strings.indexOf(state.valueString));
+        }
+        if (state.hexString != null) {
+            writeVarInt(record, strings.indexOf(state.hexString));
+        }
+        if (state.stringValue != null) {
+            writeVarInt(record, strings.indexOf(state.stringValue));
+        }
+        if (state.hasWindow) {
+            record.writeFloat(state.windowPosX);
+            record.writeFloat(state.windowPosY);
+            record.writeBoolean(state.windowClosed);
+            record.writeFloat(state.windowSizeX);
+        }
+        if (state.children != null) {
+            writeVarInt(record, state.children.size());
+        }
+        record.flush();
+        writeVarInt(out, recordBuffer.size());
+        recordBuffer.writeTo(out);
+        if (state.children != null) {
+            for (LoadedNodeState child : state.children) {
+                writeRecordsRecursively(child, state.path, out, recordBuffer, strings);
+            }
+        }
+    }
+
+    /**
+     * Decodes a binary save.
+     * @param in stream positioned at the start of the file, it is read to the end of the save but not closed
+     * @return root of the saved tree
+     * @throws IOException when the stream fails, is not a binary save or is of a newer format version
+     */
+    public static LoadedNodeState decode(InputStream in) throws IOException {
+        DataInputStream header = new DataInputStream(in);
+        byte[] magic = new byte[MAGIC.length];
+        header.readFully(magic);
+        if (!hasMagic(magic)) {
+            throw new IOException("Not a binary save file");
+        }
+        int version = header.readUnsignedByte();
+        if (version > FORMAT_VERSION) {
+            throw new IOException("Binary save format version " + version + " is newer than the supported version " + FORMAT_VERSION);
+        }
+        int fileFlags = header.readUnsignedByte();
+        InputStream payload = (fileFlags & FLAG_DEFLATED) != 0 ? new InflaterInputStream(in) : in;
+        DataInputStream payloadIn = new DataInputStream(new BufferedInputStream(payload));
+        int stringCount = readVarInt(payloadIn);
+        String[] strings = new String[stringCount];
+        byte[] stringBytes = new byte[64];
+        for (int i = 0; i < stringCount; i++) {
+            int length = readVarInt(payloadIn);
+            if (stringBytes.length < length) {
+                stringBytes = new byte[Math.max(length, stringBytes.length * 2)];
+            }
+            payloadIn.readFully(stringBytes, 0, length);
+            strings[i] = new String(stringBytes, 0, length, StandardCharsets.UTF_8);
+        }
+        return readRecordsRecursively(payloadIn, null, strings);
+    }
+
+    public static LoadedNodeState decode(byte[] bytes) throws IOException {
+        return decode(new ByteArrayInputStream(bytes));
+    }
+
+    private static LoadedNodeState readRecordsRecursively(DataInputStream in, String parentPath, String[] strings) throws IOException {
+        byte[] recordBytes = new byte[readVarInt(in)];
+        in.readFully(recordBytes);
+        DataInputStream record = new DataInputStream(new ByteArrayInputStream(recordBytes));
+        LoadedNodeState state = new LoadedNodeState();
+        int flags = readVarInt(record);
+        state.className = getNullableString(strings, readVarInt(record));
+        state.type = getNullableString(strings, readVarInt(record));
+        String nameOrPath = strings[readVarInt(record)];
+        if ((flags & HAS_FULL_PATH) != 0 || parentPath == null) {
+            state.path = nameOrPath;
+        } else {
+            state.path = parentPath.isEmpty() ? nameOrPath : parentPath + "/" + nameOrPath;
+        }
+        if ((flags & HAS_VALUE_FLOAT) != 0) {
+            state.valueFloat = record.readFloat();
+            state.hasValueFloat = true;
+        }
+        if ((flags & HAS_CURRENT_PRECISION_INDEX) != 0) {
+            int zigzag = readVarInt(record);
+            state.currentPrecisionIndex = (zigzag >>> 1) ^ -(zigzag & 1);
+            state.hasCurrentPrecisionIndex = true;
+        }
+        if ((flags & HAS_VALUE_FLOAT_PRECISION) != 0) {
+            state.valueFloatPrecision = record.readFloat();
+            state.hasValueFloatPrecision = true;
+        }
+        if ((flags & HAS_VALUE_BOOLEAN) != 0) {
+            state.valueBoolean = record.readBoolean();
+            state.hasValueBoolean = true;
+        }
+        if ((flags & HAS_VALUE_STRING) != 0) {
+            state.valueString = strings[readVarInt(record)];
+        }
+        if ((flags & HAS_HEX_STRING) != 0) {
+            state.hexString = strings[readVarInt(record)];
+        }
+        if ((flags & HAS_STRING_VALUE) != 0) {
+            state.stringValue = strings[readVarInt(record)];
+        }
+        if ((flags & HAS_WINDOW) != 0) {
+            state.windowPosX = record.readFloat();
+            state.windowPosY = record.readFloat();
+            state.windowClosed = record.readBoolean();
+            state.windowSizeX = record.readFloat();
+            state.hasWindow = true;
+        }
+        if ((flags & HAS_CHILDREN) != 0) {
+            int childCount = readVarInt(record);
+            state.children = new ArrayList<>(childCount);
+            for (int i = 0; i < childCount; i++) {
+                state.children.add(readRecordsRecursively(in, state.path, strings));
+            }
+        }
+        return state;
+    }
+
+    private static String getNullableString(String[] strings, int indexPlusOne) {
+        return indexPlusOne == 0 ? null : strings[indexPlusOne - 1];
+    }
+
+    private static void writeVarInt(DataOutput out, int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            out.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte(value);
+    }
+
+    private static int readVarInt(DataInput in) throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            int b = in.readUnsignedByte();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed varint in binary save");
+    }
+
+    private static class StringTable {
+        final List<String> list = new ArrayList<>();
+        final HashMap<String, Integer> indexes = new HashMap<>();
+
+        int indexOf(String string) {
+            Integer index = indexes.get(string);
+            if (index == null) {
+                index = list.size();
+                list.add(string);
+                indexes.put(string, index);
+            }
+            return index;
+        }
+
+        int indexOfNullable(String string) {
+            return string == null ? 0 : indexOf(string) + 1;
+        }
+    }
+}
@@ -0,0 +1,265 @@
+package com.krab.lazy.stores;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.LinkedBlockingQueue;
+
+import static processing.core.PApplet.println;
+
+/**
+ * Append-only journal of the committed node states, so that a crash or a killed sketch does not lose the changes made since the last save.
+ * UndoRedoStore hands over the after-states it already serialized whenever a user action ends or an undo or redo is applied,
+ * so recording a change on the animation thread costs only putting those strings in a queue.
+ * A background thread appends them to the journal file one compact json state per line and flushes after every batch,
+ * which survives the JVM going down but not the whole machine losing power.
+ * <p>
+ * Once the journal grows over compactionThresholdBytes, the next change also takes a full snapshot of the tree,
+ * which on the animation thread is just a copy of the node values made by LoadedNodeState.capture().
+ * The journal thread encodes and writes it as a new autosave and then starts the journal over with a line naming that autosave as its base.
+ * A graceful exit deletes the journal after its autosave has been written, so a journal that exists on startup means the last run did not end well.
+ * Recovery then loads the base autosave if the journal names one and replays the journaled states in order on top of it,
+ * the states of nodes that do not exist yet stay pending until the sketch creates them just like with any loaded save.
+ * A torn last line left behind by the crash is ignored.
+ * When the sketch starts from another save than the latest one or from no save at all, the journal is not replayed
+ * and gets moved aside instead, so its changes neither end up on top of a state they were not made to nor get appended to.
+ */
+public class ChangeJournal {
+    public static boolean journalEnabled = true;
+    public static long compactionThresholdBytes = 1024 * 1024;
+    private static final String JOURNAL_FILE_NAME = "unsaved_changes.journal";
+    private static final String SKIPPED_SUFFIX = ".skipped";
+    private static final String BASE_LINE_PREFIX = "base ";
+    private static final LinkedBlockingQueue<JournalTask> queue = new LinkedBlockingQueue<>();
+    private static long journalBytesEstimate = 0;
+    private static volatile boolean compactionQueued = false;
+    // guarded by the ChangeJournal class lock, set once the journal is deleted at exit so no late batch recreates it
+    private static boolean closed = false;
+    private static Thread journalThread;
+
+    private ChangeJournal() {
+
+    }
+
+    private static class JournalTask {
+        final String[] states;
+        final String compactionSavePath;
+        final AsyncSaveWriter.SaveEncoder compactionSnapshot;
+
+        JournalTask(String[] states, String compactionSavePath, AsyncSaveWriter.SaveEncoder compactionSnapshot) {
+            this.states = states;
+            this.compactionSavePath = compactionSavePath;
+            this.compactionSnapshot = compactionSnapshot;
+        }
+    }
+
+    /**
+     * Records the new committed states of some nodes, called on the animation thread.
+     * @param states compact json states of the changed nodes as written by NodeTreeJsonWriter.toNodeStateJsonString()
+     */
+    static void append(String[] states) {
+        if (!journalEnabled || states.length == 0) {
+            return;
+        }
+        lazyStartJournalThread();
+        queue.offer(new JournalTask(states, null, null));
+        for (String state : states) {
+            journalBytesEstimate += state.length() + 1;
+        }
+        if (journalBytesEstimate > compactionThresholdBytes && !compactionQueued) {
+            queueCompaction();
+        }
+    }
+
+    private static void queueCompaction() {
+        String savePath = JsonSaveStore.getNewAutosavePath();
+        // only the copy of the values is taken here, encoding the whole tree is left to the journal thread
+        AsyncSaveWriter.SaveEncoder snapshot = JsonSaveStore.captureCurrentState(savePath);
+        compactionQueued = true;
+        journalBytesEstimate = 0;
+        queue.offer(new JournalTask(null, savePath, snapshot));
+    }
+
+    /**
+     * Replays the journal left behind by a run that did not exit gracefully, meant to run once on startup after loading the latest save.
+     * The journal is kept as it is and appended to, so it still covers everything until the next save or graceful exit.
+     */
+    public static void recoverUnsavedChangesIfAny() {
+        if (!journalEnabled) {
+            return;
+        }
+        Path journalPath = getJournalPath();
+        if (!Files.exists(journalPath)) {
+            return;
+        }
+        List<LoadedNodeState> states = new ArrayList<>();
+        String baseSaveName = null;
+        try (BufferedReader reader = Files.newBufferedReader(journalPath, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.startsWith(BASE_LINE_PREFIX)) {
+                    baseSaveName = line.substring(BASE_LINE_PREFIX.length());
+                    states.clear();
+                    continue;
+                }
+                LoadedNodeState state;
+                try {
+                    state = NodeStateJsonReader.read(line);
+                } catch (IOException | RuntimeException e) {
+                    // the last line may have been cut short by the crash
+                    break;
+                }
+                if (state.path != null) {
+                    states.add(state);
+                }
+            }
+        } catch (IOException e) {
+            println("Could not read the change journal: " + e.getMessage());
+            return;
+        }
+        if (baseSaveName != null) {
+            JsonSaveStore.loadStateFromFilePath(baseSaveName);
+        }
+        JsonSaveStore.applyJournaledStates(states);
+        try {
+            journalBytesEstimate = Files.size(journalPath);
+        } catch (IOException e) {
+            journalBytesEstimate = 0;
+        }
+        println("Recovered " + states.size() + " unsaved changes from the change journal");
+    }
+
+    /**
+     * Moves the journal left behind by a run that did not exit gracefully out of the way without replaying it,
+     * meant to run once on startup instead of recoverUnsavedChangesIfAny() when the latest save was not loaded.
+     * The journal is kept next to the saves with a ".skipped" suffix, renaming it back recovers it on the next startup.
+     */
+    public static void skipUnsavedChangesIfAny() {
+        if (!journalEnabled) {
+            return;
+        }
+        Path journalPath = getJournalPath();
+        if (!Files.exists(journalPath)) {
+            return;
+        }
+        Path skippedPath = journalPath.resolveSibling(JOURNAL_FILE_NAME + SKIPPED_SUFFIX);
+        try {
+            Files.move(journalPath, skippedPath, StandardCopyOption.REPLACE_EXISTING);
+            println("Did not recover the change journal because the latest save was not loaded, it was moved to: " + skippedPath);
+        } catch (IOException e) {
+            println("Could not move the change journal out of the way: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Deletes the journal once everything in it is covered by a save, meant to run at a graceful exit after the autosave got written.
+     * @param timeoutMillis how long to wait at most for the journal thread to finish the queued changes first
+     */
+    static void deleteAfterQueuedChanges(long timeoutMillis) {
+        if (journalThread != null) {
+            long deadline = System.currentTimeMillis() + timeoutMillis;
+            while (!queue.isEmpty() && System.currentTimeMillis() < deadline) {
+                try {
+                    Thread.sleep(5);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+        synchronized (ChangeJournal.class) {
+            closed = true;
+            try {
+                Files.deleteIfExists(getJournalPath());
+            } catch (IOException e) {
+                println("Could not delete the change journal: " + e.getMessage());
+            }
+        }
+    }
+
+    private static void lazyStartJournalThread() {
+        if (journalThread != null) {
+            return;
+        }
+        journalThread = new Thread(ChangeJournal::writeJournalForever, "LazyGui change journal");
+        journalThread.setDaemon(true);
+        journalThread.start();
+    }
+
+    private static void writeJournalForever() {
+        List<JournalTask> batch = new ArrayList<>();
+        //noinspection InfiniteLoopStatement
+        while (true) {
+            try {
+                batch.add(queue.take());
+            } catch (InterruptedException e) {
+                continue;
+            }
+            queue.drainTo(batch);
+            // the lock keeps a graceful exit from deleting the journal in the middle of a batch
+            synchronized (ChangeJournal.class) {
+                if (!closed) {
+                    writeBatch(batch);
+                }
+            }
+            batch.clear();
+        }
+    }
+
+    private static void writeBatch(List<JournalTask> batch) {
+        Path journalPath = getJournalPath();
+        Writer writer = null;
+        try {
+            for (JournalTask task : batch) {
+                if (task.compactionSnapshot != null) {
+                    if (writer != null) {
+                        writer.close();
+                        writer = null;
+                    }
+                    compact(journalPath, task);
+                    continue;
+                }
+                if (writer == null) {
+                    Files.createDirectories(journalPath.toAbsolutePath().getParent());
+                    writer = new BufferedWriter(new OutputStreamWriter(
+                            new FileOutputStream(journalPath.toFile(), true), StandardCharsets.UTF_8));
+                }
+                for (String state : task.states) {
+                    writer.write(state);
+                    writer.write('\n');
+                }
+            }
+            if (writer != null) {
+                writer.close();
+            }
+        } catch (IOException e) {
+            println("Could not write to the change journal: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Writes the snapshot as an autosave first and only then replaces the journal with one naming it as the base,
+     * so a crash at any point leaves either the old journal or the new autosave with its fresh journal.
+     */
+    private static void compact(Path journalPath, JournalTask task) throws IOException {
+        try {
+            Path savePath = Paths.get(task.compactionSavePath);
+            AsyncSaveWriter.writeAtomically(savePath, task.compactionSnapshot.encode(), true);
+            SaveCatalog.rescan();
+            String baseLine = BASE_LINE_PREFIX + savePath.getFileName() + "\n";
+            AsyncSaveWriter.writeAtomically(journalPath, baseLine.getBytes(StandardCharsets.UTF_8), true);
+            println("Compacted the change journal into a new autosave: " + savePath);
+        } finally {
+            compactionQueued = false;
+        }
+    }
+
+    private static Path getJournalPath() {
+        return Paths.get(JsonSaveStore.getGuiDataFolderPath(JOURNAL_FILE_NAME));
+    }
+}
@@ -0,0 +1,69 @@
+package com.krab.lazy.stores;
+
+import com.krab.lazy.ValueChangeListener;
+import com.krab.lazy.nodes.AbstractNode;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Hands out change versions from a single monotonically increasing counter and keeps the value change listeners.
+ * Every value change gets a version higher than all the previous ones,
+ * so comparing a node's change version against a remembered one tells whether anything changed in between.
+ * Listeners are keyed by the full path they were registered at and also hear about changes anywhere below that path.
+ * @see AbstractNode#getChangeVersion()
+ */
+public class ChangeStore {
+    private static long lastVersion = 0;
+    private static final Map<String, List<ValueChangeListener>> listenersByPath = new HashMap<>();
+
+    private ChangeStore() {
+
+    }
+
+    public static long nextVersion() {
+        return ++lastVersion;
+    }
+
+    public static long getLastVersion() {
+        return lastVersion;
+    }
+
+    public static void addListener(String path, ValueChangeListener listener) {
+        listenersByPath.computeIfAbsent(path, k -> new ArrayList<>()).add(listener);
+    }
+
+    public static void removeListener(String path, ValueChangeListener listener) {
+        List<ValueChangeListener> listeners = listenersByPath.get(path);
+        if (listeners == null) {
+            return;
+        }
+        listeners.remove(listener);
+        if (listeners.isEmpty()) {
+            listenersByPath.remove(path);
+        }
+    }
+
+    /**
+     * Notifies the listeners registered at the changed node's path and at the paths of all its parent folders.
+     * Nodes that are not in the tree yet (still loading their saved state in their constructor) notify nobody,
+     * so a listener can never see a node it would not be able to find by its path.
+     * @param changedNode the node whose value just changed
+     */
+    public static void notifyListeners(AbstractNode changedNode) {
+        if (listenersByPath.isEmpty() || NodeTree.findNode(changedNode.path) != changedNode) {
+            return;
+        }
+        for (AbstractNode node = changedNode; node != null; node = node.parent) {
+            List<ValueChangeListener> listeners = listenersByPath.get(node.path);
+            if (listeners == null) {
+                continue;
+            }
+            for (ValueChangeListener listener : listeners.toArray(new ValueChangeListener[0])) {
+                listener.onValueChanged(changedNode.path);
+            }
+        }
+    }
+}
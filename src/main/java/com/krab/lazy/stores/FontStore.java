@@ -68,6 +68,9 @@ public class FontStore {
         boolean sideSizeChanged = lastSideFontSize != _sideFontSize;
         lastMainFontSize = _mainFontSize;
         lastSideFontSize = _sideFontSize;
+        if(mainSizeChanged || mainFontPathChanged || sideSizeChanged || sideFontPathChanged){
+            TextFitCache.clear();
+        }
         if(mainSizeChanged || mainFontPathChanged){
             lastMainFontPath = _mainFontPath;
             try {
@@ -99,29 +102,19 @@ public class FontStore {
         }
     }
 
+    /**
+     * Finds the longest start of the text that is narrower than the available width with the current font of the graphics.
+     * @see TextFitCache
+     */
     public static String getSubstringFromStartToFit(PGraphics pg, String text, float availableWidth) {
-        StringBuilder result = new StringBuilder();
-        for (int i = 0; i < text.length(); i++) {
-            char character = text.charAt(i);
-            float textWidthAfterNewChar = pg.textWidth(result.toString() + character);
-            if (textWidthAfterNewChar >= availableWidth) {
-                break;
-            }
-            result.append(character);
-        }
-        return result.toString();
+        return TextFitCache.getSubstringFromStartToFit(pg, text, availableWidth);
     }
 
+    /**
+     * Finds the longest end of the text that is narrower than the available width with the current font of the graphics.
+     * @see TextFitCache
+     */
     public static String getSubstringFromEndToFit(PGraphics pg, String text, float availableWidth){
-        StringBuilder result = new StringBuilder();
-        for (int i = text.length() - 1; i >= 0; i--) {
-            char character = text.charAt(i);
-            float textWidthAfterNewChar = pg.textWidth(result.toString() + character);
-            if (textWidthAfterNewChar >= availableWidth) {
-                break;
-            }
-            result.insert(0, character);
-        }
-        return result.toString();
+        return TextFitCache.getSubstringFromEndToFit(pg, text, availableWidth);
     }
 }
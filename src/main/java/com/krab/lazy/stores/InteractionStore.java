@@ -0,0 +1,111 @@
+package com.krab.lazy.stores;
+
+import com.krab.lazy.nodes.AbstractNode;
+
+import java.util.ArrayList;
+
+/**
+ * Keeps track of the single hovered node and the single node being dragged by the mouse.
+ * Only the nodes whose isMouseOverNode flag was set through this store are ever reset,
+ * so changing the hover costs the same no matter how many nodes there are in the tree.
+ * Nodes can declare other nodes to be highlighted along with them by overriding AbstractNode.collectLinkedHoverTargets().
+ */
+public class InteractionStore {
+    private static AbstractNode hoveredNode = null;
+    private static AbstractNode draggedNode = null;
+    private static final ArrayList<AbstractNode> flaggedNodes = new ArrayList<>();
+    private static final ArrayList<AbstractNode> linkedTargetsBuffer = new ArrayList<>();
+
+    private InteractionStore() {
+
+    }
+
+    /**
+     * Sets the node under the mouse, resetting the mouse over flags of the previously hovered node and its linked targets.
+     * @param node node to hover or null when the mouse is not over any node
+     */
+    public static void setHovered(AbstractNode node) {
+        if (node == hoveredNode) {
+            return;
+        }
+        clearFlags();
+        hoveredNode = node;
+        flagHoveredNodeAndItsLinkedTargets();
+    }
+
+    public static AbstractNode getHovered() {
+        return hoveredNode;
+    }
+
+    /**
+     * Marks a node as moused over in addition to the currently hovered node until the hover changes,
+     * for example when a press or a drag on one node gets forwarded to another one.
+     * @param node node to flag as moused over
+     */
+    public static void addToHover(AbstractNode node) {
+        if (hoveredNode == null) {
+            hoveredNode = node;
+        }
+        flag(node);
+    }
+
+    /**
+     * Asks the hovered node for its linked hover targets again, meant to be called by a node whose linked targets have just changed.
+     * @param node the node whose linked targets changed, nothing happens when it is not the hovered node
+     */
+    public static void refreshLinkedHoverTargets(AbstractNode node) {
+        if (node != hoveredNode) {
+            return;
+        }
+        clearFlags();
+        flagHoveredNodeAndItsLinkedTargets();
+    }
+
+    public static void setDragged(AbstractNode node) {
+        draggedNode = node;
+    }
+
+    /**
+     * Gets the node that the current mouse drag started on.
+     * @return the dragged node or null when no node is being dragged
+     */
+    public static AbstractNode getDragged() {
+        if (draggedNode != null && !draggedNode.isInlineNodeDragged) {
+            draggedNode = null;
+        }
+        return draggedNode;
+    }
+
+    public static void clearDraggedIf(AbstractNode node) {
+        if (draggedNode == node) {
+            draggedNode = null;
+        }
+    }
+
+    private static void flagHoveredNodeAndItsLinkedTargets() {
+        if (hoveredNode == null) {
+            return;
+        }
+        flag(hoveredNode);
+        linkedTargetsBuffer.clear();
+        hoveredNode.collectLinkedHoverTargets(linkedTargetsBuffer);
+        for (int i = 0; i < linkedTargetsBuffer.size(); i++) {
+            flag(linkedTargetsBuffer.get(i));
+        }
+        linkedTargetsBuffer.clear();
+    }
+
+    private static void flag(AbstractNode node) {
+        node.isMouseOverNode = true;
+        if (!flaggedNodes.contains(node)) {
+            flaggedNodes.add(node);
+        }
+    }
+
+    private static void clearFlags() {
+        for (int i = 0; i < flaggedNodes.size(); i++) {
+            flaggedNodes.get(i).isMouseOverNode = false;
+        }
+        flaggedNodes.clear();
+    }
+}
@@ -1,51 +1,198 @@
 package com.krab.lazy.stores;
 
-import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
-import com.google.gson.JsonArray;
-import com.google.gson.JsonElement;
 import com.krab.lazy.nodes.FolderNode;
 import com.krab.lazy.nodes.NodeType;
 import com.krab.lazy.nodes.AbstractNode;
+import com.krab.lazy.utils.NodePaths;
 
-import java.io.BufferedWriter;
+import java.io.BufferedInputStream;
 import java.io.File;
-import java.io.FileWriter;
+import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
-import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.text.SimpleDateFormat;
 import java.util.*;
+import java.util.regex.Pattern;
 
 import static processing.core.PApplet.max;
 import static processing.core.PApplet.println;
 
 public class JsonSaveStore {
     private final static String JSON_TYPE_EXTENSION = ".json";
+    private final static String AUTOSAVE_NAME = "auto";
+    private final static String AUTOSAVE_TIMESTAMP_SEPARATOR = "_";
+    private final static String AUTOSAVE_TIMESTAMP_PATTERN = "yyyy-MM-dd_HH-mm-ss";
+    // exactly the names createAutosaveName() generates with any of the save file extensions, so that retention never deletes manual saves
+    private final static Pattern AUTOSAVE_FILE_NAME_PATTERN = Pattern.compile(
+            Pattern.quote(AUTOSAVE_NAME + AUTOSAVE_TIMESTAMP_SEPARATOR) + "\\d{4}-\\d{2}-\\d{2}_\\d{2}-\\d{2}-\\d{2}(" +
+                    Pattern.quote(JSON_TYPE_EXTENSION) + "|" +
+                    Pattern.quote(SaveHistoryStore.MANIFEST_EXTENSION) + "|" +
+                    Pattern.quote(BinarySaveFormat.BINARY_EXTENSION) + "|" +
+                    Pattern.quote(ShardedSaveFormat.SHARDED_EXTENSION) + "|" +
+                    Pattern.quote(LazyFolderStateStore.LAZY_EXTENSION) + ")");
     public static boolean autosaveOnExitEnabled = true;
     public static boolean autosaveLockGuardEnabled = true;
     public static boolean shouldLoadLatestSaveOnStartupByDefault = true;
+    public static boolean compactSaveFilesEnabled = false;
+    public static boolean autosaveHistoryEnabled = true;
+    public static boolean binarySaveFilesEnabled = false;
+    public static boolean binarySaveCompressionEnabled = true;
+    public static boolean shardedSaveFilesEnabled = false;
+    public static boolean lazyFolderSavesEnabled = false;
     public static long autosaveLockGuardMillisLimit = 1000;
     private static long lastFrameMillisForLockGuard;
-    private static final Map<String, JsonElement> lastLoadedStateMap = new HashMap<>();
+    // states of loaded nodes that did not exist yet at load time, each one is removed once its node is created and indexed
+    private static final Map<String, LoadedNodeState> pendingStates = new HashMap<>();
     private static File saveDir;
-    private static ArrayList<File> saveFilesSorted;
-    private static final Gson gson = new GsonBuilder().excludeFieldsWithoutExposeAnnotation().setPrettyPrinting().create();
+    private static final long exitFlushTimeoutMillis = 10000;
 
     public static void registerExitHandler() {
-        Runtime.getRuntime().addShutdownHook(new Thread(JsonSaveStore::createNewAutosave));
+        Runtime.getRuntime().addShutdownHook(new Thread(JsonSaveStore::createNewAutosaveAndWaitForWriter));
     }
 
-    static void createNewAutosave() {
+    private static void createNewAutosaveAndWaitForWriter() {
+        boolean exitHandled = createNewAutosave();
+        if (!AsyncSaveWriter.flush(exitFlushTimeoutMillis)) {
+            println("Gave up waiting for the saves to finish writing after " + exitFlushTimeoutMillis + " ms");
+        } else if (exitHandled) {
+            // the journal is only needed to recover from exits that did not get to save
+            ChangeJournal.deleteAfterQueuedChanges(exitFlushTimeoutMillis);
+        }
+    }
+
+    /**
+     * @return false when the lock guard prevented the autosave, true when it got queued, was not needed or is disabled
+     */
+    static boolean createNewAutosave() {
         if (!autosaveOnExitEnabled) {
-            return;
+            return true;
         }
         if (autosaveLockGuardEnabled && isSketchStuckInEndlessLoop()) {
             println("Autosave lock guard prevented the autosave, because the last frame took more than " + autosaveLockGuardMillisLimit + " ms," +
                     " which looks like the program stopped due to an exception or reached an endless loop");
+            return false;
+        }
+        String autosaveName = createAutosaveName();
+        // the history only keeps the live tree, a lazy save also keeps the folders this run never created
+        if (autosaveHistoryEnabled && !lazyFolderSavesEnabled) {
+            createNewHistorySaveInGuiFolder(autosaveName);
+        } else {
+            JsonSaveStore.createNewSaveInGuiFolder(autosaveName);
+        }
+        return true;
+    }
+
+    private static String createAutosaveName() {
+        String timestamp = new SimpleDateFormat(AUTOSAVE_TIMESTAMP_PATTERN).format(new Date());
+        return AUTOSAVE_NAME + AUTOSAVE_TIMESTAMP_SEPARATOR + timestamp;
+    }
+
+    /**
+     * @return absolute path for a new full autosave in the save folder, with the file type chosen by binarySaveFilesEnabled
+     */
+    static String getNewAutosavePath() {
+        lazyInitSaveDir();
+        return Paths.get(saveDir.getAbsolutePath(), appendSaveFileTypeIfNeeded(createAutosaveName())).toString();
+    }
+
+    /**
+     * Saves into the deduplicated SaveHistoryStore, skipping the save entirely when the newest save of any kind is a history save
+     * of this same state and no other save is still waiting to be written, so the save loaded on the next startup always holds this state.
+     * @param fileName name of the manifest without its extension
+     */
+    private static void createNewHistorySaveInGuiFolder(String fileName) {
+        lazyInitSaveDir();
+        String rootHash;
+        try {
+            rootHash = SaveHistoryStore.writeBlobs(NodeTree.getRoot(), saveDir);
+        } catch (IOException e) {
+            println("Could not write to the save history, saving as json instead: " + e.getMessage());
+            createNewSaveInGuiFolder(fileName);
+            return;
+        }
+        File latestSave = findLatestSave();
+        if (latestSave != null && isHistorySave(latestSave) && isManifestOf(latestSave, rootHash) && !AsyncSaveWriter.hasPendingSaves()) {
+            println("Skipped autosave, nothing changed since " + latestSave.getName());
             return;
         }
-        JsonSaveStore.createNewSaveInGuiFolder("auto");
+        String fullSavePath = Paths.get(saveDir.getAbsolutePath(), fileName + SaveHistoryStore.MANIFEST_EXTENSION).toString();
+        AsyncSaveWriter.enqueue(fullSavePath, SaveHistoryStore.createManifest(rootHash));
+    }
+
+    private static File findLatestSave() {
+        List<File> saveFiles = getSaveFileList();
+        return saveFiles.isEmpty() ? null : saveFiles.get(0);
+    }
+
+    private static boolean isManifestOf(File manifest, String rootHash) {
+        try {
+            return SaveHistoryStore.readRootHash(manifest).equals(rootHash);
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Autosaves are named "auto_" followed by the time they were made in the yyyy-MM-dd_HH-mm-ss format and a save file extension,
+     * the single "auto.json" of older versions counts as one too. Any other name starting with "auto_" is a manual save.
+     * @param file save file
+     * @return whether the file is an autosave rather than a manual save
+     */
+    public static boolean isAutosave(File file) {
+        String name = file.getName();
+        return name.equals(AUTOSAVE_NAME + JSON_TYPE_EXTENSION) || AUTOSAVE_FILE_NAME_PATTERN.matcher(name).matches();
+    }
+
+    private static boolean isHistorySave(File file) {
+        return file.getName().endsWith(SaveHistoryStore.MANIFEST_EXTENSION);
+    }
+
+    private static boolean isBinarySave(File file) {
+        return file.getName().endsWith(BinarySaveFormat.BINARY_EXTENSION);
+    }
+
+    private static boolean isLazyFolderSave(File file) {
+        return file.getName().endsWith(LazyFolderStateStore.LAZY_EXTENSION);
+    }
+
+    private static boolean isShardedSave(File file) {
+        return file.getName().endsWith(ShardedSaveFormat.SHARDED_EXTENSION);
+    }
+
+    /**
+     * @param name file name or path
+     * @return whether it ends with the extension of a save holding the whole tree, which is anything but a save history manifest
+     */
+    private static boolean hasFullSaveExtension(String name) {
+        return name.endsWith(JSON_TYPE_EXTENSION) ||
+                name.endsWith(BinarySaveFormat.BINARY_EXTENSION) ||
+                name.endsWith(ShardedSaveFormat.SHARDED_EXTENSION) ||
+                name.endsWith(LazyFolderStateStore.LAZY_EXTENSION);
+    }
+
+    /**
+     * Deletes the autosaves that AutosaveRetention does not keep, meant to run once on startup before loading the latest save.
+     * Then deletes the save history blobs that the remaining history saves no longer need.
+     */
+    public static void deleteExpiredAutosaves() {
+        int deletedCount = AutosaveRetention.deleteExpiredAutosaves(getSaveFileList(), JsonSaveStore::isAutosave);
+        if (deletedCount > 0) {
+            SaveCatalog.rescan();
+            println("Deleted " + deletedCount + " old autosaves");
+            List<File> manifests = new ArrayList<>();
+            for (File saveFile : getSaveFileList()) {
+                if (isHistorySave(saveFile)) {
+                    manifests.add(saveFile);
+                }
+            }
+            SaveHistoryStore.deleteUnreferencedBlobs(saveDir, manifests);
+            LazyFolderStateStore.deleteOrphanedFolderDirs(saveDir);
+        }
     }
 
     public static void updateEndlessLoopDetection() {
@@ -58,8 +205,13 @@ public class JsonSaveStore {
     }
 
     private static void lazyInitSaveDir() {
+        if (saveDir != null) {
+            return;
+        }
         saveDir = new File(getGuiDataFolderPath("saves"));
         lazyInitDir(saveDir);
+        SaveCatalog.watch(saveDir, JSON_TYPE_EXTENSION, SaveHistoryStore.MANIFEST_EXTENSION,
+                BinarySaveFormat.BINARY_EXTENSION, ShardedSaveFormat.SHARDED_EXTENSION, LazyFolderStateStore.LAZY_EXTENSION);
     }
 
     private static void lazyInitDir(File dir) {
@@ -81,92 +233,108 @@ public class JsonSaveStore {
     }
 
     public static void createNextSaveInGuiFolder() {
+        lazyInitSaveDir();
         String nextName = getNextUnusedIntegerFileNameInFolder(saveDir);
         createNewSaveInGuiFolder(nextName);
     }
 
     public static void createNewSaveInGuiFolder(String fileName) {
+        lazyInitSaveDir();
         // save main json
-        String fullSavePath = getFullFilePathWithJsonFileType(fileName);
+        String fullSavePath = Paths.get(saveDir.getAbsolutePath(), appendSaveFileTypeIfNeeded(fileName)).toString();
         createNewSaveAtAbsolutePath(fullSavePath);
     }
 
     public static void createNewSaveAtAbsolutePath(String fileName) {
-        String fileNameWithType = String.valueOf(Paths.get(appendJsonFileTypeIfNeeded(fileName)));
-        overwriteFile(fileNameWithType, getTreeAsJsonString());
+        String fileNameWithType = String.valueOf(Paths.get(appendSaveFileTypeIfNeeded(fileName)));
+        AsyncSaveWriter.enqueue(fileNameWithType, captureCurrentState(fileNameWithType));
     }
 
-    public static void loadLatestSave() {
-        reloadSaveFolderContents();
-        if (!saveFilesSorted.isEmpty()) {
-            loadStateFromFile(saveFilesSorted.get(0));
+    /**
+     * Copies the values of the whole tree right away and leaves encoding them to the returned encoder,
+     * which can then run on another thread while the sketch keeps changing the live tree.
+     * @param fileNameWithType path of the save file, its extension decides between lazy, sharded, binary and json
+     * @return encoder of the copied tree into the contents of that file, with the save settings of the moment it was captured
+     */
+    static AsyncSaveWriter.SaveEncoder captureCurrentState(String fileNameWithType) {
+        File file = new File(fileNameWithType);
+        LoadedNodeState state = LoadedNodeState.capture(NodeTree.getRoot(), true);
+        if (isLazyFolderSave(file)) {
+            return LazyFolderStateStore.captureLazySave(state, file);
+        }
+        if (isShardedSave(file)) {
+            return () -> ShardedSaveFormat.encode(state);
         }
+        if (isBinarySave(file)) {
+            boolean compressed = binarySaveCompressionEnabled;
+            return () -> BinarySaveFormat.encode(state, compressed);
+        }
+        boolean pretty = !compactSaveFilesEnabled;
+        return () -> NodeTreeJsonWriter.toJsonBytes(state, pretty);
     }
 
-    private static void reloadSaveFolderContents() {
-        lazyInitSaveDir();
-        File[] saveFiles = saveDir.listFiles();
-        assert saveFiles != null;
-        saveFilesSorted = new ArrayList<>(Arrays.asList(saveFiles));
-        saveFilesSorted.removeIf(file -> !file.isFile() || !file.getAbsolutePath().contains(JSON_TYPE_EXTENSION));
-        if (saveFilesSorted.size() == 0) {
-            return;
+    public static void loadLatestSave() {
+        List<File> saveFiles = getSaveFileList();
+        if (!saveFiles.isEmpty()) {
+            loadStateFromFile(saveFiles.get(0));
         }
-        saveFilesSorted.sort((o1, o2) -> Long.compare(o2.lastModified(), o1.lastModified()));
     }
 
-    private static String readFile(File file) throws IOException {
-        List<String> lines = Files.readAllLines(file.toPath());
-        StringBuilder sb = new StringBuilder();
-        for (String line : lines) {
-            sb.append(line);
-        }
-        return sb.toString();
+    /**
+     * @return unmodifiable list of the save files with the newest first, kept up to date by the SaveCatalog
+     */
+    public static List<File> getSaveFileList() {
+        lazyInitSaveDir();
+        return SaveCatalog.getSavesNewestFirst();
     }
 
-    static void overwriteFile(String fullPath, String content) {
-        Path path = Paths.get(fullPath);
-        lazyInitDir(path.getParent().toFile());
-        BufferedWriter writer;
+    public static void loadStateFromFilePath(String filename) {
+        File saveFile = findSaveFile(filename);
         try {
-            writer = new BufferedWriter(new FileWriter(fullPath, false));
-            writer.write(content);
-            writer.close();
-            println("Created new save: " + fullPath);
-        } catch (IOException e) {
-            e.printStackTrace();
+            loadStateFromFile(saveFile);
+        } catch (Exception ex) {
+            println(ex, ex.getMessage());
         }
     }
 
-    public static ArrayList<File> getSaveFileList() {
-        reloadSaveFolderContents();
-        return saveFilesSorted;
-    }
-
-    public static void loadStateFromFilePath(String filename) {
-        filename = appendJsonFileTypeIfNeeded(filename);
+    /**
+     * Finds a save file by its name inside the save folder or by its absolute path.
+     * @param filename name of the save with or without its file type extension, or an absolute path
+     * @return the matching save file inside the save folder, or the file at the given path when there is none
+     */
+    private static File findSaveFile(String filename) {
+        List<File> saveFilesSorted = getSaveFileList();
+        String jsonFilename = appendJsonFileTypeIfNeeded(filename);
         // first try to find the strictest match inside the save folder
         for (File saveFile : saveFilesSorted) {
-            if (saveFile.getName().equals(filename) || saveFile.getName().equals(filename + JSON_TYPE_EXTENSION)) {
-                loadStateFromFile(saveFile);
-                return;
+            String name = saveFile.getName();
+            if (name.equals(filename) || name.equals(jsonFilename) || name.equals(filename + SaveHistoryStore.MANIFEST_EXTENSION) ||
+                    name.equals(filename + BinarySaveFormat.BINARY_EXTENSION) ||
+                    name.equals(filename + ShardedSaveFormat.SHARDED_EXTENSION) ||
+                    name.equals(filename + LazyFolderStateStore.LAZY_EXTENSION)) {
+                return saveFile;
             }
         }
 
         // then relax and allow filenames like 'auto' without the '.json' suffix (still inside the save folder)
         for (File saveFile : saveFilesSorted) {
-            if (saveFile.getName().startsWith(filename)) {
-                loadStateFromFile(saveFile);
-                return;
+            if (saveFile.getName().startsWith(jsonFilename)) {
+                return saveFile;
             }
         }
 
-        // if all else fails this may be an absolute path anywhere on disk, we need an exact match there
-        try {
-            loadStateFromFile(new File(filename));
-        } catch (Exception ex) {
-            println(ex, ex.getMessage());
+        // 'auto' stands for the latest autosave
+        if (jsonFilename.equals(AUTOSAVE_NAME + JSON_TYPE_EXTENSION)) {
+            for (File saveFile : saveFilesSorted) {
+                if (isAutosave(saveFile)) {
+                    return saveFile;
+                }
+            }
         }
+
+        // if all else fails this may be an absolute path anywhere on disk, we need an exact match there
+        File file = new File(filename);
+        return new File(isHistorySave(file) || hasFullSaveExtension(filename) ? filename : jsonFilename);
     }
 
     static void loadStateFromFile(File file) {
@@ -174,29 +342,148 @@ public class JsonSaveStore {
             println("Error: save file doesn't exist at \"" + file.getAbsolutePath() + "\"");
             return;
         }
-        String json;
+        if (isLazyFolderSave(file)) {
+            try {
+                LazyFolderStateStore.load(file);
+            } catch (IOException | RuntimeException e) {
+                println("Error loading state from file: ", e.getMessage());
+                return;
+            }
+            println("Loaded gui state from: " + file.getPath() + ", " + LazyFolderStateStore.getUnloadedFolderCount() + " folders will load on first use");
+            return;
+        }
+        LoadedNodeState root;
         try {
-            json = readFile(file);
-        } catch (IOException e) {
+            root = readSaveFile(file);
+        } catch (IOException | RuntimeException e) {
             println("Error loading state from file: ", e.getMessage());
             return;
         }
-        JsonElement root = getJsonElementFromString(json);
-        loadStateFromJsonElement(root, null);
+        LazyFolderStateStore.forgetUnloadedFolders();
+        loadState(root, null);
         println("Loaded gui state from: " + file.getPath());
     }
 
+    /**
+     * Finds and reads a save without applying it to the GUI.
+     * @param filename name of the save inside the save folder or its absolute path, found the same way as by loadStateFromFilePath()
+     * @return root of the saved tree
+     * @throws IOException when there is no such save or it cannot be read
+     */
+    static LoadedNodeState readSave(String filename) throws IOException {
+        File saveFile = findSaveFile(filename);
+        if (!saveFile.exists()) {
+            throw new FileNotFoundException("Save file doesn't exist at \"" + saveFile.getAbsolutePath() + "\"");
+        }
+        return readSaveFile(saveFile);
+    }
+
+    /**
+     * Reads any kind of save file, telling binary and sharded saves apart from json by their first bytes rather than by their extension.
+     * @param file save file
+     * @return root of the saved tree
+     * @throws IOException when the file cannot be read
+     */
+    private static LoadedNodeState readSaveFile(File file) throws IOException {
+        if (isHistorySave(file)) {
+            return SaveHistoryStore.read(file);
+        }
+        if (isLazyFolderSave(file)) {
+            return LazyFolderStateStore.readFully(file);
+        }
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(file.toPath()))) {
+            int headerLength = Math.max(BinarySaveFormat.getMagicLength(), ShardedSaveFormat.getHeaderLength());
+            in.mark(headerLength);
+            byte[] header = new byte[headerLength];
+            int headerBytesRead = 0;
+            int read;
+            while (headerBytesRead < headerLength && (read = in.read(header, headerBytesRead, headerLength - headerBytesRead)) > 0) {
+                headerBytesRead += read;
+            }
+            in.reset();
+            header = Arrays.copyOf(header, headerBytesRead);
+            if (BinarySaveFormat.hasMagic(header)) {
+                return BinarySaveFormat.decode(in);
+            }
+            if (ShardedSaveFormat.hasHeader(header)) {
+                // the shards are parsed in parallel straight from one byte array
+                return ShardedSaveFormat.decode(Files.readAllBytes(file.toPath()));
+            }
+            Reader reader = new InputStreamReader(in, StandardCharsets.UTF_8);
+            return NodeStateJsonReader.read(reader);
+        }
+    }
+
+    /**
+     * Writes any save, including the ones kept in the deduplicated save history, out as a standalone json save file.
+     * @param filename name of the existing save inside the save folder or its absolute path
+     * @param targetPath name of the new json file inside the save folder or its absolute path
+     */
+    public static void exportSaveAsJson(String filename, String targetPath) {
+        File saveFile = findSaveFile(filename);
+        if (!saveFile.exists()) {
+            println("Error: save file doesn't exist at \"" + saveFile.getAbsolutePath() + "\"");
+            return;
+        }
+        LoadedNodeState root;
+        try {
+            root = readSaveFile(saveFile);
+        } catch (IOException | RuntimeException e) {
+            println("Error exporting save as json: ", e.getMessage());
+            return;
+        }
+        String fullTargetPath = Paths.get(targetPath).isAbsolute() ?
+                appendJsonFileTypeIfNeeded(targetPath) :
+                getFullFilePathWithJsonFileType(targetPath);
+        AsyncSaveWriter.enqueue(fullTargetPath, NodeTreeJsonWriter.toJsonBytes(root, !compactSaveFilesEnabled));
+    }
+
+    /**
+     * Writes any save out as a standalone binary save file, the binary counterpart of exportSaveAsJson().
+     * @param filename name of the existing save inside the save folder or its absolute path
+     * @param targetPath name of the new binary file inside the save folder or its absolute path
+     */
+    public static void exportSaveAsBinary(String filename, String targetPath) {
+        File saveFile = findSaveFile(filename);
+        if (!saveFile.exists()) {
+            println("Error: save file doesn't exist at \"" + saveFile.getAbsolutePath() + "\"");
+            return;
+        }
+        LoadedNodeState root;
+        try {
+            root = readSaveFile(saveFile);
+        } catch (IOException | RuntimeException e) {
+            println("Error exporting save as binary: ", e.getMessage());
+            return;
+        }
+        String targetWithType = targetPath.endsWith(BinarySaveFormat.BINARY_EXTENSION) ?
+                targetPath : targetPath + BinarySaveFormat.BINARY_EXTENSION;
+        String fullTargetPath = Paths.get(targetWithType).isAbsolute() ?
+                targetWithType :
+                Paths.get(saveDir.getAbsolutePath(), targetWithType).toString();
+        AsyncSaveWriter.enqueue(fullTargetPath, BinarySaveFormat.encode(root, binarySaveCompressionEnabled));
+    }
+
 
     public static String getTreeAsJsonString() {
-        return gson.toJson(NodeTree.getRoot());
+        return NodeTreeJsonWriter.toJsonString(NodeTree.getRoot(), true);
     }
 
     public static String getFolderAsJsonString(FolderNode folder) {
-        return gson.toJson(folder);
+        return NodeTreeJsonWriter.toJsonString(folder, true);
     }
 
-    public static JsonElement getJsonElementFromString(String json) {
-        return gson.fromJson(json, JsonElement.class);
+    /**
+     * Parses the json of a single node as written by NodeTreeJsonWriter.toNodeStateJsonString().
+     * @param json json of one node
+     * @return typed state of the node
+     */
+    public static LoadedNodeState getNodeStateFromString(String json) {
+        try {
+            return NodeStateJsonReader.read(json);
+        } catch (IOException e) {
+            throw new IllegalStateException("Reading node state from json failed", e);
+        }
     }
 
     public static void loadStateFromJsonString(String json) {
@@ -204,68 +491,171 @@ public class JsonSaveStore {
     }
 
     public static void loadStateFromJsonString(String json, String path) {
-        loadStateFromJsonElement(gson.fromJson(json, JsonElement.class), path);
+        LoadedNodeState root;
+        try {
+            root = NodeStateJsonReader.read(json);
+        } catch (IOException | RuntimeException ex) {
+            println("Loading gui state from json failed with: " + ex.getClass().getSimpleName());
+            return;
+        }
+        loadState(root, path);
     }
 
-    static void loadStateFromJsonElement(JsonElement root, String outputRootPath) {
-        lastLoadedStateMap.clear();
-        Queue<JsonElement> queue = new LinkedList<>();
-        queue.offer(root);
+    /**
+     * Applies the loaded states to the nodes that already exist and keeps the rest as pending until their nodes get created.
+     * Walks the loaded tree together with the live tree in one pass, matching the loaded children to the live children by name,
+     * so no node is looked up by its full path and no path is rewritten unless it belongs to a node that does not exist yet.
+     * The children of each record are released as soon as they are queued, so the pending map ends up holding
+     * just the flat records of the nodes that are still missing.
+     * @param root loaded state tree
+     * @param outputRootPath path to move the loaded tree to when pasting a folder, null to keep the loaded paths
+     */
+    static void loadState(LoadedNodeState root, String outputRootPath) {
+        pendingStates.clear();
+        applyLoadedState(root, outputRootPath);
+    }
+
+    /**
+     * Applies a loaded subtree like loadState() does, but keeps the pending states of everything else that was loaded before.
+     * @param root loaded state subtree at its own path
+     */
+    static void applyLoadedState(LoadedNodeState root) {
+        applyLoadedState(root, null);
+    }
+
+    private static void applyLoadedState(LoadedNodeState root, String outputRootPath) {
+        boolean isPaste = outputRootPath != null;
+        // the two queues advance together, a null node means the loaded state has no live counterpart yet
+        Queue<LoadedNodeState> loadedQueue = new LinkedList<>();
+        Queue<AbstractNode> liveQueue = new LinkedList<>();
+        loadedQueue.offer(root);
+        liveQueue.offer(NodeTree.findNode(isPaste ? outputRootPath : root.path));
+        if (isPaste && liveQueue.peek() == null) {
+            root.path = outputRootPath;
+        }
         try {
-            String inputRootPath = root.getAsJsonObject().get("path").getAsString();
-            while (!queue.isEmpty()) {
-                JsonElement loadedNode = queue.poll();
-                String loadedPath = loadedNode.getAsJsonObject().get("path").getAsString();
-                if (outputRootPath != null) {
-                    // used for copy/pasting sub-folders and not the entire tree
-                    loadedPath = loadedPath.replace(inputRootPath, outputRootPath);
+            while (!loadedQueue.isEmpty()) {
+                LoadedNodeState loadedNode = loadedQueue.poll();
+                AbstractNode liveNode = liveQueue.poll();
+                if (liveNode != null) {
+                    liveNode.overwriteState(loadedNode);
+                } else {
+                    pendingStates.put(loadedNode.path, loadedNode);
                 }
-                AbstractNode nodeToEdit = NodeTree.findNode(loadedPath);
-                if (nodeToEdit != null) {
-                    overwriteWithLoadedStateIfAny(nodeToEdit, loadedNode);
+                if (loadedNode.children == null) {
+                    continue;
                 }
-                lastLoadedStateMap.put(loadedPath, loadedNode);
-                String loadedType = loadedNode.getAsJsonObject().get("type").getAsString();
-                if (Objects.equals(loadedType, NodeType.FOLDER.toString())) {
-                    JsonArray loadedChildren = loadedNode.getAsJsonObject().get("children").getAsJsonArray();
-                    for (JsonElement child : loadedChildren) {
-                        queue.offer(child);
+                if (Objects.equals(loadedNode.type, NodeType.FOLDER.toString())) {
+                    Map<String, AbstractNode> liveChildrenByName = getChildrenByName(liveNode);
+                    String parentPath = liveNode != null ? liveNode.path : loadedNode.path;
+                    for (LoadedNodeState loadedChild : loadedNode.children) {
+                        String name = NodePaths.getLastSegment(loadedChild.path);
+                        AbstractNode liveChild = liveChildrenByName.get(name);
+                        if (liveChild == null && isPaste) {
+                            // used for copy/pasting sub-folders and not the entire tree
+                            loadedChild.path = parentPath.isEmpty() ? name : parentPath + "/" + name;
+                        }
+                        loadedQueue.offer(loadedChild);
+                        liveQueue.offer(liveChild);
                     }
                 }
+                loadedNode.children = null;
             }
         } catch (Exception ex) {
             println("Loading gui state from json failed with: " + ex.getClass().getSimpleName());
         }
     }
 
-    public static void overwriteWithLoadedStateIfAny(AbstractNode abstractNode) {
-        overwriteWithLoadedStateIfAny(abstractNode, lastLoadedStateMap.get(abstractNode.path));
+    private static Map<String, AbstractNode> getChildrenByName(AbstractNode node) {
+        if (!(node instanceof FolderNode)) {
+            return Collections.emptyMap();
+        }
+        List<AbstractNode> children = ((FolderNode) node).children;
+        Map<String, AbstractNode> childrenByName = new HashMap<>(children.size() * 2);
+        for (AbstractNode child : children) {
+            childrenByName.putIfAbsent(child.parsedPath.getName(), child);
+        }
+        return childrenByName;
     }
 
-    static void overwriteWithLoadedStateIfAny(AbstractNode abstractNode, JsonElement loadedNodeState) {
+    /**
+     * Called from node constructors, applies the state loaded for this path if the node did not exist at load time.
+     * The state stays pending until the node is indexed, because a folder can call this from more than one constructor.
+     * @param abstractNode newly constructed node
+     */
+    public static void overwriteWithLoadedStateIfAny(AbstractNode abstractNode) {
+        if (abstractNode.type == NodeType.FOLDER) {
+            LazyFolderStateStore.loadFolderIfUnloaded(abstractNode.path);
+        }
+        if (pendingStates.isEmpty()) {
+            return;
+        }
+        LoadedNodeState loadedNodeState = pendingStates.get(abstractNode.path);
         if (loadedNodeState == null) {
             return;
         }
         abstractNode.overwriteState(loadedNodeState);
     }
 
+    /**
+     * Applies states recovered from the ChangeJournal in their journaled order on top of whatever is loaded already.
+     * Unlike loading a save this keeps the pending states, a journaled state of a node that does not exist yet replaces its pending state.
+     * @param states journaled node states, the later ones win
+     */
+    static void applyJournaledStates(List<LoadedNodeState> states) {
+        for (LoadedNodeState state : states) {
+            AbstractNode node = NodeTree.findNode(state.path);
+            if (node != null) {
+                node.overwriteState(state);
+            } else {
+                pendingStates.put(state.path, state);
+            }
+        }
+    }
+
+    static void onNodeIndexed(AbstractNode node) {
+        if (!pendingStates.isEmpty()) {
+            pendingStates.remove(node.path);
+        }
+    }
+
+    public static int getPendingStateCount() {
+        return pendingStates.size();
+    }
+
+    /**
+     * Finds the number after the highest numbered file in the folder,
+     * counting the saves that are still queued to be written there as well,
+     * so that saving twice before the first one reaches the disk does not pick the same name again.
+     * @param folder folder to look in
+     * @return next unused integer file name without any extension or null when the folder does not exist
+     */
     public static String getNextUnusedIntegerFileNameInFolder(File folder) {
         if (!folder.isDirectory()) {
             return null;
         }
         int maxNumberFound = 0;
-        String[] existingFiles = folder.list();
-        if (existingFiles != null) {
-            for (String filenameWithExtension : existingFiles) {
-                String filenameWithoutExtension = getFileNameWithoutTypeExtension(filenameWithExtension);
-                try {
-                    int filenameInteger = Integer.parseInt(filenameWithoutExtension);
-                    maxNumberFound = max(filenameInteger, maxNumberFound);
-                } catch (NumberFormatException nfex) {
-                    // just ignore files that do not match a simple integer numbering scheme
-                } catch (Exception ex) {
-                    println(ex);
-                }
+        List<String> existingFiles = new ArrayList<>();
+        String[] filesOnDisk = folder.list();
+        if (filesOnDisk != null) {
+            existingFiles.addAll(Arrays.asList(filesOnDisk));
+        }
+        File absoluteFolder = folder.getAbsoluteFile();
+        for (String pendingSavePath : AsyncSaveWriter.getPendingSavePaths()) {
+            File pendingSave = new File(pendingSavePath).getAbsoluteFile();
+            if (absoluteFolder.equals(pendingSave.getParentFile())) {
+                existingFiles.add(pendingSave.getName());
+            }
+        }
+        for (String filenameWithExtension : existingFiles) {
+            String filenameWithoutExtension = getFileNameWithoutTypeExtension(filenameWithExtension);
+            try {
+                int filenameInteger = Integer.parseInt(filenameWithoutExtension);
+                maxNumberFound = max(filenameInteger, maxNumberFound);
+            } catch (NumberFormatException nfex) {
+                // just ignore files that do not match a simple integer numbering scheme
+            } catch (Exception ex) {
+                println(ex);
             }
         }
         return String.valueOf(maxNumberFound + 1);
@@ -286,6 +676,23 @@ public class JsonSaveStore {
                 filename + JSON_TYPE_EXTENSION;
     }
 
+    /**
+     * Keeps an explicit json, binary, sharded or lazy extension,
+     * otherwise appends the one chosen by lazyFolderSavesEnabled, shardedSaveFilesEnabled and binarySaveFilesEnabled in this order.
+     */
+    private static String appendSaveFileTypeIfNeeded(String filename) {
+        if (hasFullSaveExtension(filename)) {
+            return filename;
+        }
+        if (lazyFolderSavesEnabled) {
+            return filename + LazyFolderStateStore.LAZY_EXTENSION;
+        }
+        if (shardedSaveFilesEnabled) {
+            return filename + ShardedSaveFormat.SHARDED_EXTENSION;
+        }
+        return filename + (binarySaveFilesEnabled ? BinarySaveFormat.BINARY_EXTENSION : JSON_TYPE_EXTENSION);
+    }
+
     static String getFileNameWithoutTypeExtension(String filenameWithTypeExtension) {
         return filenameWithTypeExtension.split("\\.")[0];
     }
@@ -0,0 +1,268 @@
+package com.krab.lazy.stores;
+
+import com.krab.lazy.nodes.NodeType;
+
+import java.io.*;
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+
+import static processing.core.PApplet.println;
+
+/**
+ * Save split into one file per top-level folder, where a folder's file is only read once the sketch first creates that folder.
+ * Startup then only pays for the parts of the GUI that the current run actually uses, a scene that never gets selected is never parsed.
+ * <pre>
+ * name.lglazy          index in the save folder: a header line, the root's own state and one line per top-level node,
+ *                      either "node" followed by the compact json of a small non-folder node that is loaded right away,
+ *                      or "folder" followed by the url encoded path of a folder whose state is in its own file
+ * name.folders/        one compact json file per top-level folder named by its url encoded path, holding its whole subtree
+ * </pre>
+ * Every folder node asks for its file when it gets constructed, which covers the folders made by NodeTree.lazyInitFolderPath().
+ * The states read from a folder file become pending states just like the states of any other save loaded before their nodes exist.
+ * Saving carries the files of folders that were never created in this run over into the new save unchanged,
+ * so a folder that is not used in one run keeps its state for the next one.
+ */
+public class LazyFolderStateStore {
+    static final String LAZY_EXTENSION = ".lglazy";
+    private static final String HEADER = "lazygui lazy folder save 1";
+    private static final String NODE_LINE_PREFIX = "node ";
+    private static final String FOLDER_LINE_PREFIX = "folder ";
+    private static final String FOLDER_FILES_SUFFIX = ".folders";
+    private static final String FOLDER_FILE_EXTENSION = ".json";
+    // folder files of the loaded save that nothing asked for yet, by the path of their folder
+    private static final Map<String, File> unloadedFolderFiles = new LinkedHashMap<>();
+
+    private LazyFolderStateStore() {
+
+    }
+
+    private static class Index {
+        LoadedNodeState root;
+        // top-level entries in their saved order
+        final List<IndexEntry> entries = new ArrayList<>();
+    }
+
+    // either the state of a node loaded right away or the path of a folder with its own file
+    private static class IndexEntry {
+        final LoadedNodeState node;
+        final String folderPath;
+
+        IndexEntry(LoadedNodeState node, String folderPath) {
+            this.node = node;
+            this.folderPath = folderPath;
+        }
+    }
+
+    /**
+     * Prepares a new lazy save of a captured tree for the save writer, whose encoder writes the folder files first
+     * and only then returns the index for the writer to write, so an index never names a folder file that is not there yet.
+     * The folders that were never loaded in this run are noted right away, while the encoder runs on the writer thread.
+     * @param root root of a tree captured by LoadedNodeState.capture() that nothing changes anymore
+     * @param indexFile the index file the encoded contents are meant for
+     * @return encoder writing the folder files and returning the contents of the index file
+     */
+    static AsyncSaveWriter.SaveEncoder captureLazySave(LoadedNodeState root, File indexFile) {
+        Map<String, File> unloadedFolderFilesAtCapture = new LinkedHashMap<>(unloadedFolderFiles);
+        return () -> writeFolderFiles(root, indexFile, unloadedFolderFilesAtCapture);
+    }
+
+    private static byte[] writeFolderFiles(LoadedNodeState root, File indexFile, Map<String, File> carriedOverFolderFiles) throws IOException {
+        Path folderDir = getFolderDir(indexFile);
+        StringBuilder index = new StringBuilder(HEADER).append('\n')
+                .append(NodeTreeJsonWriter.toNodeStateWithWindowJsonString(root)).append('\n');
+        Set<String> writtenFolderPaths = new HashSet<>();
+        List<LoadedNodeState> children = root.children == null ? Collections.emptyList() : root.children;
+        for (LoadedNodeState child : children) {
+            if (!NodeType.FOLDER.name().equals(child.type)) {
+                String childJson = new String(NodeTreeJsonWriter.toJsonBytes(child, false), StandardCharsets.UTF_8);
+                index.append(NODE_LINE_PREFIX).append(childJson).append('\n');
+                continue;
+            }
+            AsyncSaveWriter.writeAtomically(getFolderFile(folderDir, child.path), NodeTreeJsonWriter.toJsonBytes(child, false), true);
+            writtenFolderPaths.add(child.path);
+            index.append(FOLDER_LINE_PREFIX).append(encodePath(child.path)).append('\n');
+        }
+        for (Map.Entry<String, File> unloaded : carriedOverFolderFiles.entrySet()) {
+            String path = unloaded.getKey();
+            if (writtenFolderPaths.contains(path) || !unloaded.getValue().exists()) {
+                continue;
+            }
+            Path target = getFolderFile(folderDir, path);
+            if (!Files.exists(target) || !Files.isSameFile(target, unloaded.getValue().toPath())) {
+                Files.createDirectories(folderDir);
+                Files.copy(unloaded.getValue().toPath(), target, StandardCopyOption.REPLACE_EXISTING);
+            }
+            index.append(FOLDER_LINE_PREFIX).append(encodePath(path)).append('\n');
+        }
+        return index.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Loads the root and the small top-level nodes right away, reads the files of the folders that already exist
+     * and leaves the rest of the folders to be read when their folder nodes get created.
+     * @param indexFile index of a lazy save
+     * @throws IOException when the index cannot be read
+     */
+    static void load(File indexFile) throws IOException {
+        Index index = readIndex(indexFile);
+        unloadedFolderFiles.clear();
+        index.root.children = new ArrayList<>();
+        for (IndexEntry entry : index.entries) {
+            if (entry.node != null) {
+                index.root.children.add(entry.node);
+            }
+        }
+        JsonSaveStore.loadState(index.root, null);
+        Path folderDir = getFolderDir(indexFile);
+        for (IndexEntry entry : index.entries) {
+            if (entry.folderPath == null) {
+                continue;
+            }
+            String folderPath = entry.folderPath;
+            File folderFile = getFolderFile(folderDir, folderPath).toFile();
+            if (NodeTree.findNode(folderPath) != null) {
+                loadFolderFile(folderFile);
+            } else {
+                unloadedFolderFiles.put(folderPath, folderFile);
+            }
+        }
+    }
+
+    /**
+     * Reads the folder file of a folder that is being created, if the loaded save has one that was not read yet.
+     * @param folderPath path of the new folder
+     */
+    static void loadFolderIfUnloaded(String folderPath) {
+        if (unloadedFolderFiles.isEmpty()) {
+            return;
+        }
+        File folderFile = unloadedFolderFiles.remove(folderPath);
+        if (folderFile != null) {
+            loadFolderFile(folderFile);
+        }
+    }
+
+    private static void loadFolderFile(File folderFile) {
+        try {
+            JsonSaveStore.applyLoadedState(readFolderFile(folderFile));
+        } catch (IOException | RuntimeException e) {
+            println("Could not load the folder state from: " + folderFile.getPath() + " because of " + e.getMessage());
+        }
+    }
+
+    /**
+     * Forgets the folders of the previously loaded lazy save, so they are neither loaded nor carried over into new saves anymore.
+     */
+    static void forgetUnloadedFolders() {
+        unloadedFolderFiles.clear();
+    }
+
+    public static int getUnloadedFolderCount() {
+        return unloadedFolderFiles.size();
+    }
+
+    /**
+     * Reads the whole save including every folder file, for exporting it to another format.
+     * @param indexFile index of a lazy save
+     * @return root of the complete saved tree in the saved order
+     * @throws IOException when the index or any folder file cannot be read
+     */
+    static LoadedNodeState readFully(File indexFile) throws IOException {
+        Index index = readIndex(indexFile);
+        Path folderDir = getFolderDir(indexFile);
+        index.root.children = new ArrayList<>(index.entries.size());
+        for (IndexEntry entry : index.entries) {
+            index.root.children.add(entry.node != null ? entry.node :
+                    readFolderFile(getFolderFile(folderDir, entry.folderPath).toFile()));
+        }
+        return index.root;
+    }
+
+    /**
+     * Deletes the folder file directories whose index no longer exists, meant to run after old autosaves got deleted.
+     * @param saveDir the save folder
+     */
+    static void deleteOrphanedFolderDirs(File saveDir) {
+        File[] folderDirs = saveDir.listFiles((dir, name) -> name.endsWith(FOLDER_FILES_SUFFIX));
+        if (folderDirs == null) {
+            return;
+        }
+        for (File folderDir : folderDirs) {
+            String saveName = folderDir.getName().substring(0, folderDir.getName().length() - FOLDER_FILES_SUFFIX.length());
+            if (!folderDir.isDirectory() || new File(saveDir, saveName + LAZY_EXTENSION).exists()) {
+                continue;
+            }
+            File[] folderFiles = folderDir.listFiles();
+            if (folderFiles != null) {
+                for (File folderFile : folderFiles) {
+                    if (!folderFile.delete()) {
+                        println("Could not delete old folder state file: " + folderFile.getPath());
+                    }
+                }
+            }
+            if (!folderDir.delete()) {
+                println("Could not delete old folder state directory: " + folderDir.getPath());
+            }
+        }
+    }
+
+    private static Index readIndex(File indexFile) throws IOException {
+        Index index = new Index();
+        try (BufferedReader reader = Files.newBufferedReader(indexFile.toPath(), StandardCharsets.UTF_8)) {
+            String header = reader.readLine();
+            String rootLine = reader.readLine();
+            if (!HEADER.equals(header) || rootLine == null) {
+                throw new IOException("Not a lazy folder save index: " + indexFile.getPath());
+            }
+            index.root = NodeStateJsonReader.read(rootLine);
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.startsWith(NODE_LINE_PREFIX)) {
+                    LoadedNodeState node = NodeStateJsonReader.read(line.substring(NODE_LINE_PREFIX.length()));
+                    index.entries.add(new IndexEntry(node, null));
+                } else if (line.startsWith(FOLDER_LINE_PREFIX)) {
+                    String folderPath = decodePath(line.substring(FOLDER_LINE_PREFIX.length()));
+                    index.entries.add(new IndexEntry(null, folderPath));
+                }
+            }
+        }
+        return index;
+    }
+
+    private static LoadedNodeState readFolderFile(File folderFile) throws IOException {
+        try (Reader reader = Files.newBufferedReader(folderFile.toPath(), StandardCharsets.UTF_8)) {
+            return NodeStateJsonReader.read(reader);
+        }
+    }
+
+    private static Path getFolderDir(File indexFile) {
+        String name = indexFile.getName();
+        String saveName = name.endsWith(LAZY_EXTENSION) ? name.substring(0, name.length() - LAZY_EXTENSION.length()) : name;
+        return indexFile.getAbsoluteFile().toPath().resolveSibling(saveName + FOLDER_FILES_SUFFIX);
+    }
+
+    private static Path getFolderFile(Path folderDir, String folderPath) {
+        return folderDir.resolve(encodePath(folderPath) + FOLDER_FILE_EXTENSION);
+    }
+
+    private static String encodePath(String path) {
+        try {
+            return URLEncoder.encode(path, "UTF-8");
+        } catch (UnsupportedEncodingException e) {
+            throw new IllegalStateException("UTF-8 is required to be available on every java platform", e);
+        }
+    }
+
+    private static String decodePath(String encodedPath) {
+        try {
+            return URLDecoder.decode(encodedPath, "UTF-8");
+        } catch (UnsupportedEncodingException e) {
+            throw new IllegalStateException("UTF-8 is required to be available on every java platform", e);
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.krab.lazy.stores;
+
+import com.krab.lazy.nodes.AbstractNode;
+import com.krab.lazy.nodes.FolderNode;
+import com.krab.lazy.windows.Window;
+
+import java.util.ArrayList;
+
+/**
+ * Typed state of one node read from a save, a copied folder or an undo history entry.
+ * Only holds the fields the save format knows about, each value field has a flag telling whether it was present.
+ * The children list is only used while a whole tree is being loaded or encoded and is released after loading,
+ * so a record waiting for its node to be created only keeps its own values.
+ * @see NodeStateJsonReader
+ */
+public class LoadedNodeState {
+    public String path;
+    public String className;
+    public String type;
+
+    public boolean hasValueFloat;
+    public float valueFloat;
+    public boolean hasCurrentPrecisionIndex;
+    public int currentPrecisionIndex;
+    public boolean hasValueFloatPrecision;
+    public float valueFloatPrecision;
+    public boolean hasValueBoolean;
+    public boolean valueBoolean;
+    public String valueString;
+    public String hexString;
+    public String stringValue;
+
+    public boolean hasWindow;
+    public float windowPosX;
+    public float windowPosY;
+    public boolean windowClosed;
+    public float windowSizeX;
+
+    public ArrayList<LoadedNodeState> children;
+
+    /**
+     * Copies the state of a live node and optionally all of its descendants, holding the same content a json save would.
+     * @param node node to copy
+     * @param includeChildren whether to copy the whole subtree and the folder windows too
+     * @return typed copy of the node's state
+     */
+    public static LoadedNodeState capture(AbstractNode node, boolean includeChildren) {
+        LoadedNodeState state = new LoadedNodeState();
+        state.path = node.path;
+        state.className = node.className;
+        state.type = node.type == null ? null : node.type.name();
+        node.writeValueFields(state);
+        if (includeChildren && node instanceof FolderNode) {
+            FolderNode folder = (FolderNode) node;
+            state.children = new ArrayList<>(folder.children.size());
+            for (AbstractNode child : folder.children) {
+                state.children.add(capture(child, true));
+            }
+            Window window = folder.window;
+            if (window != null) {
+                state.hasWindow = true;
+                state.windowPosX = window.posX;
+                state.windowPosY = window.posY;
+                state.windowClosed = window.closed;
+                state.windowSizeX = window.windowSizeX;
+            }
+        }
+        return state;
+    }
+}
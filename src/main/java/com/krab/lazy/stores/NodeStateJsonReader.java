@@ -0,0 +1,133 @@
+package com.krab.lazy.stores;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.util.ArrayList;
+
+/**
+ * Streams json in the save format straight into LoadedNodeState records without building a JsonElement tree.
+ * Unknown fields are skipped, so saves from other versions still load whatever they have in common with this one.
+ */
+public class NodeStateJsonReader {
+
+    private NodeStateJsonReader() {
+
+    }
+
+    /**
+     * Reads one node with all of its descendants.
+     * @param in json of a node as written by the NodeTreeJsonWriter
+     * @return state of the node with its children filled in
+     * @throws IOException when the json is malformed or the underlying stream fails
+     */
+    public static LoadedNodeState read(Reader in) throws IOException {
+        JsonReader reader = new JsonReader(in);
+        reader.setLenient(true);
+        return readNode(reader);
+    }
+
+    public static LoadedNodeState read(String json) throws IOException {
+        return read(new StringReader(json));
+    }
+
+    private static LoadedNodeState readNode(JsonReader reader) throws IOException {
+        LoadedNodeState state = new LoadedNodeState();
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String name = reader.nextName();
+            if (reader.peek() == JsonToken.NULL) {
+                reader.skipValue();
+                continue;
+            }
+            switch (name) {
+                case "path":
+                    state.path = reader.nextString();
+                    break;
+                case "className":
+                    state.className = reader.nextString();
+                    break;
+                case "type":
+                    state.type = reader.nextString();
+                    break;
+                case "valueFloat":
+                    state.valueFloat = (float) reader.nextDouble();
+                    state.hasValueFloat = true;
+                    break;
+                case "currentPrecisionIndex":
+                    state.currentPrecisionIndex = reader.nextInt();
+                    state.hasCurrentPrecisionIndex = true;
+                    break;
+                case "valueFloatPrecision":
+                    state.valueFloatPrecision = (float) reader.nextDouble();
+                    state.hasValueFloatPrecision = true;
+                    break;
+                case "valueBoolean":
+                    state.valueBoolean = reader.nextBoolean();
+                    state.hasValueBoolean = true;
+                    break;
+                case "valueString":
+                    state.valueString = reader.nextString();
+                    break;
+                case "hexString":
+                    state.hexString = reader.nextString();
+                    break;
+                case "stringValue":
+                    state.stringValue = reader.nextString();
+                    break;
+                case "window":
+                    readWindow(reader, state);
+                    break;
+                case "children":
+                    state.children = new ArrayList<>();
+                    reader.beginArray();
+                    while (reader.hasNext()) {
+                        state.children.add(readNode(reader));
+                    }
+                    reader.endArray();
+                    break;
+                default:
+                    reader.skipValue();
+            }
+        }
+        reader.endObject();
+        return state;
+    }
+
+    private static void readWindow(JsonReader reader, LoadedNodeState state) throws IOException {
+        boolean hasPosX = false, hasPosY = false, hasClosed = false, hasSizeX = false;
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String name = reader.nextName();
+            if (reader.peek() == JsonToken.NULL) {
+                reader.skipValue();
+                continue;
+            }
+            switch (name) {
+                case "posX":
+                    state.windowPosX = (float) reader.nextDouble();
+                    hasPosX = true;
+                    break;
+                case "posY":
+                    state.windowPosY = (float) reader.nextDouble();
+                    hasPosY = true;
+                    break;
+                case "closed":
+                    state.windowClosed = reader.nextBoolean();
+                    hasClosed = true;
+                    break;
+                case "windowSizeX":
+                    state.windowSizeX = (float) reader.nextDouble();
+                    hasSizeX = true;
+                    break;
+                default:
+                    reader.skipValue();
+            }
+        }
+        reader.endObject();
+        state.hasWindow = hasPosX && hasPosY && hasClosed && hasSizeX;
+    }
+}
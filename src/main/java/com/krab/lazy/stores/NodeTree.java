@@ -12,7 +12,15 @@ import static processing.core.PApplet.println;
 public class NodeTree {
     private static final FolderNode root = new FolderNode("", null);
     private static final Map<String, AbstractNode> nodesByPath = new HashMap<>();
-    static ArrayList<String> knownUnexpectedQueries = new ArrayList<>();
+    static Set<String> knownUnexpectedQueries = new HashSet<>();
+    private static int structureVersion = 0;
+    private static int cachedTraversalVersion = -1;
+    private static AbstractNode[] allNodesCache = new AbstractNode[0];
+    private static FolderNode[] allFoldersCache = new FolderNode[0];
+
+    static {
+        indexSubtree(root);
+    }
 
     private NodeTree() {
 
@@ -29,27 +37,48 @@ public class NodeTree {
         return (FolderNode) pathParent;
     }
 
+    /**
+     * Finds a node by its full path using the path index, which is kept up to date on every insertion and removal.
+     * Both hits and misses are answered in constant time without walking the tree.
+     * @param path full path of the node
+     * @return the node at this path or null if no such node exists yet
+     */
     public static AbstractNode findNode(String path) {
-        if (nodesByPath.containsKey(path)) {
-            return nodesByPath.get(path);
-        }
-        Queue<AbstractNode> queue = new LinkedList<>();
-        queue.offer(root);
-        while (!queue.isEmpty()) {
-            AbstractNode node = queue.poll();
-            if (node.path.equals(path)) {
-                // do type cast collision detection here
-                nodesByPath.put(path, node);
-                return node;
+        return nodesByPath.get(path);
+    }
+
+    /**
+     * Adds the node and all of its current descendants to the path index.
+     * Must be called whenever nodes are attached to the tree outside of insertNodeAtItsPath() and lazyInitFolderPath().
+     * Paths that are already indexed keep pointing to their original node.
+     * @param node the topmost node of the subtree that was attached to the tree
+     */
+    public static void indexSubtree(AbstractNode node) {
+        structureVersion++;
+        nodesByPath.putIfAbsent(node.path, node);
+        UndoRedoStore.onNodeIndexed(node);
+        JsonSaveStore.onNodeIndexed(node);
+        if (node.type == NodeType.FOLDER) {
+            for (AbstractNode child : ((FolderNode) node).children) {
+                indexSubtree(child);
             }
-            if (node.type == NodeType.FOLDER) {
-                FolderNode folder = (FolderNode) node;
-                for (AbstractNode child : folder.children) {
-                    queue.offer(child);
-                }
+        }
+    }
+
+    /**
+     * Removes the node and all of its current descendants from the path index.
+     * Must be called whenever nodes are detached from the tree.
+     * @param node the topmost node of the subtree that was detached from the tree
+     */
+    public static void unindexSubtree(AbstractNode node) {
+        structureVersion++;
+        nodesByPath.remove(node.path, node);
+        UndoRedoStore.onNodeUnindexed(node);
+        if (node.type == NodeType.FOLDER) {
+            for (AbstractNode child : ((FolderNode) node).children) {
+                unindexSubtree(child);
             }
         }
-        return null;
     }
 
     static void lazyInitFolderPath(String path) {
@@ -64,6 +93,7 @@ public class NodeTree {
                 }
                 n = new FolderNode(runningPath, parentFolder);
                 parentFolder.children.add(n);
+                indexSubtree(n);
                 parentFolder = (FolderNode) n;
             } else if (n.type == NodeType.FOLDER) {
                 parentFolder = (FolderNode) n;
@@ -80,42 +110,65 @@ public class NodeTree {
         if (findNode(node.path) != null) {
             return;
         }
-        String folderPath = NodePaths.getPathWithoutName(node.path);
+        String folderPath = node.parsedPath.getParentPath();
         lazyInitFolderPath(folderPath);
         FolderNode folder = (FolderNode) findNode(folderPath);
         assert folder != null;
         folder.children.add(node);
+        indexSubtree(node);
     }
 
-    public static List<AbstractNode> getAllNodesAsList(){
-        List<AbstractNode> result = new ArrayList<>();
-        Queue<AbstractNode> queue = new LinkedList<>();
-        queue.offer(root);
-        while(!queue.isEmpty()){
-            AbstractNode node = queue.poll();
-            result.add(node);
-            if (node.type == NodeType.FOLDER) {
-                FolderNode folder = (FolderNode) node;
-                for (AbstractNode child : folder.children) {
-                    queue.offer(child);
-                }
-            }
-        }
-        return result;
+    /**
+     * Gets the structure version, which changes every time nodes are added to or removed from the tree.
+     * @return current structure version
+     */
+    public static int getStructureVersion() {
+        return structureVersion;
+    }
+
+    /**
+     * Gets all nodes in the tree in breadth-first order.
+     * The array is cached and only rebuilt when the structure version changes, so it must not be modified by the caller.
+     * Nodes added while iterating over it will not appear in it, but will show up in the next call.
+     * @return cached array of all nodes
+     */
+    public static AbstractNode[] getAllNodes() {
+        lazyUpdateTraversalCache();
+        return allNodesCache;
     }
 
-    public static void setAllNodesMouseOverToFalse(){
-        setAllOtherNodesMouseOverToFalse(null);
+    /**
+     * Gets all folder nodes in the tree in breadth-first order, including the root.
+     * The array is cached and only rebuilt when the structure version changes, so it must not be modified by the caller.
+     * @return cached array of all folders
+     */
+    public static FolderNode[] getAllFolders() {
+        lazyUpdateTraversalCache();
+        return allFoldersCache;
+    }
+
+    public static List<AbstractNode> getAllNodesAsList(){
+        return Arrays.asList(getAllNodes());
     }
 
-    public static void setAllOtherNodesMouseOverToFalse(AbstractNode nodeToKeep){
-        List<AbstractNode> allNodes = getAllNodesAsList();
-        for(AbstractNode node : allNodes){
-            if(node == nodeToKeep){
-                continue;
+    private static void lazyUpdateTraversalCache() {
+        if (cachedTraversalVersion == structureVersion) {
+            return;
+        }
+        List<AbstractNode> nodes = new ArrayList<>(Math.max(allNodesCache.length, 16));
+        List<FolderNode> folders = new ArrayList<>(Math.max(allFoldersCache.length, 16));
+        nodes.add(root);
+        for (int i = 0; i < nodes.size(); i++) {
+            AbstractNode node = nodes.get(i);
+            if (node.type == NodeType.FOLDER) {
+                FolderNode folder = (FolderNode) node;
+                folders.add(folder);
+                nodes.addAll(folder.children);
             }
-            node.isMouseOverNode = false;
         }
+        allNodesCache = nodes.toArray(new AbstractNode[0]);
+        allFoldersCache = folders.toArray(new FolderNode[0]);
+        cachedTraversalVersion = structureVersion;
     }
 
     public static FolderNode findFirstOpenParentNodeRecursively(FolderNode node) {
@@ -130,28 +183,23 @@ public class NodeTree {
 
     public static <T extends AbstractNode> boolean isPathTakenByUnexpectedType(String path, Class<T> expectedType){
         AbstractNode foundNode = findNode(path);
-        if(foundNode == null){
+        if(foundNode == null || expectedType.isInstance(foundNode)){
             return false;
         }
         String expectedTypeName = expectedType.getSimpleName();
         String uniquePathAndTypeQuery = path + " - " + expectedTypeName;
         if(knownUnexpectedQueries.contains(uniquePathAndTypeQuery)){
-            // return early when this is a known conflict, no reason to spam the error or do the expensive exception
-            return true;
-        }
-        try{
-            expectedType.cast(foundNode);
-        }catch(Exception ex){
-            println("Path conflict warning: You tried to register a new " + expectedTypeName + " at \"" + path + "\"" +
-                    " but that path is already in use by a " + foundNode.className + "." +
-                    "\n\tThe original " + foundNode.className + " will still work as expected," +
-                    " but the new " + expectedTypeName + " will not be shown and it will always return a default value." +
-                    "\n\tLazyGui paths must be unique, so please use a different path for one of them."
-            );
-            knownUnexpectedQueries.add(uniquePathAndTypeQuery);
+            // return early when this is a known conflict, no reason to spam the error
             return true;
         }
-        return false;
+        println("Path conflict warning: You tried to register a new " + expectedTypeName + " at \"" + path + "\"" +
+                " but that path is already in use by a " + foundNode.className + "." +
+                "\n\tThe original " + foundNode.className + " will still work as expected," +
+                " but the new " + expectedTypeName + " will not be shown and it will always return a default value." +
+                "\n\tLazyGui paths must be unique, so please use a different path for one of them."
+        );
+        knownUnexpectedQueries.add(uniquePathAndTypeQuery);
+        return true;
     }
 
     public static void hideAtFullPath(String path) {
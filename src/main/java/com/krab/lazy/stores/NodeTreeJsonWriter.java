@@ -0,0 +1,208 @@
+package com.krab.lazy.stores;
+
+import com.google.gson.stream.JsonWriter;
+import com.krab.lazy.nodes.AbstractNode;
+import com.krab.lazy.nodes.FolderNode;
+import com.krab.lazy.windows.Window;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Streams the node tree to json by walking FolderNode.children directly, without reflection and without building a JsonElement tree.
+ * Each node type writes its own value fields through AbstractNode.writeValueFields(),
+ * the output is the same as what the Gson instance with exposed fields only and pretty printing used to produce.
+ * The compact mode writes the same content without any whitespace.
+ */
+public class NodeTreeJsonWriter {
+    private static final String prettyIndent = "  ";
+
+    private NodeTreeJsonWriter() {
+
+    }
+
+    public static String toJsonString(AbstractNode node, boolean pretty) {
+        StringWriter stringWriter = new StringWriter();
+        try {
+            write(node, stringWriter, pretty);
+        } catch (IOException e) {
+            throw new IllegalStateException("Writing json to a string failed", e);
+        }
+        return stringWriter.toString();
+    }
+
+    public static byte[] toJsonBytes(AbstractNode node, boolean pretty) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try {
+            write(node, bytes, pretty);
+        } catch (IOException e) {
+            throw new IllegalStateException("Writing json to a byte array failed", e);
+        }
+        return bytes.toByteArray();
+    }
+
+    public static void write(AbstractNode node, OutputStream out, boolean pretty) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        write(node, writer, pretty);
+    }
+
+    /**
+     * Writes the node with all its descendants and flushes the writer, but does not close it.
+     * @param node root of the subtree to write
+     * @param out where to write the json
+     * @param pretty whether to indent the json like the save files are
+     * @throws IOException when the underlying stream fails
+     */
+    public static void write(AbstractNode node, Writer out, boolean pretty) throws IOException {
+        JsonWriter writer = createJsonWriter(out, pretty);
+        writeNode(writer, node, true, true);
+        writer.flush();
+    }
+
+    /**
+     * Writes a tree of loaded node states in the same format as a live tree, so a save read from anywhere can be exported as json.
+     * @param state root of the loaded tree to write
+     * @param pretty whether to indent the json like the save files are
+     * @return utf-8 encoded json
+     */
+    public static byte[] toJsonBytes(LoadedNodeState state, boolean pretty) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try {
+            Writer out = new BufferedWriter(new OutputStreamWriter(bytes, StandardCharsets.UTF_8));
+            JsonWriter writer = createJsonWriter(out, pretty);
+            writeLoadedState(writer, state, true);
+            writer.flush();
+        } catch (IOException e) {
+            throw new IllegalStateException("Writing json to a byte array failed", e);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Writes the loaded state's own fields in the compact mode including its window, but without its children,
+     * the same as toNodeStateWithWindowJsonString() writes the live node it was captured from.
+     * @param state state to write
+     * @return compact json of the state and its window
+     */
+    public static String toNodeStateWithWindowJsonString(LoadedNodeState state) {
+        StringWriter stringWriter = new StringWriter();
+        try {
+            JsonWriter writer = createJsonWriter(stringWriter, false);
+            writeLoadedState(writer, state, false);
+            writer.flush();
+        } catch (IOException e) {
+            throw new IllegalStateException("Writing json to a string failed", e);
+        }
+        return stringWriter.toString();
+    }
+
+    /**
+     * Writes only the node's own state in the compact mode, without its children and its window.
+     * @param node node to write
+     * @return compact json of the node's own state
+     */
+    public static String toNodeStateJsonString(AbstractNode node) {
+        return toCompactJsonStringWithoutChildren(node, false);
+    }
+
+    /**
+     * Writes the node's own state in the compact mode including the window of a folder, but without its children.
+     * @param node node to write
+     * @return compact json of the node's own state and window
+     */
+    public static String toNodeStateWithWindowJsonString(AbstractNode node) {
+        return toCompactJsonStringWithoutChildren(node, true);
+    }
+
+    private static String toCompactJsonStringWithoutChildren(AbstractNode node, boolean includeWindow) {
+        StringWriter stringWriter = new StringWriter();
+        try {
+            JsonWriter writer = createJsonWriter(stringWriter, false);
+            writeNode(writer, node, false, includeWindow);
+            writer.flush();
+        } catch (IOException e) {
+            throw new IllegalStateException("Writing json to a string failed", e);
+        }
+        return stringWriter.toString();
+    }
+
+    private static JsonWriter createJsonWriter(Writer out, boolean pretty) {
+        JsonWriter writer = new JsonWriter(out);
+        writer.setHtmlSafe(true);
+        writer.setSerializeNulls(false);
+        if (pretty) {
+            writer.setIndent(prettyIndent);
+        }
+        return writer;
+    }
+
+    // the field order mirrors Gson: the most derived class first, so value fields, then the folder fields, then the AbstractNode fields
+    private static void writeNode(JsonWriter writer, AbstractNode node, boolean includeChildren, boolean includeWindow) throws IOException {
+        writer.beginObject();
+        node.writeValueFields(writer);
+        if (node instanceof FolderNode) {
+            FolderNode folder = (FolderNode) node;
+            if (includeChildren) {
+                writer.name("children").beginArray();
+                for (AbstractNode child : folder.children) {
+                    writeNode(writer, child, true, true);
+                }
+                writer.endArray();
+            }
+            if (includeWindow && folder.window != null) {
+                writeWindow(writer, folder.window);
+            }
+        }
+        writer.name("className").value(node.className);
+        writer.name("path").value(node.path);
+        writer.name("type").value(node.type == null ? null : node.type.name());
+        writer.endObject();
+    }
+
+    private static void writeWindow(JsonWriter writer, Window window) throws IOException {
+        writeWindow(writer, window.posX, window.posY, window.closed, window.windowSizeX);
+    }
+
+    private static void writeWindow(JsonWriter writer, float posX, float posY, boolean closed, float windowSizeX) throws IOException {
+        writer.name("window").beginObject();
+        writer.name("posX").value((Float) posX);
+        writer.name("posY").value((Float) posY);
+        writer.name("closed").value(closed);
+        writer.name("windowSizeX").value((Float) windowSizeX);
+        writer.endObject();
+    }
+
+    // the value fields are written in the order the node classes write them, none of the node types has more than the slider
+    private static void writeLoadedState(JsonWriter writer, LoadedNodeState state, boolean includeChildren) throws IOException {
+        writer.beginObject();
+        if (state.hasValueFloat) {
+            writer.name("valueFloat").value((Float) state.valueFloat);
+        }
+        if (state.hasCurrentPrecisionIndex) {
+            writer.name("currentPrecisionIndex").value(state.currentPrecisionIndex);
+        }
+        if (state.hasValueFloatPrecision) {
+            writer.name("valueFloatPrecision").value((Float) state.valueFloatPrecision);
+        }
+        if (state.hasValueBoolean) {
+            writer.name("valueBoolean").value(state.valueBoolean);
+        }
+        writer.name("valueString").value(state.valueString);
+        writer.name("hexString").value(state.hexString);
+        writer.name("stringValue").value(state.stringValue);
+        if (includeChildren && state.children != null) {
+            writer.name("children").beginArray();
+            for (LoadedNodeState child : state.children) {
+                writeLoadedState(writer, child, true);
+            }
+            writer.endArray();
+        }
+        if (state.hasWindow) {
+            writeWindow(writer, state.windowPosX, state.windowPosY, state.windowClosed, state.windowSizeX);
+        }
+        writer.name("className").value(state.className);
+        writer.name("path").value(state.path);
+        writer.name("type").value(state.type);
+        writer.endObject();
+    }
+}
@@ -0,0 +1,234 @@
+package com.krab.lazy.stores;
+
+import com.krab.lazy.LazyGui;
+import com.krab.lazy.nodes.AbstractNode;
+import com.krab.lazy.nodes.ColorPickerFolderNode;
+import com.krab.lazy.nodes.SliderNode;
+import com.krab.lazy.nodes.ToggleNode;
+import processing.core.PGraphics;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.krab.lazy.stores.NormColorStore.getColorStore;
+import static processing.core.PApplet.println;
+
+/**
+ * Saves preloaded into memory for switching between them mid-performance without touching the disk or parsing anything.
+ * Every slider, toggle and color picker in the GUI gets a slot index shared by all the presets,
+ * and every preset is compiled into flat primitive arrays holding its value for each slot,
+ * so recalling a preset is just a pass over those arrays that sets the values that differ.
+ * Morphing interpolates between two presets over time, evaluated every frame by LazyGui.draw() without allocating anything.
+ * Slider values are interpolated linearly, colors by their hue along the shorter way around the color wheel
+ * and by their saturation, brightness and alpha linearly, toggles switch over halfway through.
+ * The slots follow the GUI, when controls are added or removed the presets get compiled again on their next use.
+ * Controls that a preset has no value for keep the value they had when the presets were compiled.
+ */
+public class PresetBank {
+    private static final List<Map<String, LoadedNodeState>> presetStatesByPath = new ArrayList<>();
+    private static int compiledStructureVersion = -1;
+    private static SliderNode[] sliderSlots = new SliderNode[0];
+    private static ToggleNode[] toggleSlots = new ToggleNode[0];
+    private static ColorPickerFolderNode[] colorSlots = new ColorPickerFolderNode[0];
+    // indexed by preset and then by slot, colors take four floats per slot: hue, saturation, brightness and alpha
+    private static float[][] sliderValues = new float[0][];
+    private static boolean[][] toggleValues = new boolean[0][];
+    private static float[][] colorValues = new float[0][];
+    private static int morphFromIndex = -1;
+    private static int morphToIndex = -1;
+    private static int morphStartMillis;
+    private static float morphDurationMillis;
+
+    private PresetBank() {
+
+    }
+
+    /**
+     * Reads the saves into memory as presets, replacing any previously preloaded presets.
+     * A save that cannot be read still takes up its index as an empty preset that changes nothing.
+     * @param saveNames names of the saves inside the save folder or their absolute paths, the index of each preset is its position here
+     */
+    public static void preload(String... saveNames) {
+        stopMorph();
+        presetStatesByPath.clear();
+        for (String saveName : saveNames) {
+            Map<String, LoadedNodeState> statesByPath = new HashMap<>();
+            try {
+                flattenByPath(JsonSaveStore.readSave(saveName), statesByPath);
+            } catch (IOException | RuntimeException e) {
+                println("Could not preload preset \"" + saveName + "\": " + e.getMessage());
+            }
+            presetStatesByPath.add(statesByPath);
+        }
+        compiledStructureVersion = -1;
+    }
+
+    public static int getPresetCount() {
+        return presetStatesByPath.size();
+    }
+
+    /**
+     * Sets every control to its value in the preset right away, stopping any morph in progress.
+     * @param presetIndex index of the preset in the order it was preloaded
+     */
+    public static void recall(int presetIndex) {
+        if (!isValidIndex(presetIndex)) {
+            return;
+        }
+        stopMorph();
+        lazyCompile();
+        apply(presetIndex, presetIndex, 1);
+    }
+
+    /**
+     * Starts morphing from one preset to another, the controls then follow the morph on every frame until it ends on the target preset.
+     * @param fromPresetIndex index of the preset to start from
+     * @param toPresetIndex index of the preset to end at
+     * @param seconds duration of the morph, zero or less recalls the target preset right away
+     */
+    public static void morph(int fromPresetIndex, int toPresetIndex, float seconds) {
+        if (!isValidIndex(fromPresetIndex) || !isValidIndex(toPresetIndex)) {
+            return;
+        }
+        if (seconds <= 0) {
+            recall(toPresetIndex);
+            return;
+        }
+        lazyCompile();
+        morphFromIndex = fromPresetIndex;
+        morphToIndex = toPresetIndex;
+        morphStartMillis = GlobalReferences.app.millis();
+        morphDurationMillis = seconds * 1000;
+        apply(fromPresetIndex, toPresetIndex, 0);
+    }
+
+    public static boolean isMorphing() {
+        return morphToIndex != -1;
+    }
+
+    public static void stopMorph() {
+        morphFromIndex = -1;
+        morphToIndex = -1;
+    }
+
+    /**
+     * Advances the morph in progress if there is one, called by LazyGui once per frame before the GUI gets updated.
+     */
+    public static void updateMorph() {
+        if (!isMorphing()) {
+            return;
+        }
+        float amount = Math.min(1, (GlobalReferences.app.millis() - morphStartMillis) / morphDurationMillis);
+        lazyCompile();
+        apply(morphFromIndex, morphToIndex, amount);
+        if (amount >= 1) {
+            stopMorph();
+        }
+    }
+
+    private static void apply(int fromIndex, int toIndex, float amount) {
+        float[] slidersFrom = sliderValues[fromIndex];
+        float[] slidersTo = sliderValues[toIndex];
+        for (int i = 0; i < sliderSlots.length; i++) {
+            float value = slidersFrom[i] + (slidersTo[i] - slidersFrom[i]) * amount;
+            if (Float.compare(sliderSlots[i].valueFloat, value) != 0) {
+                sliderSlots[i].setValueFloat(value);
+            }
+        }
+        boolean[] toggles = toggleValues[amount < 0.5f ? fromIndex : toIndex];
+        for (int i = 0; i < toggleSlots.length; i++) {
+            toggleSlots[i].setValueBoolean(toggles[i]);
+        }
+        float[] colorsFrom = colorValues[fromIndex];
+        float[] colorsTo = colorValues[toIndex];
+        for (int i = 0; i < colorSlots.length; i++) {
+            int offset = i * 4;
+            float hueDelta = colorsTo[offset] - colorsFrom[offset];
+            if (hueDelta > 0.5f) {
+                hueDelta -= 1;
+            } else if (hueDelta < -0.5f) {
+                hueDelta += 1;
+            }
+            colorSlots[i].setHSBA(
+                    LazyGui.hueModulo(colorsFrom[offset] + hueDelta * amount),
+                    colorsFrom[offset + 1] + (colorsTo[offset + 1] - colorsFrom[offset + 1]) * amount,
+                    colorsFrom[offset + 2] + (colorsTo[offset + 2] - colorsFrom[offset + 2]) * amount,
+                    colorsFrom[offset + 3] + (colorsTo[offset + 3] - colorsFrom[offset + 3]) * amount);
+        }
+    }
+
+    /**
+     * Assigns the slots from the current GUI and fills the value arrays of every preset, unless the GUI did not change since the last time.
+     */
+    private static void lazyCompile() {
+        if (compiledStructureVersion == NodeTree.getStructureVersion()) {
+            return;
+        }
+        compiledStructureVersion = NodeTree.getStructureVersion();
+        List<SliderNode> sliders = new ArrayList<>();
+        List<ToggleNode> toggles = new ArrayList<>();
+        List<ColorPickerFolderNode> colors = new ArrayList<>();
+        for (AbstractNode node : NodeTree.getAllNodes()) {
+            if (node instanceof ColorPickerFolderNode) {
+                colors.add((ColorPickerFolderNode) node);
+            } else if (node instanceof SliderNode && !(node.parent instanceof ColorPickerFolderNode)) {
+                // the sliders inside color pickers are covered by their color slot
+                sliders.add((SliderNode) node);
+            } else if (node instanceof ToggleNode) {
+                toggles.add((ToggleNode) node);
+            }
+        }
+        sliderSlots = sliders.toArray(new SliderNode[0]);
+        toggleSlots = toggles.toArray(new ToggleNode[0]);
+        colorSlots = colors.toArray(new ColorPickerFolderNode[0]);
+        int presetCount = presetStatesByPath.size();
+        sliderValues = new float[presetCount][sliderSlots.length];
+        toggleValues = new boolean[presetCount][toggleSlots.length];
+        colorValues = new float[presetCount][colorSlots.length * 4];
+        PGraphics colorProvider = getColorStore();
+        for (int p = 0; p < presetCount; p++) {
+            Map<String, LoadedNodeState> statesByPath = presetStatesByPath.get(p);
+            for (int i = 0; i < sliderSlots.length; i++) {
+                LoadedNodeState state = statesByPath.get(sliderSlots[i].path);
+                sliderValues[p][i] = state != null && state.hasValueFloat ? state.valueFloat : sliderSlots[i].valueFloat;
+            }
+            for (int i = 0; i < toggleSlots.length; i++) {
+                LoadedNodeState state = statesByPath.get(toggleSlots[i].path);
+                toggleValues[p][i] = state != null && state.hasValueBoolean ? state.valueBoolean : toggleSlots[i].valueBoolean;
+            }
+            for (int i = 0; i < colorSlots.length; i++) {
+                LoadedNodeState state = statesByPath.get(colorSlots[i].path);
+                int hex = colorSlots[i].getHex();
+                if (state != null && state.hexString != null) {
+                    hex = (int) Long.parseLong(state.hexString, 16);
+                }
+                colorValues[p][i * 4] = colorProvider.hue(hex);
+                colorValues[p][i * 4 + 1] = colorProvider.saturation(hex);
+                colorValues[p][i * 4 + 2] = colorProvider.brightness(hex);
+                colorValues[p][i * 4 + 3] = colorProvider.alpha(hex);
+            }
+        }
+    }
+
+    private static void flattenByPath(LoadedNodeState state, Map<String, LoadedNodeState> statesByPath) {
+        if (state.path != null) {
+            statesByPath.put(state.path, state);
+        }
+        if (state.children != null) {
+            for (LoadedNodeState child : state.children) {
+                flattenByPath(child, statesByPath);
+            }
+        }
+    }
+
+    private static boolean isValidIndex(int presetIndex) {
+        if (presetIndex < 0 || presetIndex >= presetStatesByPath.size()) {
+            println("There is no preset at index " + presetIndex + ", " + presetStatesByPath.size() + " presets are preloaded");
+            return false;
+        }
+        return true;
+    }
+}
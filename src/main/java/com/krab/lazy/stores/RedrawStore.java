@@ -0,0 +1,101 @@
+package com.krab.lazy.stores;
+
+/**
+ * Decides whether the GUI canvas needs to be drawn again this frame or whether the canvas from the last drawn frame can be shown as it is.
+ * An idle GUI then costs a single image per frame instead of clearing and drawing every open window.
+ * Whatever can change what the GUI shows either marks the GUI dirty through requestRedraw() or gets compared to its last drawn state here:
+ * <ul>
+ *     <li>user input events, marked by the UserInputPublisher</li>
+ *     <li>value changes, told by the global version of the ChangeStore</li>
+ *     <li>nodes being added or removed, told by the structure version of the NodeTree</li>
+ *     <li>theme colors, fonts and cell size, told by the appearance version of the windows</li>
+ *     <li>the sketch gaining or losing focus, the GUI getting hidden or shown and the sketch resolution</li>
+ *     <li>animations with frames left to draw, which keep asking for the next frame until they settle,
+ *     like the fading grid of SnapToGrid, windows sliding back into bounds or the slider numpad input</li>
+ * </ul>
+ * The GUI can also be limited to a lower refresh rate than the sketch with refreshRateLimit, a change then waits for the next allowed frame.
+ * Only the drawing waits, input events and the scheduled node updates still run every frame, so the values read by the sketch are never late.
+ * While the user drags a control or a window the GUI is drawn on every frame regardless of the limit, so the drag does not feel sluggish.
+ */
+public class RedrawStore {
+    public static boolean skipUnchangedFramesEnabled = true;
+    // maximum GUI frames per second, zero or less draws the GUI on every sketch frame
+    public static float refreshRateLimit = 0;
+    private static boolean dirty = true;
+    private static long nextRedrawNanos = 0;
+    private static long lastChangeVersion = -1;
+    private static int lastStructureVersion = -1;
+    private static long lastAppearanceVersion = -1;
+    private static boolean lastFocused, lastGuiHidden;
+
+    private RedrawStore() {
+
+    }
+
+    /**
+     * Makes the GUI get drawn again on the current frame if it has not been drawn yet, or on the next frame otherwise.
+     */
+    public static void requestRedraw() {
+        dirty = true;
+    }
+
+    /**
+     * Checks whether anything changed since the GUI was last drawn and whether the refresh rate limit allows drawing it now,
+     * forgetting the redraw request when it does. Called by LazyGui once per frame.
+     * @param appearanceVersion the current appearance version of the windows
+     * @param userIsDragging whether the user is dragging a control or a window, which ignores the refresh rate limit
+     * @return whether the GUI canvas must be drawn again this frame
+     */
+    public static boolean consumeRedrawRequest(long appearanceVersion, boolean userIsDragging) {
+        if (!skipUnchangedFramesEnabled) {
+            dirty = true;
+        }
+        if (lastChangeVersion != ChangeStore.getLastVersion()) {
+            lastChangeVersion = ChangeStore.getLastVersion();
+            dirty = true;
+        }
+        if (lastStructureVersion != NodeTree.getStructureVersion()) {
+            lastStructureVersion = NodeTree.getStructureVersion();
+            dirty = true;
+        }
+        if (lastAppearanceVersion != appearanceVersion) {
+            lastAppearanceVersion = appearanceVersion;
+            dirty = true;
+        }
+        if (lastFocused != GlobalReferences.app.focused || lastGuiHidden != LayoutStore.isGuiHidden()) {
+            lastFocused = GlobalReferences.app.focused;
+            lastGuiHidden = LayoutStore.isGuiHidden();
+            dirty = true;
+        }
+        if (!dirty || !isRedrawAllowedNow(userIsDragging)) {
+            // a change that has to wait for the refresh rate limit stays dirty until the next allowed frame
+            return false;
+        }
+        dirty = false;
+        return true;
+    }
+
+    private static boolean isRedrawAllowedNow(boolean userIsDragging) {
+        if (refreshRateLimit <= 0) {
+            return true;
+        }
+        long now = System.nanoTime();
+        long intervalNanos = (long) (1e9 / refreshRateLimit);
+        if (userIsDragging) {
+            // frames drawn during a drag do not count against the schedule, which starts over from now
+            nextRedrawNanos = now + intervalNanos;
+            return true;
+        }
+        if (now - nextRedrawNanos < 0) {
+            return false;
+        }
+        // the schedule moves by whole intervals so a slightly late frame does not push back the ones after it,
+        // it only starts over from now when it fell more than an interval behind, like after a long idle stretch
+        if (now - nextRedrawNanos > intervalNanos) {
+            nextRedrawNanos = now + intervalNanos;
+        } else {
+            nextRedrawNanos += intervalNanos;
+        }
+        return true;
+    }
+}
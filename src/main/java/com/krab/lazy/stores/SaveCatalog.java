@@ -0,0 +1,153 @@
+package com.krab.lazy.stores;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.*;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static processing.core.PApplet.println;
+
+/**
+ * In-memory list of the save files in the save folder, newest first.
+ * The folder is listed and sorted once up front and then again on a background thread whenever a WatchService reports a change in it,
+ * so reading the list from the GUI every frame is just a volatile read of an immutable snapshot.
+ * The save writer also asks for a rescan after every save it writes, in case the platform's WatchService is slow to notice.
+ */
+public class SaveCatalog {
+    private static final long eventBatchingMillis = 50;
+    private static final Object rescanLock = new Object();
+    private static volatile List<File> savesNewestFirst = Collections.emptyList();
+    private static volatile long version = 0;
+    private static File watchedDir;
+    private static String[] fileExtensions;
+    private static Thread watcherThread;
+
+    private SaveCatalog() {
+
+    }
+
+    /**
+     * Lists the folder right away and starts watching it for changes, does nothing when this folder is already being watched.
+     * @param dir save folder
+     * @param extensions only files ending with one of these are considered saves
+     */
+    static void watch(File dir, String... extensions) {
+        synchronized (rescanLock) {
+            if (dir.equals(watchedDir)) {
+                return;
+            }
+            watchedDir = dir;
+            fileExtensions = extensions;
+        }
+        rescan();
+        lazyStartWatcherThread();
+    }
+
+    /**
+     * @return unmodifiable snapshot of the save files sorted by last modified time with the newest first
+     */
+    public static List<File> getSavesNewestFirst() {
+        return savesNewestFirst;
+    }
+
+    /**
+     * @return a number that changes every time the list of saves or their order changes
+     */
+    public static long getVersion() {
+        return version;
+    }
+
+    /**
+     * Lists and sorts the watched folder again and publishes the result if it differs from the current snapshot.
+     */
+    static void rescan() {
+        synchronized (rescanLock) {
+            if (watchedDir == null) {
+                return;
+            }
+            File[] files = watchedDir.listFiles();
+            if (files == null) {
+                files = new File[0];
+            }
+            List<SaveEntry> entries = new ArrayList<>(files.length);
+            for (File file : files) {
+                if (hasSaveExtension(file.getName()) && file.isFile()) {
+                    entries.add(new SaveEntry(file, file.lastModified()));
+                }
+            }
+            entries.sort((o1, o2) -> Long.compare(o2.lastModified, o1.lastModified));
+            File[] sorted = new File[entries.size()];
+            for (int i = 0; i < sorted.length; i++) {
+                sorted[i] = entries.get(i).file;
+            }
+            List<File> result = Collections.unmodifiableList(Arrays.asList(sorted));
+            if (!result.equals(savesNewestFirst)) {
+                savesNewestFirst = result;
+                version++;
+            }
+        }
+    }
+
+    private static boolean hasSaveExtension(String name) {
+        for (String extension : fileExtensions) {
+            if (name.endsWith(extension)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static class SaveEntry {
+        final File file;
+        final long lastModified;
+
+        SaveEntry(File file, long lastModified) {
+            this.file = file;
+            this.lastModified = lastModified;
+        }
+    }
+
+    private static void lazyStartWatcherThread() {
+        synchronized (rescanLock) {
+            if (watcherThread != null) {
+                return;
+            }
+            watcherThread = new Thread(SaveCatalog::watchForever, "LazyGui save catalog");
+            watcherThread.setDaemon(true);
+            watcherThread.start();
+        }
+    }
+
+    private static void watchForever() {
+        Path dir = watchedDir.toPath();
+        WatchService watchService;
+        try {
+            watchService = dir.getFileSystem().newWatchService();
+            dir.register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                    StandardWatchEventKinds.ENTRY_DELETE, StandardWatchEventKinds.ENTRY_MODIFY);
+        } catch (IOException | UnsupportedOperationException e) {
+            println("Could not watch the save folder for changes, the save list will only update after saving: " + e.getMessage());
+            return;
+        }
+        //noinspection InfiniteLoopStatement
+        while (true) {
+            WatchKey key;
+            try {
+                key = watchService.take();
+                // let a burst of events like a temp file being written and moved settle into one rescan
+                Thread.sleep(eventBatchingMillis);
+            } catch (InterruptedException e) {
+                continue;
+            }
+            key.pollEvents();
+            rescan();
+            if (!key.reset()) {
+                println("The save folder is no longer being watched for changes: " + dir);
+                return;
+            }
+        }
+    }
+}
@@ -0,0 +1,224 @@
+package com.krab.lazy.stores;
+
+import com.krab.lazy.nodes.AbstractNode;
+import com.krab.lazy.nodes.FolderNode;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+
+import static processing.core.PApplet.println;
+
+/**
+ * Deduplicated history of saves, stored as a tree of content-addressed blobs shared between all the saves.
+ * Each node is stored as one blob holding its own compact json state on the first line
+ * followed by the hashes of its children's blobs, one per line, so a blob's hash covers its whole subtree.
+ * A save is then just a tiny manifest file naming the hash of the root blob.
+ * Writing a save only writes the blobs that are not on disk yet, which are the changed nodes and their ancestors,
+ * and a save whose root hash matches the previous one is not written at all.
+ * Blobs are kept in a "blobs" folder next to the manifests, named by their SHA-1 hash and sharded by its first two characters.
+ */
+public class SaveHistoryStore {
+    static final String MANIFEST_EXTENSION = ".manifest";
+    private static final String MANIFEST_HEADER = "lazygui save history 1";
+    private static final String MANIFEST_ROOT_PREFIX = "root ";
+    private static final String BLOBS_FOLDER_NAME = "blobs";
+
+    private SaveHistoryStore() {
+
+    }
+
+    /**
+     * Hashes the whole tree and writes the blobs that are missing from the blob folder.
+     * Blobs are written on the calling thread and forced to disk before the manifest gets queued,
+     * so a manifest never names a blob that a crash or a power loss could take away.
+     * A blob that exists with the wrong size, like one left empty by a power loss, is written again.
+     * @param root root of the tree to save
+     * @param saveDir folder with the manifests
+     * @return hash of the root blob to put in the manifest
+     * @throws IOException when writing a blob fails
+     */
+    static String writeBlobs(AbstractNode root, File saveDir) throws IOException {
+        MessageDigest digest = createDigest();
+        Path blobDir = getBlobDir(saveDir);
+        List<Path> writtenBlobs = new ArrayList<>();
+        String rootHash = writeBlobsRecursively(root, blobDir, digest, writtenBlobs);
+        forceToDisk(writtenBlobs);
+        return rootHash;
+    }
+
+    private static String writeBlobsRecursively(AbstractNode node, Path blobDir, MessageDigest digest, List<Path> writtenBlobs) throws IOException {
+        StringBuilder blob = new StringBuilder(NodeTreeJsonWriter.toNodeStateWithWindowJsonString(node));
+        if (node instanceof FolderNode) {
+            for (AbstractNode child : ((FolderNode) node).children) {
+                blob.append('\n').append(writeBlobsRecursively(child, blobDir, digest, writtenBlobs));
+            }
+        }
+        byte[] content = blob.toString().getBytes(StandardCharsets.UTF_8);
+        String hash = toHex(digest.digest(content));
+        Path blobPath = getBlobPath(blobDir, hash);
+        if (!Files.exists(blobPath) || Files.size(blobPath) != content.length) {
+            // blobs are not forced to disk one by one while writing, that would make the first save of a big tree take seconds
+            AsyncSaveWriter.writeAtomically(blobPath, content, false);
+            writtenBlobs.add(blobPath);
+        }
+        return hash;
+    }
+
+    /**
+     * Forces the new blobs and the folders holding their names to disk, after all of them were handed to the OS to write at once.
+     */
+    private static void forceToDisk(List<Path> writtenBlobs) throws IOException {
+        Set<Path> folders = new HashSet<>();
+        for (Path blobPath : writtenBlobs) {
+            try (FileChannel channel = FileChannel.open(blobPath, StandardOpenOption.READ)) {
+                channel.force(true);
+            }
+            folders.add(blobPath.getParent());
+            // a new shard folder is itself a new name in the blob folder
+            folders.add(blobPath.getParent().getParent());
+        }
+        for (Path folder : folders) {
+            try (FileChannel channel = FileChannel.open(folder, StandardOpenOption.READ)) {
+                channel.force(true);
+            } catch (IOException e) {
+                // some platforms like windows cannot open a folder to force it, the blob contents are still forced above
+            }
+        }
+    }
+
+    static byte[] createManifest(String rootHash) {
+        return (MANIFEST_HEADER + "\n" + MANIFEST_ROOT_PREFIX + rootHash + "\n").getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * @param manifest manifest file
+     * @return hash of the root blob named in the manifest
+     * @throws IOException when the file cannot be read or is not a manifest
+     */
+    static String readRootHash(File manifest) throws IOException {
+        try (BufferedReader reader = Files.newBufferedReader(manifest.toPath(), StandardCharsets.UTF_8)) {
+            String header = reader.readLine();
+            String rootLine = reader.readLine();
+            if (!MANIFEST_HEADER.equals(header) || rootLine == null || !rootLine.startsWith(MANIFEST_ROOT_PREFIX)) {
+                throw new IOException("Not a save history manifest: " + manifest.getPath());
+            }
+            return rootLine.substring(MANIFEST_ROOT_PREFIX.length()).trim();
+        }
+    }
+
+    /**
+     * Reassembles the saved tree from the shared blobs.
+     * @param manifest manifest file of the save
+     * @return loaded state tree just like the one read from a json save
+     * @throws IOException when the manifest or any of its blobs cannot be read
+     */
+    static LoadedNodeState read(File manifest) throws IOException {
+        Path blobDir = getBlobDir(manifest.getAbsoluteFile().getParentFile());
+        return readBlobsRecursively(readRootHash(manifest), blobDir);
+    }
+
+    private static LoadedNodeState readBlobsRecursively(String hash, Path blobDir) throws IOException {
+        List<String> lines = Files.readAllLines(getBlobPath(blobDir, hash), StandardCharsets.UTF_8);
+        if (lines.isEmpty()) {
+            throw new IOException("Empty save history blob: " + hash);
+        }
+        LoadedNodeState state = NodeStateJsonReader.read(lines.get(0));
+        if (lines.size() > 1) {
+            state.children = new ArrayList<>(lines.size() - 1);
+            for (int i = 1; i < lines.size(); i++) {
+                state.children.add(readBlobsRecursively(lines.get(i), blobDir));
+            }
+        }
+        return state;
+    }
+
+    /**
+     * Deletes the blobs that none of the given manifests can reach anymore.
+     * Must not run while a save is being written, because a save only writes the blobs that already exist.
+     * @param saveDir folder with the manifests
+     * @param manifests every manifest that is still in use
+     * @return number of deleted blobs
+     */
+    static int deleteUnreferencedBlobs(File saveDir, List<File> manifests) {
+        Path blobDir = getBlobDir(saveDir);
+        if (!Files.isDirectory(blobDir)) {
+            return 0;
+        }
+        Set<String> reachable = new HashSet<>();
+        for (File manifest : manifests) {
+            try {
+                collectReachableHashes(readRootHash(manifest), blobDir, reachable);
+            } catch (IOException e) {
+                println("Could not read save history manifest, keeping all blobs: " + e.getMessage());
+                return 0;
+            }
+        }
+        int deletedCount = 0;
+        File[] shards = blobDir.toFile().listFiles(File::isDirectory);
+        if (shards == null) {
+            return 0;
+        }
+        for (File shard : shards) {
+            File[] blobs = shard.listFiles();
+            if (blobs == null) {
+                continue;
+            }
+            for (File blob : blobs) {
+                if (!reachable.contains(shard.getName() + blob.getName()) && blob.delete()) {
+                    deletedCount++;
+                }
+            }
+        }
+        return deletedCount;
+    }
+
+    private static void collectReachableHashes(String rootHash, Path blobDir, Set<String> reachable) throws IOException {
+        Deque<String> stack = new ArrayDeque<>();
+        stack.push(rootHash);
+        while (!stack.isEmpty()) {
+            String hash = stack.pop();
+            if (!reachable.add(hash)) {
+                continue;
+            }
+            List<String> lines = Files.readAllLines(getBlobPath(blobDir, hash), StandardCharsets.UTF_8);
+            for (int i = 1; i < lines.size(); i++) {
+                stack.push(lines.get(i));
+            }
+        }
+    }
+
+    private static Path getBlobDir(File saveDir) {
+        return saveDir.toPath().resolve(BLOBS_FOLDER_NAME);
+    }
+
+    private static Path getBlobPath(Path blobDir, String hash) {
+        return blobDir.resolve(hash.substring(0, 2)).resolve(hash.substring(2));
+    }
+
+    private static MessageDigest createDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-1");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-1 is required to be available on every java platform", e);
+        }
+    }
+
+    private static String toHex(byte[] bytes) {
+        char[] hexDigits = "0123456789abcdef".toCharArray();
+        char[] hex = new char[bytes.length * 2];
+        for (int i = 0; i < bytes.length; i++) {
+            hex[i * 2] = hexDigits[(bytes[i] >> 4) & 0xF];
+            hex[i * 2 + 1] = hexDigits[bytes[i] & 0xF];
+        }
+        return new String(hex);
+    }
+}
@@ -0,0 +1,176 @@
+package com.krab.lazy.stores;
+
+import com.krab.lazy.nodes.AbstractNode;
+import com.krab.lazy.nodes.FolderNode;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * Save file split into one shard per top-level node, so the shards can be written and parsed in parallel on the common ForkJoin pool.
+ * <pre>
+ * lazygui sharded save 1
+ * {compact json of the root's own state and window}
+ * shard count
+ * byte length of each shard, one per line in the order of the root's children
+ * the shards back to back, each one the compact json of a top-level node with its whole subtree
+ * </pre>
+ * The shards are always merged back in the order of the index no matter which one finished first,
+ * so the loaded tree is the same as the one read from a single json save of the same tree.
+ * While the live tree is being written the animation thread only waits for the tasks, so nothing changes the nodes they read.
+ * A captured copy of the tree can be written from any thread instead, which is how the save writer encodes the saves it queues.
+ */
+public class ShardedSaveFormat {
+    static final String SHARDED_EXTENSION = ".lgshards";
+    private static final String HEADER = "lazygui sharded save 1";
+
+    private ShardedSaveFormat() {
+
+    }
+
+    /**
+     * @param firstBytes the first bytes of a file
+     * @return whether they start with the header of a sharded save
+     */
+    static boolean hasHeader(byte[] firstBytes) {
+        byte[] header = HEADER.getBytes(StandardCharsets.UTF_8);
+        if (firstBytes.length < header.length) {
+            return false;
+        }
+        for (int i = 0; i < header.length; i++) {
+            if (firstBytes[i] != header[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    static int getHeaderLength() {
+        return HEADER.length();
+    }
+
+    /**
+     * Writes every top-level node of the live tree to its own shard in parallel.
+     * Must be called from the thread that owns the tree, which then waits for all the shards.
+     * @param root root of the live tree
+     * @return the complete contents of a sharded save file
+     */
+    public static byte[] encode(FolderNode root) {
+        List<AbstractNode> topLevelNodes = new ArrayList<>(root.children);
+        List<ForkJoinTask<byte[]>> tasks = new ArrayList<>(topLevelNodes.size());
+        ForkJoinPool pool = ForkJoinPool.commonPool();
+        for (AbstractNode node : topLevelNodes) {
+            tasks.add(pool.submit(() -> NodeTreeJsonWriter.toJsonBytes(node, false)));
+        }
+        return joinShards(NodeTreeJsonWriter.toNodeStateWithWindowJsonString(root), tasks);
+    }
+
+    /**
+     * Writes every top-level node of a captured tree to its own shard in parallel, producing the same file as encode() of the live tree.
+     * @param root root of a tree captured by LoadedNodeState.capture() that nothing changes anymore
+     * @return the complete contents of a sharded save file
+     */
+    public static byte[] encode(LoadedNodeState root) {
+        List<LoadedNodeState> topLevelNodes = root.children == null ? new ArrayList<>() : root.children;
+        List<ForkJoinTask<byte[]>> tasks = new ArrayList<>(topLevelNodes.size());
+        ForkJoinPool pool = ForkJoinPool.commonPool();
+        for (LoadedNodeState node : topLevelNodes) {
+            tasks.add(pool.submit(() -> NodeTreeJsonWriter.toJsonBytes(node, false)));
+        }
+        return joinShards(NodeTreeJsonWriter.toNodeStateWithWindowJsonString(root), tasks);
+    }
+
+    private static byte[] joinShards(String rootState, List<ForkJoinTask<byte[]>> tasks) {
+        List<byte[]> shards = new ArrayList<>(tasks.size());
+        StringBuilder index = new StringBuilder(HEADER).append('\n')
+                .append(rootState).append('\n')
+                .append(tasks.size()).append('\n');
+        int shardBytes = 0;
+        for (ForkJoinTask<byte[]> task : tasks) {
+            byte[] shard = task.join();
+            shards.add(shard);
+            shardBytes += shard.length;
+            index.append(shard.length).append('\n');
+        }
+        byte[] indexBytes = index.toString().getBytes(StandardCharsets.UTF_8);
+        ByteArrayOutputStream file = new ByteArrayOutputStream(indexBytes.length + shardBytes);
+        file.write(indexBytes, 0, indexBytes.length);
+        for (byte[] shard : shards) {
+            file.write(shard, 0, shard.length);
+        }
+        return file.toByteArray();
+    }
+
+    /**
+     * Parses all the shards in parallel and merges them under the root in their saved order.
+     * @param bytes the complete contents of a sharded save file
+     * @return root of the saved tree
+     * @throws IOException when the file is not a sharded save or any of its shards cannot be parsed
+     */
+    public static LoadedNodeState decode(byte[] bytes) throws IOException {
+        LineCursor cursor = new LineCursor(bytes);
+        if (!HEADER.equals(cursor.nextLine())) {
+            throw new IOException("Not a sharded save file");
+        }
+        LoadedNodeState root = NodeStateJsonReader.read(cursor.nextLine());
+        int shardCount = cursor.nextInt();
+        int[] shardLengths = new int[shardCount];
+        for (int i = 0; i < shardCount; i++) {
+            shardLengths[i] = cursor.nextInt();
+        }
+        List<ForkJoinTask<LoadedNodeState>> tasks = new ArrayList<>(shardCount);
+        ForkJoinPool pool = ForkJoinPool.commonPool();
+        int offset = cursor.position;
+        for (int i = 0; i < shardCount; i++) {
+            int shardOffset = offset;
+            int shardLength = shardLengths[i];
+            if (shardOffset + shardLength > bytes.length) {
+                throw new IOException("Sharded save file is truncated");
+            }
+            tasks.add(pool.submit(() -> NodeStateJsonReader.read(new InputStreamReader(
+                    new ByteArrayInputStream(bytes, shardOffset, shardLength), StandardCharsets.UTF_8))));
+            offset += shardLength;
+        }
+        root.children = new ArrayList<>(shardCount);
+        for (ForkJoinTask<LoadedNodeState> task : tasks) {
+            try {
+                root.children.add(task.join());
+            } catch (RuntimeException e) {
+                throw new IOException("Could not parse a shard of a sharded save: " + e.getMessage(), e);
+            }
+        }
+        return root;
+    }
+
+    private static class LineCursor {
+        final byte[] bytes;
+        int position = 0;
+
+        LineCursor(byte[] bytes) {
+            this.bytes = bytes;
+        }
+
+        String nextLine() throws IOException {
+            int start = position;
+            while (position < bytes.length && bytes[position] != '\n') {
+                position++;
+            }
+            if (position == bytes.length) {
+                throw new IOException("Sharded save file index is truncated");
+            }
+            return new String(bytes, start, position++ - start, StandardCharsets.UTF_8);
+        }
+
+        int nextInt() throws IOException {
+            try {
+                return Integer.parseInt(nextLine());
+            } catch (NumberFormatException e) {
+                throw new IOException("Malformed sharded save file index", e);
+            }
+        }
+    }
+}
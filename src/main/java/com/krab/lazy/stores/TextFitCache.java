@@ -0,0 +1,195 @@
+package com.krab.lazy.stores;
+
+import processing.core.PFont;
+import processing.core.PGraphics;
+
+import java.util.Arrays;
+import java.util.WeakHashMap;
+
+/**
+ * Fits texts into a given width for FontStore without measuring a new string for every character it tries.
+ * Every font gets a table of glyph advances that is filled in as its characters are first seen,
+ * holding the same advances that text() places the glyphs by.
+ * The widths of a text's prefixes and suffixes are summed from that table once and kept in a small memo along with the last fitted results,
+ * so the labels drawn every frame get their fitted substring back without measuring or allocating anything,
+ * and fitting a known text into a new width is a binary search over its prefix widths.
+ * Widths follow PGraphics.textWidth(), where a text with line breaks is as wide as its widest line.
+ */
+class TextFitCache {
+    // a power of two so that the memo slot is just the low bits of the hash
+    private static final int MEMO_SIZE = 256;
+    private static final int ADVANCE_PAGE_SIZE = 256;
+    private static final WeakHashMap<PFont, float[][]> advancePagesByFont = new WeakHashMap<>();
+    private static final MemoEntry[] memo = new MemoEntry[MEMO_SIZE];
+
+    private TextFitCache() {
+
+    }
+
+    private static class MemoEntry {
+        PFont font;
+        float textSize;
+        String text;
+        // prefixWidths[i] is the width of the first i characters, suffixWidths[i] is the width from the i-th character to the end
+        float[] prefixWidths = new float[32];
+        float[] suffixWidths = new float[32];
+        boolean suffixWidthsReady;
+        float startFitWidth;
+        String startFitResult;
+        float endFitWidth;
+        String endFitResult;
+    }
+
+    static String getSubstringFromStartToFit(PGraphics pg, String text, float availableWidth) {
+        MemoEntry entry = findOrMeasure(pg, text);
+        if (entry.startFitResult == null || entry.startFitWidth != availableWidth) {
+            int length = text.length();
+            // the longest prefix narrower than the available width, the prefix widths never decrease
+            int count = 0;
+            if (availableWidth > 0) {
+                int high = length;
+                while (count < high) {
+                    int middle = (count + high + 1) >>> 1;
+                    if (entry.prefixWidths[middle] < availableWidth) {
+                        count = middle;
+                    } else {
+                        high = middle - 1;
+                    }
+                }
+            }
+            entry.startFitResult = count == length ? text : text.substring(0, count);
+            entry.startFitWidth = availableWidth;
+        }
+        return entry.startFitResult;
+    }
+
+    static String getSubstringFromEndToFit(PGraphics pg, String text, float availableWidth) {
+        MemoEntry entry = findOrMeasure(pg, text);
+        if (entry.endFitResult == null || entry.endFitWidth != availableWidth) {
+            int length = text.length();
+            if (!entry.suffixWidthsReady) {
+                measureSuffixes(entry);
+            }
+            // the longest suffix narrower than the available width, the suffix widths never increase
+            int start = length;
+            if (availableWidth > 0) {
+                int low = 0;
+                while (low < start) {
+                    int middle = (low + start) >>> 1;
+                    if (entry.suffixWidths[middle] < availableWidth) {
+                        start = middle;
+                    } else {
+                        low = middle + 1;
+                    }
+                }
+            }
+            entry.endFitResult = start == 0 ? text : text.substring(start);
+            entry.endFitWidth = availableWidth;
+        }
+        return entry.endFitResult;
+    }
+
+    /**
+     * Forgets the memoized texts, so that they do not keep fonts that are no longer used from being garbage collected.
+     */
+    static void clear() {
+        Arrays.fill(memo, null);
+    }
+
+    private static MemoEntry findOrMeasure(PGraphics pg, String text) {
+        if (pg.textFont == null) {
+            // lets Processing load its default font or complain the same way it does for textWidth()
+            pg.textWidth("");
+        }
+        PFont font = pg.textFont;
+        float textSize = pg.textSize;
+        int hash = text.hashCode() * 31 + System.identityHashCode(font);
+        int slot = (hash ^ (hash >>> 16)) & (MEMO_SIZE - 1);
+        MemoEntry entry = memo[slot];
+        if (entry == null) {
+            entry = new MemoEntry();
+            memo[slot] = entry;
+        } else if (entry.font == font && entry.textSize == textSize && text.equals(entry.text)) {
+            return entry;
+        }
+        entry.font = font;
+        entry.textSize = textSize;
+        entry.text = text;
+        entry.startFitResult = null;
+        entry.endFitResult = null;
+        entry.suffixWidthsReady = false;
+        measurePrefixes(entry);
+        return entry;
+    }
+
+    private static void measurePrefixes(MemoEntry entry) {
+        String text = entry.text;
+        int length = text.length();
+        if (entry.prefixWidths.length < length + 1) {
+            entry.prefixWidths = new float[length + 1];
+        }
+        float[][] advancePages = getAdvancePages(entry.font);
+        float widestLine = 0;
+        float currentLine = 0;
+        entry.prefixWidths[0] = 0;
+        for (int i = 0; i < length; i++) {
+            char character = text.charAt(i);
+            if (character == '\n') {
+                currentLine = 0;
+            } else {
+                currentLine += getAdvance(advancePages, entry.font, character) * entry.textSize;
+                widestLine = Math.max(widestLine, currentLine);
+            }
+            entry.prefixWidths[i + 1] = widestLine;
+        }
+    }
+
+    private static void measureSuffixes(MemoEntry entry) {
+        String text = entry.text;
+        int length = text.length();
+        if (entry.suffixWidths.length < length + 1) {
+            entry.suffixWidths = new float[length + 1];
+        }
+        float[][] advancePages = getAdvancePages(entry.font);
+        float widestLine = 0;
+        float currentLine = 0;
+        entry.suffixWidths[length] = 0;
+        for (int i = length - 1; i >= 0; i--) {
+            char character = text.charAt(i);
+            if (character == '\n') {
+                currentLine = 0;
+            } else {
+                currentLine += getAdvance(advancePages, entry.font, character) * entry.textSize;
+                widestLine = Math.max(widestLine, currentLine);
+            }
+            entry.suffixWidths[i] = widestLine;
+        }
+        entry.suffixWidthsReady = true;
+    }
+
+    private static float[][] getAdvancePages(PFont font) {
+        float[][] advancePages = advancePagesByFont.get(font);
+        if (advancePages == null) {
+            // the characters are split into pages that get allocated once the font is asked about any character in them
+            advancePages = new float[(Character.MAX_VALUE + 1) / ADVANCE_PAGE_SIZE][];
+            advancePagesByFont.put(font, advancePages);
+        }
+        return advancePages;
+    }
+
+    private static float getAdvance(float[][] advancePages, PFont font, char character) {
+        float[] page = advancePages[character / ADVANCE_PAGE_SIZE];
+        if (page == null) {
+            page = new float[ADVANCE_PAGE_SIZE];
+            Arrays.fill(page, Float.NaN);
+            advancePages[character / ADVANCE_PAGE_SIZE] = page;
+        }
+        float advance = page[character % ADVANCE_PAGE_SIZE];
+        if (Float.isNaN(advance)) {
+            // the advance relative to the font size, a font created lazily also creates the glyph here
+            advance = font.width(character);
+            page[character % ADVANCE_PAGE_SIZE] = advance;
+        }
+        return advance;
+    }
+}
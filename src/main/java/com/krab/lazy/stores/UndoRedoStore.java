@@ -1,120 +1,219 @@
 package com.krab.lazy.stores;
 
-import com.google.gson.JsonArray;
-import com.google.gson.JsonElement;
+import com.krab.lazy.nodes.AbstractNode;
+import com.krab.lazy.nodes.FolderNode;
 
-import java.util.ArrayList;
+import java.util.*;
 
 import static processing.core.PApplet.println;
 
 /**
- * For internal use by LazyGui, it's fed new states by nodes after a change and also triggered manually by the undo/redo hotkeys.
- * The stateStack is an ordered list of full json saves of the GUI state, which combines undo and redo into one stack
- *      and the stateIndex keeps track of the where we currently are inside the combined stack.
- * Indexes in the stack larger than stateIndex are for undo, indexes before it are redo.
- * undo() increments the index by 1 and tries to apply the state it found there.
- * redo() decrements the index by 1 and tries to apply the state it found there.
- * onUndoableActionEnded() clears the redo by removing all elements before the stateIndex,
- *      sets stateIndex to 0 and then inserts the new action at index 0.
+ * For internal use by LazyGui, it's told by nodes when a user action ends and also triggered manually by the undo/redo hotkeys.
+ * Every node's value state is remembered as a small compact json string without its children or window.
+ * When an action ends, only the nodes whose change version grew since the last action are serialized again
+ *      and the ones whose state really differs are recorded as one history entry of per-node before and after states.
+ * The history is an ordered list of these entries with appliedEntryCount marking where we currently are inside it.
+ * Entries before appliedEntryCount can be undone, entries from appliedEntryCount onwards can be redone.
+ * undo() applies the before states of the last applied entry directly to its nodes, redo() applies the after states of the next one.
+ * onUndoableActionEnded() drops all the redo entries before appending the new one.
+ * The oldest entries are evicted whenever the estimated size of the history grows over memoryBudgetBytes.
+ * Window positions and sizes are not part of the undo history.
+ * The after-states of every new entry and the states an undo or redo ends up applying are also passed on to the ChangeJournal.
  */
 public class UndoRedoStore {
     private static final boolean debugPrint = false;
-    private static final String debugTopLevelTextNodeName = "font size";
-    private static final String debugNodeValueKey = "valueFloat";
+    public static long memoryBudgetBytes = 16L * 1024 * 1024;
+
+    private static final Map<AbstractNode, String> committedStates = new HashMap<>();
+    private static final ArrayList<HistoryEntry> history = new ArrayList<>();
+    private static int appliedEntryCount = 0;
+    private static long historyBytes = 0;
+    private static long lastCommittedVersion = 0;
+    private static boolean initialized = false;
+
+    private static class HistoryEntry {
+        final AbstractNode[] nodes;
+        final String[] statesBefore;
+        final String[] statesAfter;
+        final long estimatedBytes;
+
+        HistoryEntry(AbstractNode[] nodes, String[] statesBefore, String[] statesAfter) {
+            this.nodes = nodes;
+            this.statesBefore = statesBefore;
+            this.statesAfter = statesAfter;
+            long bytes = 64;
+            for (int i = 0; i < nodes.length; i++) {
+                bytes += 64 + 2L * (statesBefore[i].length() + statesAfter[i].length());
+            }
+            this.estimatedBytes = bytes;
+        }
+    }
+
+    private UndoRedoStore() {
 
-    static ArrayList<String> stateStack = new ArrayList<>();
-    static int stateIndex = 0;
+    }
 
+    /**
+     * Remembers the current state of every node as the starting point of the undo history.
+     */
     public static void init(){
-        onUndoableActionEnded();
+        history.clear();
+        appliedEntryCount = 0;
+        historyBytes = 0;
+        committedStates.clear();
+        for (AbstractNode node : NodeTree.getAllNodes()) {
+            committedStates.put(node, getNodeState(node));
+        }
+        lastCommittedVersion = ChangeStore.getLastVersion();
+        initialized = true;
     }
 
-    public static void onUndoableActionEnded(){
-        String newState = JsonSaveStore.getTreeAsJsonString();
-        if(!somethingActuallyChanged(newState)){
+    /**
+     * Remembers the state of a node added to the tree after init(), so its first change can be undone.
+     */
+    static void onNodeIndexed(AbstractNode node){
+        if(!initialized){
             return;
         }
-        trimStack(stateIndex);
-        stateStack.add(0, newState);
-        stateIndex = 0;
-        if(debugPrint){
-            println("new action added at 0, current list:");
-            printStack();
-        }
+        committedStates.putIfAbsent(node, getNodeState(node));
     }
 
-    private static boolean somethingActuallyChanged(String newState) {
-        if(stateStack.isEmpty()){
-            return true;
-        }
-        return !stateStack.get(stateIndex).equals(newState);
+    static void onNodeUnindexed(AbstractNode node){
+        committedStates.remove(node);
     }
 
-    private static void trimStack(int stateIndex) {
-        if(stateStack.isEmpty()){
+    public static void onUndoableActionEnded(){
+        if(!initialized || ChangeStore.getLastVersion() == lastCommittedVersion){
+            return;
+        }
+        List<AbstractNode> nodes = new ArrayList<>();
+        List<String> statesBefore = new ArrayList<>();
+        List<String> statesAfter = new ArrayList<>();
+        for (AbstractNode node : findNodesChangedSinceLastCommit()) {
+            String stateAfter = getNodeState(node);
+            String stateBefore = committedStates.put(node, stateAfter);
+            if(stateBefore == null || stateBefore.equals(stateAfter)){
+                continue;
+            }
+            nodes.add(node);
+            statesBefore.add(stateBefore);
+            statesAfter.add(stateAfter);
+        }
+        lastCommittedVersion = ChangeStore.getLastVersion();
+        if(nodes.isEmpty()){
             return;
         }
-        stateStack.removeAll(stateStack.subList(0, stateIndex));
+        trimRedoEntries();
+        HistoryEntry entry = new HistoryEntry(nodes.toArray(new AbstractNode[0]),
+                statesBefore.toArray(new String[0]), statesAfter.toArray(new String[0]));
+        history.add(entry);
+        historyBytes += entry.estimatedBytes;
+        ChangeJournal.append(entry.statesAfter);
+        appliedEntryCount = history.size();
+        evictOldestEntriesOverBudget();
+        if(debugPrint){
+            println("new action with " + entry.nodes.length + " changed nodes added, " + describeHistory());
+        }
     }
 
     public static void undo(){
-        tryLoadStateAtIndex(stateIndex + 1);
+        if(appliedEntryCount == 0){
+            return;
+        }
+        HistoryEntry entry = history.get(appliedEntryCount - 1);
+        applyStates(entry.nodes, entry.statesBefore);
+        appliedEntryCount--;
         if(debugPrint) {
-            println("undo (+1)", stateIndex, "/", stateStack.size() - 1);
-            printStack();
+            println("undo, " + describeHistory());
         }
     }
 
     public static void redo(){
-        tryLoadStateAtIndex(stateIndex - 1);
+        if(appliedEntryCount == history.size()){
+            return;
+        }
+        HistoryEntry entry = history.get(appliedEntryCount);
+        applyStates(entry.nodes, entry.statesAfter);
+        appliedEntryCount++;
         if(debugPrint) {
-            println("redo (-1)", stateIndex, "/", stateStack.size() - 1);
-            printStack();
+            println("redo, " + describeHistory());
         }
     }
 
-    private static void tryLoadStateAtIndex(int newIndex) {
-        if(!validateNewIndex(newIndex)){
-            return;
+    public static long getHistorySizeEstimateBytes(){
+        return historyBytes;
+    }
+
+    /**
+     * Walks down from the root, skipping every folder whose change version says nothing below it changed since the last commit.
+     * @return changed nodes in breadth first order, so parents always come before their children
+     */
+    private static List<AbstractNode> findNodesChangedSinceLastCommit() {
+        List<AbstractNode> changedNodes = new ArrayList<>();
+        Queue<AbstractNode> queue = new ArrayDeque<>();
+        queue.offer(NodeTree.getRoot());
+        while (!queue.isEmpty()) {
+            AbstractNode node = queue.poll();
+            if (node.getChangeVersion() <= lastCommittedVersion) {
+                continue;
+            }
+            changedNodes.add(node);
+            if (node instanceof FolderNode) {
+                for (AbstractNode child : ((FolderNode) node).children) {
+                    queue.offer(child);
+                }
+            }
         }
-        String newState = stateStack.get(newIndex);
-        JsonSaveStore.loadStateFromJsonString(newState);
-        stateIndex = newIndex;
+        return changedNodes;
     }
 
-    private static boolean validateNewIndex(int newIndex) {
-        if(newIndex == stateIndex){
-            if(debugPrint){
-                println("validation failed: can't apply the same index as is already selected (" + newIndex + ")");
+    /**
+     * Applies the states from last to first, so children are restored before their parents,
+     * which lets folders like the color picker have the last word about their children's values.
+     * Changes made since the last commit that are not part of the entry are accepted as committed first,
+     * so they do not end up in the next history entry.
+     */
+    private static void applyStates(AbstractNode[] nodes, String[] states) {
+        for (AbstractNode node : findNodesChangedSinceLastCommit()) {
+            committedStates.put(node, getNodeState(node));
+        }
+        for (int i = nodes.length - 1; i >= 0; i--) {
+            AbstractNode node = nodes[i];
+            if (NodeTree.findNode(node.path) != node) {
+                continue;
             }
-            return false;
+            node.overwriteState(JsonSaveStore.getNodeStateFromString(states[i]));
         }
-        if(newIndex < 0 || newIndex > stateStack.size() - 1){
-            if(debugPrint) {
-                println("validation failed: new index out of bounds (" + newIndex + ")");
+        List<String> appliedStates = new ArrayList<>(nodes.length);
+        for (AbstractNode node : nodes) {
+            if (committedStates.containsKey(node)) {
+                String state = getNodeState(node);
+                committedStates.put(node, state);
+                appliedStates.add(state);
             }
-            return false;
         }
-        return true;
+        ChangeJournal.append(appliedStates.toArray(new String[0]));
+        lastCommittedVersion = ChangeStore.getLastVersion();
     }
 
-    private static void printStack() {
-        for(int i = 0; i < stateStack.size(); i++){
-            println(i == stateIndex ? "(" + i + ")" : " " + i + " ",
-                    "\"" + parseTextValue(stateStack.get(i)) + "\"");
+    private static void trimRedoEntries() {
+        while (history.size() > appliedEntryCount) {
+            historyBytes -= history.remove(history.size() - 1).estimatedBytes;
         }
-        println("---\n");
     }
 
-    private static String parseTextValue(String fullJsonSave) {
-        JsonElement root = JsonSaveStore.getJsonElementFromString(fullJsonSave);
-        JsonArray children = root.getAsJsonObject().get("children").getAsJsonArray();
-        for (int i = 0; i < children.size(); i++) {
-            if(children.get(i).getAsJsonObject().get("path").getAsString().equals(debugTopLevelTextNodeName)){
-                return children.get(i).getAsJsonObject().get(debugNodeValueKey).getAsString();
-            }
+    private static void evictOldestEntriesOverBudget() {
+        while (historyBytes > memoryBudgetBytes && history.size() > 1) {
+            historyBytes -= history.remove(0).estimatedBytes;
+            appliedEntryCount = Math.max(0, appliedEntryCount - 1);
         }
-        return "not found";
     }
 
+    private static String getNodeState(AbstractNode node) {
+        return NodeTreeJsonWriter.toNodeStateJsonString(node);
+    }
+
+    private static String describeHistory() {
+        return "history: " + appliedEntryCount + " / " + history.size() + " entries applied, ~" + historyBytes + " bytes";
+    }
 }
@@ -0,0 +1,61 @@
+package com.krab.lazy.stores;
+
+import com.krab.lazy.nodes.AbstractNode;
+
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Calls AbstractNode.updateValuesRegardlessOfParentWindowOpenness() once per frame on registered nodes only.
+ * Nodes register themselves when they become active (being dragged, waiting for a keyboard buffer to apply...)
+ * and unregister when they have nothing left to do, so the per-frame cost scales with the number of active nodes.
+ * Nodes that always need to run every frame simply stay registered.
+ * Registering and unregistering is allowed from inside an update, the change takes effect on the next frame.
+ */
+public class UpdateScheduler {
+    private static final Set<AbstractNode> scheduledNodes = new LinkedHashSet<>();
+    private static AbstractNode[] snapshot = new AbstractNode[0];
+    private static boolean snapshotOutdated = false;
+
+    private UpdateScheduler() {
+
+    }
+
+    public static void register(AbstractNode node) {
+        if (scheduledNodes.add(node)) {
+            snapshotOutdated = true;
+        }
+    }
+
+    public static void unregister(AbstractNode node) {
+        if (scheduledNodes.remove(node)) {
+            snapshotOutdated = true;
+        }
+    }
+
+    public static boolean isRegistered(AbstractNode node) {
+        return scheduledNodes.contains(node);
+    }
+
+    public static int getRegisteredCount() {
+        return scheduledNodes.size();
+    }
+
+    /**
+     * Updates every registered node in the order they were registered in.
+     * Nodes unregistered by an earlier node's update during this pass are skipped.
+     */
+    public static void updateScheduledNodes() {
+        if (snapshotOutdated) {
+            snapshot = scheduledNodes.toArray(new AbstractNode[0]);
+            snapshotOutdated = false;
+        }
+        AbstractNode[] nodesToUpdate = snapshot;
+        for (AbstractNode node : nodesToUpdate) {
+            if (snapshotOutdated && !scheduledNodes.contains(node)) {
+                continue;
+            }
+            node.updateValuesRegardlessOfParentWindowOpenness();
+        }
+    }
+}
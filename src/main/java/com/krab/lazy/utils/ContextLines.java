@@ -1,11 +1,9 @@
 package com.krab.lazy.utils;
 
 import com.krab.lazy.nodes.FolderNode;
-import com.krab.lazy.nodes.NodeType;
 import com.krab.lazy.stores.GlobalReferences;
 import com.krab.lazy.stores.NodeTree;
 import com.krab.lazy.stores.NormColorStore;
-import com.krab.lazy.nodes.AbstractNode;
 import processing.core.PConstants;
 import processing.core.PGraphics;
 
@@ -43,16 +41,11 @@ public class ContextLines {
         pg.fill(lineStroke);
         pg.strokeCap(PConstants.SQUARE);
         pg.strokeWeight(weight);
-        List<AbstractNode> allNodes = NodeTree.getAllNodesAsList();
         if (showContextLinesMode == SHOW_CONTEXT_LINES_MODE_NEVER) {
             pg.popStyle();
             return;
         }
-        for (AbstractNode node : allNodes) {
-            if (node.type != NodeType.FOLDER) {
-                continue;
-            }
-            FolderNode folderNode = (FolderNode) node;
+        for (FolderNode folderNode : NodeTree.getAllFolders()) {
             if (folderNode.window == null || folderNode.window.closed || !folderNode.isInlineNodeVisible()) {
                 continue;
             }
@@ -0,0 +1,100 @@
+package com.krab.lazy.utils;
+
+import java.util.HashMap;
+
+/**
+ * The path prefix stack behind LazyGui.pushFolder() and popFolder().
+ * Every distinct chain of pushed folder names is kept as a node in a small tree that remembers its own ready-made prefix string,
+ * so pushing a folder that was pushed before at the same place is a map lookup, popping is a field read
+ * and getting the current prefix does not build any string.
+ * The full paths of controls under each prefix are cached and interned as well,
+ * so the same String instance is used as the key every time a control is looked up by path.
+ * The caches are bounded in case the sketch keeps pushing new dynamically generated folder names.
+ */
+public class FolderPrefixStack {
+    private static final int maxCachedEntriesPerPrefix = 4096;
+    private final Prefix root = new Prefix(null, "");
+    private Prefix current = root;
+    private int depth = 0;
+
+    private static class Prefix {
+        final Prefix parent;
+        final String prefix;
+        HashMap<String, Prefix> children;
+        HashMap<String, String> fullPaths;
+
+        Prefix(Prefix parent, String prefix) {
+            this.parent = parent;
+            this.prefix = prefix;
+        }
+    }
+
+    /**
+     * Pushes a folder name on the stack.
+     * @param folderName folder name already stripped of its leading and unescaped trailing slash
+     */
+    public void push(String folderName) {
+        if (current.children == null) {
+            current.children = new HashMap<>();
+        }
+        Prefix child = current.children.get(folderName);
+        if (child == null) {
+            child = new Prefix(current, (current.prefix + folderName + "/").intern());
+            if (current.children.size() < maxCachedEntriesPerPrefix) {
+                current.children.put(folderName, child);
+            }
+        }
+        current = child;
+        depth++;
+    }
+
+    /**
+     * Pops the last pushed folder name, does nothing when the stack is empty.
+     */
+    public void pop() {
+        if (current.parent == null) {
+            return;
+        }
+        current = current.parent;
+        depth--;
+    }
+
+    public void clear() {
+        current = root;
+        depth = 0;
+    }
+
+    public int size() {
+        return depth;
+    }
+
+    public boolean isEmpty() {
+        return depth == 0;
+    }
+
+    /**
+     * @return all the folders in the stack concatenated to one string with a forward slash after each folder name
+     */
+    public String getPrefix() {
+        return current.prefix;
+    }
+
+    /**
+     * Applies the current prefix to a control path.
+     * @param path path relative to the current prefix
+     * @return interned full path of the control
+     */
+    public String getFullPath(String path) {
+        if (current.fullPaths == null) {
+            current.fullPaths = new HashMap<>();
+        }
+        String fullPath = current.fullPaths.get(path);
+        if (fullPath == null) {
+            fullPath = (current.prefix + path).intern();
+            if (current.fullPaths.size() < maxCachedEntriesPerPrefix) {
+                current.fullPaths.put(path, fullPath);
+            }
+        }
+        return fullPath;
+    }
+}
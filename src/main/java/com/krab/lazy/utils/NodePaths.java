@@ -1,35 +1,147 @@
 package com.krab.lazy.utils;
 
+import java.util.ArrayList;
 
-@SuppressWarnings("RegExpRedundantEscape")
+/**
+ * Path parsing utilities for forward slash separated node paths where a slash can be escaped with a backslash.
+ * A slash counts as escaped when the character right before it is a backslash.
+ * All methods scan the string once by hand, they are called for every node creation and in per-frame code.
+ * @see ParsedNodePath
+ */
 public class NodePaths {
 
-    static final String REGEX_UNESCAPED_SLASH_LOOKBEHIND = "(?<!\\\\)\\/";
-    static final String REGEX_UNESCAPED_SLASH_LOOKAROUND = "(?<!\\\\)(?=\\/)";
+    private NodePaths() {
+
+    }
 
     public static String getDisplayStringWithoutEscapes(String nameWithEscapes){
-        return nameWithEscapes.replaceAll("\\\\/", "/");
+        if(nameWithEscapes.indexOf('\\') == -1){
+            return nameWithEscapes;
+        }
+        int length = nameWithEscapes.length();
+        StringBuilder sb = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            char c = nameWithEscapes.charAt(i);
+            if(c == '\\' && i + 1 < length && nameWithEscapes.charAt(i + 1) == '/'){
+                sb.append('/');
+                i++;
+                continue;
+            }
+            sb.append(c);
+        }
+        return sb.toString();
     }
 
+    /**
+     * Splits the path by its unescaped slashes, removing them.
+     * Behaves like String.split() does, so trailing empty strings are not included in the result.
+     * @param source path to split
+     * @return path segments, still containing their escaped slashes
+     */
     public static String[] splitByUnescapedSlashes(String source){
-        return source.split(REGEX_UNESCAPED_SLASH_LOOKBEHIND);
+        int firstSlash = indexOfUnescapedSlash(source, 0);
+        if(firstSlash == -1){
+            return new String[]{source};
+        }
+        ArrayList<String> segments = new ArrayList<>();
+        int segmentStart = 0;
+        int slash = firstSlash;
+        while(slash != -1){
+            segments.add(source.substring(segmentStart, slash));
+            segmentStart = slash + 1;
+            slash = indexOfUnescapedSlash(source, segmentStart);
+        }
+        segments.add(source.substring(segmentStart));
+        int size = segments.size();
+        while(size > 0 && segments.get(size - 1).isEmpty()){
+            size--;
+        }
+        return segments.subList(0, size).toArray(new String[0]);
     }
 
+    /**
+     * Splits the path right before each of its unescaped slashes, so each segment except the first one starts with its slash.
+     * A slash at the very start does not produce an empty leading segment.
+     * @param source path to split
+     * @return path segments with their leading slashes
+     */
     public static String[] splitByUnescapesSlashesWithoutRemovingThem(String source){
-        return source.split(REGEX_UNESCAPED_SLASH_LOOKAROUND);
+        int firstSlash = indexOfUnescapedSlash(source, 1);
+        if(firstSlash == -1){
+            return new String[]{source};
+        }
+        ArrayList<String> segments = new ArrayList<>();
+        int segmentStart = 0;
+        int slash = firstSlash;
+        while(slash != -1){
+            segments.add(source.substring(segmentStart, slash));
+            segmentStart = slash;
+            slash = indexOfUnescapedSlash(source, segmentStart + 1);
+        }
+        segments.add(source.substring(segmentStart));
+        return segments.toArray(new String[0]);
     }
 
     public static String getPathWithoutName(String pathWithName) {
-        String[] split = NodePaths.splitByUnescapesSlashesWithoutRemovingThem(pathWithName);
-        StringBuilder sum = new StringBuilder();
-        for (int i = 0; i < split.length - 1; i++) {
-            sum.append(split[i]);
+        int lastSlash = lastIndexOfUnescapedSlash(pathWithName);
+        if(lastSlash <= 0){
+            return "";
         }
-        return sum.toString();
+        return pathWithName.substring(0, lastSlash);
+    }
+
+    /**
+     * @param path full path of a node
+     * @return the part after the last unescaped slash with its escapes kept, the whole path when there is no slash
+     */
+    public static String getLastSegment(String path) {
+        int lastSlash = lastIndexOfUnescapedSlash(path);
+        return lastSlash == -1 ? path : path.substring(lastSlash + 1);
     }
 
     public static String getNameWithoutPrefixSlash(String name) {
-        return name.replaceAll(REGEX_UNESCAPED_SLASH_LOOKBEHIND, "");
+        if(indexOfUnescapedSlash(name, 0) == -1){
+            return name;
+        }
+        int length = name.length();
+        StringBuilder sb = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            if(isUnescapedSlashAt(name, i)){
+                continue;
+            }
+            sb.append(name.charAt(i));
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Finds the first unescaped slash at or after the given index.
+     * @param source path to search
+     * @param fromIndex index to start searching from
+     * @return index of the slash or -1 if there is none
+     */
+    public static int indexOfUnescapedSlash(String source, int fromIndex) {
+        int slash = source.indexOf('/', fromIndex);
+        while(slash != -1 && !isUnescapedSlashAt(source, slash)){
+            slash = source.indexOf('/', slash + 1);
+        }
+        return slash;
     }
-}
 
+    /**
+     * Finds the last unescaped slash in the path.
+     * @param source path to search
+     * @return index of the slash or -1 if there is none
+     */
+    public static int lastIndexOfUnescapedSlash(String source) {
+        int slash = source.lastIndexOf('/');
+        while(slash != -1 && !isUnescapedSlashAt(source, slash)){
+            slash = slash == 0 ? -1 : source.lastIndexOf('/', slash - 1);
+        }
+        return slash;
+    }
+
+    private static boolean isUnescapedSlashAt(String source, int index) {
+        return source.charAt(index) == '/' && (index == 0 || source.charAt(index - 1) != '\\');
+    }
+}
@@ -0,0 +1,75 @@
+package com.krab.lazy.utils;
+
+/**
+ * Immutable result of parsing a node path once, so the segments, the parent path and the display name
+ * do not need to be parsed again every time they are needed.
+ * Every node keeps one of these for its own path.
+ * @see NodePaths
+ */
+public final class ParsedNodePath {
+    private final String path;
+    private final String[] segments;
+    private final String parentPath;
+    private final String name;
+    private final String displayName;
+
+    private ParsedNodePath(String path) {
+        this.path = path;
+        this.segments = NodePaths.splitByUnescapedSlashes(path);
+        this.parentPath = NodePaths.getPathWithoutName(path);
+        this.name = NodePaths.getLastSegment(path);
+        this.displayName = NodePaths.getDisplayStringWithoutEscapes(name);
+    }
+
+    public static ParsedNodePath parse(String path) {
+        return new ParsedNodePath(path);
+    }
+
+    /**
+     * @return the full path this object was parsed from
+     */
+    public String getPath() {
+        return path;
+    }
+
+    /**
+     * @return the path of the parent folder, an empty string for top level nodes
+     */
+    public String getParentPath() {
+        return parentPath;
+    }
+
+    /**
+     * @return the last segment of the path still containing its escaped slashes, this is what sibling nodes are told apart by
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return the last segment of the path with its escaped slashes turned into plain slashes, meant for display
+     */
+    public String getDisplayName() {
+        return displayName;
+    }
+
+    /**
+     * @return number of segments as split by the unescaped slashes
+     */
+    public int getSegmentCount() {
+        return segments.length;
+    }
+
+    /**
+     * @param index index of the segment, 0 being the topmost folder
+     * @return the path segment still containing its escaped slashes
+     */
+    public String getSegment(int index) {
+        return segments[index];
+    }
+
+    @Override
+    public String toString() {
+        return path;
+    }
+}
@@ -3,6 +3,7 @@ package com.krab.lazy.utils;
 import com.krab.lazy.stores.GlobalReferences;
 import com.krab.lazy.stores.LayoutStore;
 import com.krab.lazy.stores.NormColorStore;
+import com.krab.lazy.stores.RedrawStore;
 import com.krab.lazy.PickerColor;
 import com.krab.lazy.stores.ShaderStore;
 import com.krab.lazy.windows.Window;
@@ -27,6 +28,8 @@ public class SnapToGrid {
     private static int selectedVisibilityModeIndex = defaultVisibilityModeIndex;
     private static float dragAlpha = 0;
     private static final float dragAlphaDelta = 0.05f;
+    // the fade snaps to its target once it is this close, so it ends instead of asking for more frames forever
+    private static final float dragAlphaSettleDistance = 0.005f;
     private static PickerColor pointGridColor = new PickerColor(0xFF7F7F7F, 1,1,0.5f,1);
     private static float pointWeight = 3f;
     private static float sdfCropDistance = 100;
@@ -69,12 +72,14 @@ public class SnapToGrid {
     private static void updateAlpha(Window draggedWindow) {
         float dragAlphaMax = pointGridColor.alpha;
         dragAlphaMax = constrain(dragAlphaMax, 0, 1);
-        if(draggedWindow != null){
-            dragAlpha = lerp(dragAlpha, dragAlphaMax, dragAlphaDelta);
+        float dragAlphaTarget = draggedWindow != null ? dragAlphaMax : 0;
+        dragAlpha = lerp(dragAlpha, dragAlphaTarget, dragAlphaDelta);
+        dragAlpha = constrain(dragAlpha, 0, dragAlphaMax);
+        if(abs(dragAlpha - dragAlphaTarget) < dragAlphaSettleDistance){
+            dragAlpha = dragAlphaTarget;
         }else{
-            dragAlpha = lerp(dragAlpha, 0, dragAlphaDelta);
+            RedrawStore.requestRedraw();
         }
-        dragAlpha = constrain(dragAlpha, 0, dragAlphaMax);
     }
 
     public static PVector trySnapToGrid(float inputX, float inputY){
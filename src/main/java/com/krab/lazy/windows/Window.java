@@ -5,9 +5,11 @@ import com.google.gson.annotations.Expose;
 import com.krab.lazy.nodes.FolderNode;
 import com.krab.lazy.stores.FontStore;
 import com.krab.lazy.stores.GlobalReferences;
+import com.krab.lazy.stores.InteractionStore;
 import com.krab.lazy.stores.LayoutStore;
 import com.krab.lazy.stores.NodeTree;
-import com.krab.lazy.utils.NodePaths;
+import com.krab.lazy.stores.RedrawStore;
+import com.krab.lazy.utils.ParsedNodePath;
 import com.krab.lazy.utils.SnapToGrid;
 import com.krab.lazy.input.LazyKeyEvent;
 import com.krab.lazy.input.LazyMouseEvent;
@@ -42,6 +44,7 @@ public class Window implements UserInputSubscriber {
     boolean isBeingResized;
     private boolean isTitleHighlighted;
     private boolean closeButtonPressInProgress;
+    private final WindowTexture texture = new WindowTexture();
 
     public Window(FolderNode folder, float posX, float posY, Float nullableSizeX) {
         this.posX = posX;
@@ -64,20 +67,65 @@ public class Window implements UserInputSubscriber {
         pg.textFont(FontStore.getMainFont());
         isTitleHighlighted = !closed && (isPointInsideTitleBar(GlobalReferences.app.mouseX, GlobalReferences.app.mouseY) && isBeingDraggedAround) || folder.isMouseOverNode;
         if (closed || !folder.isInlineNodeVisibleParentAware()) {
+            texture.dispose();
             return;
         }
         constrainPosition(pg);
         pg.pushMatrix();
-        drawBackgroundWithWindowBorder(pg, true);
+        if (WindowManager.windowTexturesEnabled && !isAnyChildRedrawnEveryFrame()) {
+            windowSizeY = LayoutStore.cell + heightSumOfChildNodes();
+            updateChildNodeCoordinates();
+            texture.updateAndDraw(this, pg, isCloseButtonHighlighted());
+        } else {
+            texture.invalidate();
+            drawWindowRectangle(pg);
+        }
+        // drawn live on top of the window, so neither the texture nor its padding ever covers the tooltip
         drawPathTooltipOnHighlight(pg);
+        drawResizeIndicator(pg);
+        pg.popMatrix();
+    }
+
+    /**
+     * Draws everything that stays inside the window's rectangle, either directly on the gui canvas or into the window's cached texture.
+     * @param pg graphics to draw on, translated so that the window's absolute position lands where it should
+     */
+    void drawWindowRectangle(PGraphics pg) {
+        drawBackgroundWithWindowBorder(pg, true);
         drawContent(pg);
         drawBackgroundWithWindowBorder(pg, false);
         drawTitleBar(pg, isTitleHighlighted);
         if (!isRoot()) {
             drawCloseButton(pg);
         }
-        drawResizeIndicator(pg);
-        pg.popMatrix();
+    }
+
+    private boolean isAnyChildRedrawnEveryFrame() {
+        for (int i = 0; i < folder.children.size(); i++) {
+            AbstractNode node = folder.children.get(i);
+            if (node.isInlineNodeVisible() && node.needsRedrawEveryFrame()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // keeps mouse interaction working while the nodes are not being drawn
+    private void updateChildNodeCoordinates() {
+        float y = LayoutStore.cell;
+        for (int i = 0; i < folder.children.size(); i++) {
+            AbstractNode node = folder.children.get(i);
+            if (!node.isInlineNodeVisible()) {
+                continue;
+            }
+            float nodeHeight = LayoutStore.cell * node.masterInlineNodeHeightInCells;
+            node.updateInlineNodeCoordinates(posX, posY + y, windowSizeX, nodeHeight);
+            y += nodeHeight;
+        }
+    }
+
+    private boolean isCloseButtonHighlighted() {
+        return !isRoot() && (isPointInsideCloseButton(GlobalReferences.app.mouseX, GlobalReferences.app.mouseY) || closeButtonPressInProgress);
     }
 
     private void drawResizeIndicator(PGraphics pg) {
@@ -100,15 +148,15 @@ public class Window implements UserInputSubscriber {
         pg.pushMatrix();
         pg.pushStyle();
         pg.translate(posX, posY);
-        String[] pathSplit = splitFullPathWithoutEndAndRoot(folder.path);
-        int lineCount = pathSplit.length;
+        ParsedNodePath parsedPath = folder.parsedPath;
+        int lineCount = parsedPath.getSegmentCount() - 1;
         float tooltipXOffset = LayoutStore.cell * 0.5f;
         float tooltipWidthMinimum = windowSizeX - tooltipXOffset - LayoutStore.cell;
         pg.noStroke();
         pg.rectMode(CORNER);
         pg.textAlign(LEFT, CENTER);
         for (int i = 0; i < lineCount; i++) {
-            String line = pathSplit[lineCount - 1 - i];
+            String line = parsedPath.getSegment(lineCount - 1 - i);
             float tooltipWidth = max(tooltipWidthMinimum, pg.textWidth(line) + FontStore.textMarginX * 2);
             pg.fill(ThemeStore.getColor(NORMAL_BACKGROUND));
             pg.rect(tooltipXOffset, -i * LayoutStore.cell - LayoutStore.cell, tooltipWidth, LayoutStore.cell);
@@ -119,11 +167,6 @@ public class Window implements UserInputSubscriber {
         pg.popStyle();
     }
 
-    static String[] splitFullPathWithoutEndAndRoot(String fullPath) {
-        String[] pathWithEnd = NodePaths.splitByUnescapedSlashes(fullPath);
-        return Arrays.copyOf(pathWithEnd, pathWithEnd.length - 1);
-    }
-
     protected void drawBackgroundWithWindowBorder(PGraphics pg, boolean drawBackgroundOnly) {
         pg.pushMatrix();
         pg.translate(posX, posY);
@@ -145,7 +188,7 @@ public class Window implements UserInputSubscriber {
         pg.stroke(ThemeStore.getColor(WINDOW_BORDER));
         pg.strokeWeight(1);
         pg.line(windowSizeX - LayoutStore.cell, 0, windowSizeX - LayoutStore.cell, LayoutStore.cell - 1);
-        if (isPointInsideCloseButton(GlobalReferences.app.mouseX, GlobalReferences.app.mouseY) || closeButtonPressInProgress) {
+        if (isCloseButtonHighlighted()) {
             pg.fill(ThemeStore.getColor(FOCUS_BACKGROUND));
             pg.noStroke();
             pg.rectMode(CORNER);
@@ -236,6 +279,8 @@ public class Window implements UserInputSubscriber {
         float rightEdge = pg.width - windowSizeX - 1;
         float bottomEdge = pg.height - windowSizeY - 1;
         float lerpAmt = 0.3f;
+        float previousPosX = posX;
+        float previousPosY = posY;
         if (posX < 0) {
             posX = lerp(posX, 0, lerpAmt);
         }
@@ -248,6 +293,10 @@ public class Window implements UserInputSubscriber {
         if (posY > bottomEdge) {
             posY = lerp(posY, bottomEdge, lerpAmt);
         }
+        if (abs(posX - previousPosX) > 0.01f || abs(posY - previousPosY) > 0.01f) {
+            // still sliding back into bounds
+            RedrawStore.requestRedraw();
+        }
     }
 
     void drawInlineFolderChildren(PGraphics pg) {
@@ -280,6 +329,10 @@ public class Window implements UserInputSubscriber {
             pg.translate(0, nodeHeight);
         }
         pg.popMatrix();
+        if (windowSizeY != LayoutStore.cell + heightSumOfChildNodes()) {
+            // some node changed its own height while drawing, which only shows once the window is drawn again
+            RedrawStore.requestRedraw();
+        }
     }
 
     private void drawHorizontalSeparator(PGraphics pg) {
@@ -309,13 +362,11 @@ public class Window implements UserInputSubscriber {
     public void mouseWheelMoved(LazyMouseEvent e) {
         // scrolling while dragging should scale the dragged inline node as opposed to whatever the cursor is hovering
         if (GlobalReferences.app.mousePressed) {
-            List<AbstractNode> allNodes = NodeTree.getAllNodesAsList();
-            for (AbstractNode node : allNodes) {
-                if (node.isInlineNodeDragged) {
-                    node.mouseWheelMovedOverNode(e.getX(), e.getY(), e.getRotation());
-                    e.setConsumed(true);
-                    return;
-                }
+            AbstractNode draggedNode = InteractionStore.getDragged();
+            if (draggedNode != null) {
+                draggedNode.mouseWheelMovedOverNode(e.getX(), e.getY(), e.getRotation());
+                e.setConsumed(true);
+                return;
             }
         }
         if (isPointInsideTitleBar(e.getX(), e.getY())) {
@@ -390,6 +441,7 @@ public class Window implements UserInputSubscriber {
             AbstractNode node = tryFindChildNodeAt(e.getX(), e.getY());
             if (node != null && node.isParentWindowVisible()) {
                 node.mousePressedOverNode(e.getX(), e.getY());
+                InteractionStore.setDragged(node);
             }
         }
     }
@@ -406,7 +458,7 @@ public class Window implements UserInputSubscriber {
                 e.setConsumed(true);
             }
         } else {
-            NodeTree.setAllNodesMouseOverToFalse();
+            InteractionStore.setHovered(null);
         }
     }
 
@@ -482,10 +534,12 @@ public class Window implements UserInputSubscriber {
     void close() {
         closed = true;
         isBeingDraggedAround = false;
+        RedrawStore.requestRedraw();
     }
 
     void open(boolean startDragging) {
         closed = false;
+        RedrawStore.requestRedraw();
         if (startDragging) {
             isBeingDraggedAround = true;
             setFocusOnThis();
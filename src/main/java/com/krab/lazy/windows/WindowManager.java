@@ -1,9 +1,13 @@
 package com.krab.lazy.windows;
 
 import com.krab.lazy.nodes.FolderNode;
+import com.krab.lazy.stores.FontStore;
 import com.krab.lazy.stores.LayoutStore;
 import com.krab.lazy.stores.NodeTree;
+import com.krab.lazy.themes.ThemeColorType;
+import com.krab.lazy.themes.ThemeStore;
 import com.krab.lazy.utils.SnapToGrid;
+import processing.core.PFont;
 import processing.core.PGraphics;
 import processing.core.PVector;
 
@@ -13,6 +17,19 @@ import java.util.concurrent.CopyOnWriteArrayList;
 public class WindowManager {
     private static final CopyOnWriteArrayList<Window> windows = new CopyOnWriteArrayList<>();
     private static final ArrayList<Window> windowsToSetFocusOn = new ArrayList<>();
+    /**
+     * Whether windows that do not change are drawn from a cached texture of their contents instead of from scratch every frame.
+     * Enabled by default.
+     */
+    public static boolean windowTexturesEnabled = true;
+    private static final ThemeColorType[] themeColorTypes = ThemeColorType.values();
+    private static final int[] lastThemeColors = new int[themeColorTypes.length];
+    private static PFont lastMainFont, lastSideFont;
+    private static float lastTextMarginX, lastTextMarginY;
+    private static float lastCell = -1;
+    private static boolean lastShowHorizontalSeparators;
+    private static float lastHorizontalSeparatorStrokeWeight;
+    private static long appearanceVersion = 0;
 
     public static void addRootWindow() {
         addWindow(new Window(NodeTree.getRoot(), LayoutStore.cell, LayoutStore.cell, LayoutStore.cell * LayoutStore.defaultWindowWidthInCells));
@@ -83,6 +100,61 @@ public class WindowManager {
         }
     }
 
+    /**
+     * Gets the version of the look shared by all windows, which grows whenever the theme colors, the fonts,
+     * the cell size or the separator settings change, so every cached window texture knows it needs to be rendered again.
+     * @return version of the current look of the windows
+     */
+    public static long getAppearanceVersion() {
+        return appearanceVersion;
+    }
+
+    /**
+     * Compares the look of the windows to the last frame and bumps the appearance version if it changed, called by LazyGui once per frame.
+     */
+    public static void updateAppearanceVersion() {
+        boolean changed = false;
+        for (int i = 0; i < themeColorTypes.length; i++) {
+            int color = ThemeStore.getColor(themeColorTypes[i]);
+            if (lastThemeColors[i] != color) {
+                lastThemeColors[i] = color;
+                changed = true;
+            }
+        }
+        if (lastMainFont != FontStore.getMainFont() || lastSideFont != FontStore.getSideFont() ||
+                lastTextMarginX != FontStore.textMarginX || lastTextMarginY != FontStore.textMarginY) {
+            lastMainFont = FontStore.getMainFont();
+            lastSideFont = FontStore.getSideFont();
+            lastTextMarginX = FontStore.textMarginX;
+            lastTextMarginY = FontStore.textMarginY;
+            changed = true;
+        }
+        if (lastCell != LayoutStore.cell ||
+                lastShowHorizontalSeparators != LayoutStore.isShowHorizontalSeparators() ||
+                lastHorizontalSeparatorStrokeWeight != LayoutStore.getHorizontalSeparatorStrokeWeight()) {
+            lastCell = LayoutStore.cell;
+            lastShowHorizontalSeparators = LayoutStore.isShowHorizontalSeparators();
+            lastHorizontalSeparatorStrokeWeight = LayoutStore.getHorizontalSeparatorStrokeWeight();
+            changed = true;
+        }
+        if (changed) {
+            appearanceVersion++;
+        }
+    }
+
+    /**
+     * Checks whether the user is currently moving or resizing any window with the mouse.
+     * @return whether any open window is being dragged around or resized
+     */
+    public static boolean isAnyWindowBeingDraggedOrResized() {
+        for (Window w : windows) {
+            if (!w.closed && (w.isBeingDraggedAround || w.isBeingResized)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     static boolean isFocused(Window window) {
         return windows.get(windows.size()-1).equals(window);
     }
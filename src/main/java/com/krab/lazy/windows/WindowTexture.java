@@ -0,0 +1,170 @@
+package com.krab.lazy.windows;
+
+import com.krab.lazy.nodes.AbstractNode;
+import com.krab.lazy.stores.FontStore;
+import com.krab.lazy.stores.GlobalReferences;
+import com.krab.lazy.stores.LayoutStore;
+import com.krab.lazy.stores.NodeTree;
+import processing.core.PGraphics;
+
+import static processing.core.PApplet.ceil;
+import static processing.core.PApplet.floor;
+import static processing.core.PConstants.CORNER;
+import static processing.core.PConstants.HSB;
+import static processing.core.PConstants.P2D;
+
+/**
+ * Retained texture holding everything a window draws inside its own rectangle: the background, the nodes, the border and the title bar.
+ * A static window is then drawn as a single image every frame and only gets rendered again when something it shows has changed:
+ * <ul>
+ *     <li>a value of any node inside the folder, told by the folder's change version</li>
+ *     <li>the order of its nodes and the hover, drag or visibility state of any of them</li>
+ *     <li>the tree structure, the window size or the sub-pixel part of the window position</li>
+ *     <li>the theme colors, the font, the cell size or the separator settings, told by the WindowManager's appearance version</li>
+ *     <li>the title bar highlight, the hovered close button or the sketch focus shown on the root window</li>
+ * </ul>
+ * Moving a window around only moves the image, the node positions used for mouse interaction are still updated every frame.
+ */
+class WindowTexture {
+    // leaves room for the border stroke that is centered on the window's edge
+    private static final int PADDING = 1;
+    // the texture grows in steps so that resizing a window does not allocate a new one every frame
+    private static final int SIZE_STEP = 64;
+    private PGraphics graphics;
+    private boolean rendered = false;
+    private int originX, originY;
+    private float renderedFractionX, renderedFractionY;
+    private long renderedChangeVersion;
+    private int renderedStructureVersion;
+    private long renderedAppearanceVersion;
+    private float renderedSizeX, renderedSizeY;
+    private boolean renderedTitleHighlighted;
+    private boolean renderedCloseButtonHighlighted;
+    private boolean renderedAppFocused;
+    private AbstractNode[] renderedChildren = new AbstractNode[0];
+    private int[] renderedChildStates = new int[0];
+
+    /**
+     * Renders the window into the texture if anything it shows has changed since the last time and draws the texture.
+     * @param window the window owning this texture
+     * @param pg the gui canvas to draw the texture on
+     * @param closeButtonHighlighted whether the close button is hovered or pressed
+     */
+    void updateAndDraw(Window window, PGraphics pg, boolean closeButtonHighlighted) {
+        if (!isUpToDate(window, closeButtonHighlighted)) {
+            render(window, closeButtonHighlighted);
+        }
+        pg.pushStyle();
+        pg.imageMode(CORNER);
+        pg.image(graphics, originX - PADDING, originY - PADDING);
+        pg.popStyle();
+    }
+
+    void invalidate() {
+        rendered = false;
+    }
+
+    void dispose() {
+        if (graphics != null) {
+            graphics.dispose();
+            graphics = null;
+        }
+        rendered = false;
+    }
+
+    private boolean isUpToDate(Window window, boolean closeButtonHighlighted) {
+        boolean upToDate = rendered &&
+                renderedChangeVersion == window.folder.getChangeVersion() &&
+                renderedStructureVersion == NodeTree.getStructureVersion() &&
+                renderedAppearanceVersion == WindowManager.getAppearanceVersion() &&
+                renderedSizeX == window.windowSizeX &&
+                renderedSizeY == window.windowSizeY &&
+                renderedFractionX == window.posX - floor(window.posX) &&
+                renderedFractionY == window.posY - floor(window.posY) &&
+                renderedTitleHighlighted == window.isTitleHighlighted() &&
+                renderedCloseButtonHighlighted == closeButtonHighlighted &&
+                renderedAppFocused == GlobalReferences.app.focused;
+        // the child states are always refreshed so the next comparison sees the current ones
+        boolean childStatesChanged = updateChildStates(window);
+        if (upToDate && !childStatesChanged) {
+            // the window moved by whole pixels at most, so the texture only needs to be drawn somewhere else
+            originX = floor(window.posX);
+            originY = floor(window.posY);
+            return true;
+        }
+        return false;
+    }
+
+    private boolean updateChildStates(Window window) {
+        int childCount = window.folder.children.size();
+        boolean changed = false;
+        if (renderedChildStates.length != childCount) {
+            renderedChildren = new AbstractNode[childCount];
+            renderedChildStates = new int[childCount];
+            changed = true;
+        }
+        for (int i = 0; i < childCount; i++) {
+            AbstractNode child = window.folder.children.get(i);
+            // a folder can reorder its children without indexing any node, like the saves folder showing a newer save first
+            if (renderedChildren[i] != child) {
+                renderedChildren[i] = child;
+                changed = true;
+            }
+            int state = (child.isInlineNodeVisible() ? 1 : 0) |
+                    (child.isMouseOverNode ? 2 : 0) |
+                    (child.isInlineNodeDragged ? 4 : 0);
+            if (renderedChildStates[i] != state) {
+                renderedChildStates[i] = state;
+                changed = true;
+            }
+        }
+        return changed;
+    }
+
+    private void render(Window window, boolean closeButtonHighlighted) {
+        originX = floor(window.posX);
+        originY = floor(window.posY);
+        lazyInitGraphics(ceil(window.windowSizeX) + PADDING * 2 + 1, ceil(window.windowSizeY) + PADDING * 2 + 1);
+        graphics.beginDraw();
+        graphics.clear();
+        graphics.textFont(FontStore.getMainFont());
+        graphics.pushMatrix();
+        // the window draws itself at its absolute position, which this moves to the texture's corner
+        graphics.translate(PADDING - originX, PADDING - originY);
+        window.drawWindowRectangle(graphics);
+        graphics.popMatrix();
+        graphics.endDraw();
+        rendered = true;
+        renderedChangeVersion = window.folder.getChangeVersion();
+        renderedStructureVersion = NodeTree.getStructureVersion();
+        renderedAppearanceVersion = WindowManager.getAppearanceVersion();
+        renderedSizeX = window.windowSizeX;
+        renderedSizeY = window.windowSizeY;
+        renderedFractionX = window.posX - originX;
+        renderedFractionY = window.posY - originY;
+        renderedTitleHighlighted = window.isTitleHighlighted();
+        renderedCloseButtonHighlighted = closeButtonHighlighted;
+        renderedAppFocused = GlobalReferences.app.focused;
+    }
+
+    private void lazyInitGraphics(int minWidth, int minHeight) {
+        if (graphics != null && graphics.width >= minWidth && graphics.height >= minHeight &&
+                graphics.width < minWidth + SIZE_STEP * 2 && graphics.height < minHeight + SIZE_STEP * 2) {
+            return;
+        }
+        dispose();
+        int width = ceil(minWidth / (float) SIZE_STEP) * SIZE_STEP;
+        int height = ceil(minHeight / (float) SIZE_STEP) * SIZE_STEP;
+        graphics = GlobalReferences.app.createGraphics(width, height, P2D);
+        graphics.colorMode(HSB, 1, 1, 1, 1);
+        int smoothValue = LayoutStore.getSmoothingValue();
+        if (smoothValue == 0) {
+            graphics.noSmooth();
+        } else {
+            graphics.smooth(smoothValue);
+        }
+        // the same dummy draw workaround as the gui canvas needs for its first draw in P2D
+        graphics.beginDraw();
+        graphics.endDraw();
+    }
+}